@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.matchers;
+
+import com.github.fge.grappa.buffers.CharSequenceInputBuffer;
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.run.MatchHandler;
+import com.github.fge.grappa.run.context.DefaultMatcherContext;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.stack.ArrayValueStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword matching: {@link StringMatcher} and {@link StringIgnoreCaseMatcher}
+ * against the previous implementation (extract, then compare)
+ *
+ * <p>At each position of the input, all keywords are tried in turn, which is
+ * what a choice of keywords does; most attempts therefore fail.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StringMatcherBenchmark
+{
+    private static final String[] KEYWORDS = {
+        "abstract", "boolean", "break", "case", "catch", "class", "continue",
+        "default", "double", "else", "extends", "final", "finally", "float",
+        "for", "if", "implements", "import", "instanceof", "interface",
+        "private", "protected", "public", "return", "static", "switch",
+        "synchronized", "this", "throw", "throws", "try", "void", "while"
+    };
+
+    private static final MatchHandler HANDLER = new MatchHandler()
+    {
+        @Override
+        public <V> boolean match(final MatcherContext<V> context)
+        {
+            return context.getMatcher().match(context);
+        }
+    };
+
+    private InputBuffer buffer;
+    private Matcher[] matchers;
+    private Matcher[] ignoreCaseMatchers;
+    private MatcherContext<Object> context;
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(0L);
+        final StringBuilder sb = new StringBuilder();
+
+        while (sb.length() < 10000) {
+            if (random.nextInt(4) == 0)
+                sb.append(KEYWORDS[random.nextInt(KEYWORDS.length)]);
+            else
+                for (int i = random.nextInt(8) + 1; i > 0; i--)
+                    sb.append((char) ('a' + random.nextInt(26)));
+            sb.append(' ');
+        }
+
+        buffer = new CharSequenceInputBuffer(sb.toString());
+        matchers = new Matcher[KEYWORDS.length];
+        ignoreCaseMatchers = new Matcher[KEYWORDS.length];
+
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            matchers[i] = new StringMatcher(KEYWORDS[i]);
+            ignoreCaseMatchers[i] = new StringIgnoreCaseMatcher(KEYWORDS[i]);
+        }
+
+        context = new DefaultMatcherContext<>(buffer,
+            new ArrayValueStack<>(), HANDLER, matchers[0]);
+    }
+
+    @Benchmark
+    public int extractAndEquals()
+    {
+        final int length = buffer.length();
+        int ret = 0;
+
+        for (int index = 0; index < length; index++)
+            for (final String keyword: KEYWORDS)
+                if (buffer.extract(index, index + keyword.length())
+                    .equals(keyword))
+                    ret++;
+
+        return ret;
+    }
+
+    @Benchmark
+    public int stringMatcher()
+    {
+        return run(matchers);
+    }
+
+    @Benchmark
+    public int extractAndEqualsIgnoreCase()
+    {
+        final int length = buffer.length();
+        int ret = 0;
+
+        for (int index = 0; index < length; index++)
+            for (final String keyword: KEYWORDS)
+                if (buffer.extract(index, index + keyword.length())
+                    .equalsIgnoreCase(keyword))
+                    ret++;
+
+        return ret;
+    }
+
+    @Benchmark
+    public int stringIgnoreCaseMatcher()
+    {
+        return run(ignoreCaseMatchers);
+    }
+
+    private int run(final Matcher[] array)
+    {
+        final int length = buffer.length();
+        int ret = 0;
+
+        for (int index = 0; index < length; index++)
+            for (final Matcher matcher: array) {
+                context.setCurrentIndex(index);
+                if (matcher.match(context))
+                    ret++;
+            }
+
+        return ret;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.matchers.delegate;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.CharSequenceInputBuffer;
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequences over a lexically heavy grammar: stack pure sequences against the
+ * same sequences made impure by a no-op action
+ *
+ * <p>Stack pure sequences take no value stack snapshot at all; the impure
+ * ones take one on each attempt, and restore it on each failure.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SequenceMatcherBenchmark
+{
+    static class LexicalParser
+        extends BaseParser<Object>
+    {
+        public Rule pure()
+        {
+            return oneOrMore(firstOf(
+                sequence(alpha(), zeroOrMore(firstOf(alpha(), digit())), ' '),
+                sequence(digit(), zeroOrMore(digit()), '.', digit(), ' '),
+                sequence(digit(), zeroOrMore(digit()), ' '),
+                sequence(anyOf("+-*/="), ' ')
+            ));
+        }
+
+        public Rule impure()
+        {
+            return oneOrMore(firstOf(
+                sequence(alpha(), zeroOrMore(firstOf(alpha(), digit())), ' ',
+                    ACTION(true)),
+                sequence(digit(), zeroOrMore(digit()), '.', digit(), ' ',
+                    ACTION(true)),
+                sequence(digit(), zeroOrMore(digit()), ' ', ACTION(true)),
+                sequence(anyOf("+-*/="), ' ', ACTION(true))
+            ));
+        }
+    }
+
+    private InputBuffer buffer;
+    private ParseRunner<Object> pure;
+    private ParseRunner<Object> impure;
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(0L);
+        final StringBuilder sb = new StringBuilder();
+
+        while (sb.length() < 10000) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    sb.append((char) ('a' + random.nextInt(26)));
+                    for (int i = random.nextInt(8); i > 0; i--)
+                        sb.append((char) ('a' + random.nextInt(26)));
+                    break;
+                case 1:
+                    sb.append(random.nextInt(1000));
+                    break;
+                default:
+                    sb.append("+-*/=".charAt(random.nextInt(5)));
+            }
+            sb.append(' ');
+        }
+
+        buffer = new CharSequenceInputBuffer(sb.toString());
+
+        final LexicalParser parser = Grappa.createParser(LexicalParser.class);
+        pure = new ParseRunner<>(parser.pure());
+        impure = new ParseRunner<>(parser.impure());
+    }
+
+    @Benchmark
+    public boolean pure()
+    {
+        return pure.run(buffer).isSuccess();
+    }
+
+    @Benchmark
+    public boolean impure()
+    {
+        return impure.run(buffer).isSuccess();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.repeat;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.CharSequenceInputBuffer;
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repetitions of single character rules: scanning the input directly against
+ * running the inner matcher once per character
+ *
+ * <p>The input is a series of string literals; {@code firstOf(x, NOTHING)}
+ * is used to force the per character path.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RepeatMatcherBenchmark
+{
+    static class LiteralsParser
+        extends BaseParser<Object>
+    {
+        public Rule scanned()
+        {
+            return oneOrMore('"', zeroOrMore(noneOf("\"")), '"', ' ');
+        }
+
+        public Rule perCharacter()
+        {
+            return oneOrMore('"', zeroOrMore(firstOf(noneOf("\""), NOTHING)),
+                '"', ' ');
+        }
+    }
+
+    private InputBuffer buffer;
+    private ParseRunner<Object> scanned;
+    private ParseRunner<Object> perCharacter;
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(0L);
+        final StringBuilder sb = new StringBuilder();
+
+        while (sb.length() < 10000) {
+            sb.append('"');
+            for (int i = random.nextInt(64); i > 0; i--)
+                sb.append((char) ('a' + random.nextInt(26)));
+            sb.append("\" ");
+        }
+
+        buffer = new CharSequenceInputBuffer(sb.toString());
+
+        final LiteralsParser parser
+            = Grappa.createParser(LiteralsParser.class);
+        scanned = new ParseRunner<>(parser.scanned());
+        perCharacter = new ParseRunner<>(parser.perCharacter());
+    }
+
+    @Benchmark
+    public boolean scanned()
+    {
+        return scanned.run(buffer).isSuccess();
+    }
+
+    @Benchmark
+    public boolean perCharacter()
+    {
+        return perCharacter.run(buffer).isSuccess();
+    }
+}
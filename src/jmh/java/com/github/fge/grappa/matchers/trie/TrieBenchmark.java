@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Trie} against the previous, {@link TrieNode} based, implementation
+ *
+ * <p>The dictionary is made of product codes. Both building and searching
+ * are measured; for memory usage, run with {@code -prof gc} and compare the
+ * allocation rates of the build benchmarks.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TrieBenchmark
+{
+    private static final String CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ0123456789";
+
+    @Param("200000")
+    public int nrWords;
+
+    private List<String> words;
+    private String input;
+    private Trie trie;
+    private TrieNode node;
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(0L);
+        final StringBuilder sb = new StringBuilder();
+
+        words = new ArrayList<>(nrWords);
+        for (int i = 0; i < nrWords; i++)
+            words.add(randomCode(random));
+
+        for (int i = 0; i < 10000; i++)
+            sb.append(i % 2 == 0 ? words.get(random.nextInt(nrWords))
+                : randomCode(random)).append(' ');
+        input = sb.toString();
+
+        trie = buildTrie();
+        node = buildTrieNodes();
+    }
+
+    @Benchmark
+    public Trie buildTrie()
+    {
+        return Trie.newBuilder().addWords(words).build();
+    }
+
+    @Benchmark
+    public TrieNode buildTrieNodes()
+    {
+        final TrieNodeBuilder builder = new TrieNodeBuilder();
+        words.forEach(builder::addWord);
+        return builder.build();
+    }
+
+    @Benchmark
+    public int searchTrie()
+    {
+        final int length = input.length();
+        int ret = 0;
+
+        for (int index = 0; index < length; index++)
+            ret += trie.search(input, index, false);
+
+        return ret;
+    }
+
+    /*
+     * This is what the matchers did before: extract, then search
+     */
+    @Benchmark
+    public int searchTrieNodes()
+    {
+        final int length = input.length();
+        final int maxLength = trie.getMaxLength();
+        int ret = 0;
+
+        for (int index = 0; index < length; index++)
+            ret += node.search(input.substring(index,
+                Math.min(length, index + maxLength)), false);
+
+        return ret;
+    }
+
+    private static String randomCode(final Random random)
+    {
+        final StringBuilder sb = new StringBuilder("PRD-");
+
+        for (int i = 6 + random.nextInt(7); i > 0; i--)
+            sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+
+        return sb.toString();
+    }
+}
@@ -34,6 +34,9 @@ import java.util.Arrays;
  * effect, that a trie node has no characters "belonging" to him, and the root
  * node knows of all first characters there are to match).</p>
  *
+ * <p>This was the implementation of tries before {@link Trie}; it is only
+ * kept here as a reference for {@link TrieBenchmark}.</p>
+ *
  * @since 1.0.0-beta.6
  */
 @Immutable
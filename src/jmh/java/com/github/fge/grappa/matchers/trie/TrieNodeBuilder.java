@@ -29,6 +29,9 @@ import java.util.TreeMap;
  * <p>When {@link #build()} is called, the whole tree is built from the leaves
  * up to the root.</p>
  *
+ * <p>{@link Trie} no longer uses this class; it is only kept here as a
+ * reference for {@link TrieBenchmark}.</p>
+ *
  * @since 1.0.0-beta.6
  */
 public final class TrieNodeBuilder
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.stack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Value stack implementations: accumulating values on the stack, then
+ * reducing them
+ *
+ * <p>This is what, for instance, a list rule pushing one value per element
+ * before folding them all into a single value does. Also measured: taking
+ * and restoring snapshots with many values on the stack, as backtracking
+ * sequences do.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValueStackBenchmark
+{
+    @Param({ "array", "list", "reverseArray" })
+    public String implementation;
+
+    @Param({ "100", "10000" })
+    public int nrValues;
+
+    private Supplier<ValueStack<Integer>> supplier;
+
+    @Setup
+    public void setup()
+    {
+        switch (implementation) {
+            case "array":
+                supplier = ArrayValueStack::new;
+                break;
+            case "list":
+                supplier = ListValueStack::new;
+                break;
+            default:
+                supplier = ReverseArrayValueStack::new;
+        }
+    }
+
+    @Benchmark
+    public int pushThenReduce()
+    {
+        final ValueStack<Integer> stack = supplier.get();
+
+        for (int i = 0; i < nrValues; i++)
+            stack.push(i);
+
+        while (stack.size() > 1)
+            stack.push(stack.pop() + stack.pop());
+
+        return stack.pop();
+    }
+
+    @Benchmark
+    public int pushPopSwap()
+    {
+        final ValueStack<Integer> stack = supplier.get();
+
+        for (int i = 0; i < nrValues; i++) {
+            stack.push(i);
+            stack.dup();
+            stack.swap();
+            stack.poke(stack.pop() + stack.peek());
+        }
+
+        int ret = 0;
+        while (!stack.isEmpty())
+            ret += stack.pop();
+
+        return ret;
+    }
+
+    @Benchmark
+    public int backtrack()
+    {
+        final ValueStack<Integer> stack = supplier.get();
+
+        for (int i = 0; i < nrValues; i++)
+            stack.push(i);
+
+        Object snapshot;
+        int ret = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            snapshot = stack.takeSnapshot();
+            stack.push(i);
+            ret += stack.peek();
+            stack.restoreSnapshot(snapshot);
+        }
+
+        return ret;
+    }
+}
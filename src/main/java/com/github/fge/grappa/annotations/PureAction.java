@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.annotations;
+
+import com.github.fge.grappa.parsers.BaseActions;
+import com.github.fge.grappa.rules.Action;
+import com.github.fge.grappa.stack.ValueStack;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declare that an action never modifies the value stack
+ *
+ * <p>Before running an action, the parser takes a {@link
+ * ValueStack#takeSnapshot() snapshot} of the value stack, so as to restore it
+ * if the action fails. This is not needed for actions which do not modify the
+ * value stack.</p>
+ *
+ * <p>This annotation can be used on:</p>
+ *
+ * <ul>
+ *     <li>a parser method, for instance:
+ *     <pre>
+ *     &#64;PureAction
+ *     public boolean isKeyword()
+ *     {
+ *         return keywords.contains(match());
+ *     }
+ *     </pre>
+ *     An action expression in a rule is pure if all the parser methods it
+ *     calls carry this annotation; the read only methods of {@link
+ *     BaseActions} (such as {@link BaseActions#match()} or {@link
+ *     BaseActions#peek()}) do.</li>
+ *     <li>a class implementing {@link Action}.</li>
+ * </ul>
+ *
+ * <p>Note that an overriding method must carry the annotation as well.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface PureAction
+{
+}
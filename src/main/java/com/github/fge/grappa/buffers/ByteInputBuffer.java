@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.buffers;
+
+import com.github.fge.grappa.support.IndexRange;
+import com.github.fge.grappa.support.Position;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Range;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An {@link InputBuffer} over raw bytes
+ *
+ * <p>Each byte of the input is seen as one {@code char} in the range {@code
+ * 0x00} to {@code 0xff}; in other words, this buffer behaves as an ISO-8859-1
+ * decoded view of its bytes, without any decoding actually taking place. This
+ * means that byte oriented rules (see for instance {@code singleByte()} or
+ * {@code u16be()} in {@code BaseParser}) and text rules can be mixed in one
+ * grammar, which is what most binary protocols need.</p>
+ *
+ * <p>Lines are only computed if a position, or a line, is actually requested;
+ * parsing purely binary input therefore never pays for line counting.</p>
+ *
+ * <p>Note that the bytes are not copied: if the contents of the underlying
+ * array (or buffer) change while parsing, the results are undefined.</p>
+ */
+@Immutable
+public final class ByteInputBuffer
+    implements InputBuffer
+{
+    private final ByteBuffer buffer;
+    private final int length;
+    private final Supplier<LineCounter> lineCounter;
+
+    public ByteInputBuffer(@Nonnull final byte[] bytes)
+    {
+        this(ByteBuffer.wrap(Objects.requireNonNull(bytes)));
+    }
+
+    public ByteInputBuffer(@Nonnull final byte[] bytes, final int offset,
+        final int length)
+    {
+        this(ByteBuffer.wrap(Objects.requireNonNull(bytes), offset, length));
+    }
+
+    /**
+     * Constructor from a {@link ByteBuffer}
+     *
+     * <p>The input is the content of the buffer between its current position
+     * and its limit. The buffer's position, limit and mark are not modified.
+     * </p>
+     *
+     * @param buffer the buffer
+     */
+    public ByteInputBuffer(@Nonnull final ByteBuffer buffer)
+    {
+        this.buffer = Objects.requireNonNull(buffer).slice();
+        length = this.buffer.remaining();
+        lineCounter = Suppliers.memoize(() -> new LineCounter(this));
+    }
+
+    /**
+     * Return the byte at a given index
+     *
+     * @param index the index
+     * @return the byte
+     *
+     * @throws IndexOutOfBoundsException index is out of bounds
+     */
+    public byte getByte(final int index)
+    {
+        return buffer.get(index);
+    }
+
+    /**
+     * Extract a range of bytes from this buffer
+     *
+     * <p>Like {@link #extract(int, int)}, indices are automatically adjusted
+     * to their respective boundaries.</p>
+     *
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return a newly allocated byte array
+     */
+    public byte[] extractBytes(final int start, final int end)
+    {
+        final int realStart = Math.max(start, 0);
+        final int realEnd = Math.min(end, length);
+        final byte[] ret = new byte[Math.max(realEnd - realStart, 0)];
+
+        for (int i = 0; i < ret.length; i++)
+            ret[i] = buffer.get(realStart + i);
+
+        return ret;
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+        return (char) (buffer.get(index) & 0xff);
+    }
+
+    @Override
+    public int codePointAt(final int index)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+        return index < length ? buffer.get(index) & 0xff : -1;
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+        return decode(start, end);
+    }
+
+    @Override
+    public String extract(final int start, final int end)
+    {
+        final int realStart = Math.max(start, 0);
+        final int realEnd = Math.min(end, length);
+        return realStart >= realEnd ? "" : decode(realStart, realEnd);
+    }
+
+    @Override
+    public String extract(final IndexRange range)
+    {
+        return extract(range.start, range.end);
+    }
+
+    @Override
+    public Position getPosition(final int index)
+    {
+        return lineCounter.get().toPosition(index);
+    }
+
+    @Override
+    public long getPackedPosition(final int index)
+    {
+        return lineCounter.get().toPackedPosition(index);
+    }
+
+    @Override
+    public String extractLine(final int lineNumber)
+    {
+        Preconditions.checkArgument(lineNumber > 0, "line number is negative");
+        final Range<Integer> range = lineCounter.get().getLineRange(lineNumber);
+        final int start = range.lowerEndpoint();
+        int end = range.upperEndpoint();
+        if (end > start && charAt(end - 1) == '\n')
+            end--;
+        if (end > start && charAt(end - 1) == '\r')
+            end--;
+        return extract(start, end);
+    }
+
+    @SuppressWarnings("AutoUnboxing")
+    @Override
+    public IndexRange getLineRange(final int lineNumber)
+    {
+        final Range<Integer> range = lineCounter.get().getLineRange(lineNumber);
+        return new IndexRange(range.lowerEndpoint(), range.upperEndpoint());
+    }
+
+    @Override
+    public int getLineCount()
+    {
+        return lineCounter.get().getNrLines();
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return decode(0, length);
+    }
+
+    private String decode(final int start, final int end)
+    {
+        final char[] chars = new char[end - start];
+
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = (char) (buffer.get(start + i) & 0xff);
+
+        return new String(chars);
+    }
+}
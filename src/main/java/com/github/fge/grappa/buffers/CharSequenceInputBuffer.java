@@ -44,6 +44,9 @@ import java.util.regex.Pattern;
  * <p>Among other things, this means you can use this package on very large
  * files using <a href="https://github.com/fge/largetext">largetext</a>, which
  * implements {@link CharSequence} over multi-gigabyte files.</p>
+ *
+ * <p>By default, columns of positions count UTF-16 code units; another {@link
+ * ColumnMode} can be specified at construction time.</p>
  */
 @Immutable
 public final class CharSequenceInputBuffer
@@ -62,10 +65,24 @@ public final class CharSequenceInputBuffer
     private final Future<LineCounter> lineCounter;
 
     public CharSequenceInputBuffer(@Nonnull final CharSequence charSequence)
+    {
+        this(charSequence, ColumnMode.UTF16_UNITS);
+    }
+
+    /**
+     * Constructor with a given column mode
+     *
+     * @param charSequence the input
+     * @param columnMode how to count columns in positions
+     */
+    public CharSequenceInputBuffer(@Nonnull final CharSequence charSequence,
+        @Nonnull final ColumnMode columnMode)
     {
         this.charSequence = Objects.requireNonNull(charSequence);
+        Objects.requireNonNull(columnMode);
         length = charSequence.length();
-        lineCounter = EXECUTOR.submit(() -> new LineCounter(charSequence));
+        lineCounter = EXECUTOR.submit(
+            () -> new LineCounter(charSequence, columnMode));
     }
 
     @Override
@@ -90,12 +107,43 @@ public final class CharSequenceInputBuffer
         return Character.isLowSurrogate(c2) ? Character.toCodePoint(c, c2) : c;
     }
 
+    @Override
+    public boolean regionMatches(final int index, final String s)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+
+        if (charSequence instanceof String)
+            return ((String) charSequence).startsWith(s, index);
+
+        return InputBuffer.super.regionMatches(index, s);
+    }
+
+    @Override
+    public int indexOf(final char c, final int start, final int end)
+    {
+        Preconditions.checkArgument(start >= 0, "index is negative");
+
+        // Only if the search is unbounded, otherwise we may search too far
+        if (!(charSequence instanceof String) || end < charSequence.length())
+            return InputBuffer.super.indexOf(c, start, end);
+
+        return ((String) charSequence).indexOf(c, start);
+    }
+
     @Override
     public CharSequence subSequence(final int start, final int end)
     {
         return charSequence.subSequence(start, end);
     }
 
+    @Override
+    public void appendTo(final StringBuilder sb, final int start,
+        final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+        sb.append(charSequence, start, end);
+    }
+
     @Override
     public String extract(final int start, final int end)
     {
@@ -116,6 +164,12 @@ public final class CharSequenceInputBuffer
         return Futures.getUnchecked(lineCounter).toPosition(index);
     }
 
+    @Override
+    public long getPackedPosition(final int index)
+    {
+        return Futures.getUnchecked(lineCounter).toPackedPosition(index);
+    }
+
     @Override
     public String extractLine(final int lineNumber)
     {
@@ -124,9 +178,9 @@ public final class CharSequenceInputBuffer
         final Range<Integer> range = counter.getLineRange(lineNumber);
         final int start = range.lowerEndpoint();
         int end = range.upperEndpoint();
-        if (charAt(end - 1) == '\n')
+        if (end > start && charAt(end - 1) == '\n')
             end--;
-        if (charAt(end - 1) == '\r')
+        if (end > start && charAt(end - 1) == '\r')
             end--;
         return extract(start, end);
     }
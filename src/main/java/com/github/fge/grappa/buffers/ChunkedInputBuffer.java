@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.buffers;
+
+import com.github.fge.grappa.support.IndexRange;
+import com.github.fge.grappa.support.Position;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Range;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link InputBuffer} over a list of chunks, seen as one logical input
+ *
+ * <p>This is useful when input comes in pieces (network reads, file reads
+ * with a fixed size buffer, etc): chunks are neither copied nor concatenated.
+ * Chunks may be any {@link CharSequence}; see also {@link #fromArrays(List)}
+ * for a list of {@code char} arrays.</p>
+ *
+ * <p>Locating the chunk for a given index is done in O(1) when reading
+ * sequentially (a cursor remembers the last chunk read), O(log n) otherwise.
+ * {@link #subSequence(int, int)} returns a view over the chunk when the
+ * requested range lies entirely within one chunk; characters are only copied
+ * when a range spans several chunks, or when a {@link String} is required.</p>
+ *
+ * <p>Lines are computed lazily, when first needed. By default, columns of
+ * positions count UTF-16 code units; see {@link #ChunkedInputBuffer(List,
+ * ColumnMode)}.</p>
+ *
+ * <p>Note that the chunks are not copied: if their contents change while
+ * parsing, the results are undefined.</p>
+ */
+@ThreadSafe
+public final class ChunkedInputBuffer
+    implements InputBuffer
+{
+    private final CharSequence[] chunks;
+    /*
+     * starts[i] is the index of the first character of chunk i; the last
+     * element is the total length. There are at least two elements, even with
+     * no chunks at all, so that the cursor check in chunkIndex() always works.
+     */
+    private final int[] starts;
+    private final int length;
+    private final Supplier<LineCounter> lineCounter;
+
+    /*
+     * Index of the last chunk read. This is a single int, so a stale read by
+     * another thread is harmless.
+     */
+    private int cursor = 0;
+
+    /**
+     * Create a buffer from a list of {@code char} arrays
+     *
+     * @param chunks the chunks
+     * @return a new buffer
+     */
+    public static ChunkedInputBuffer fromArrays(
+        @Nonnull final List<char[]> chunks)
+    {
+        final List<CharSequence> list = new ArrayList<>(chunks.size());
+
+        for (final char[] chunk: chunks)
+            list.add(CharBuffer.wrap(chunk));
+
+        return new ChunkedInputBuffer(list);
+    }
+
+    /**
+     * Constructor
+     *
+     * <p>Empty chunks are ignored. {@link CharBuffer} chunks are read from
+     * their position at the time this buffer is created up to their limit.
+     * </p>
+     *
+     * @param chunks the chunks
+     */
+    public ChunkedInputBuffer(
+        @Nonnull final List<? extends CharSequence> chunks)
+    {
+        this(chunks, ColumnMode.UTF16_UNITS);
+    }
+
+    /**
+     * Constructor with a given column mode
+     *
+     * @param chunks the chunks
+     * @param columnMode how to count columns in positions
+     *
+     * @see #ChunkedInputBuffer(List)
+     */
+    public ChunkedInputBuffer(
+        @Nonnull final List<? extends CharSequence> chunks,
+        @Nonnull final ColumnMode columnMode)
+    {
+        Objects.requireNonNull(chunks);
+        Objects.requireNonNull(columnMode);
+
+        final List<CharSequence> list = new ArrayList<>(chunks.size());
+
+        for (final CharSequence chunk: chunks) {
+            Objects.requireNonNull(chunk, "chunks must not be null");
+            if (chunk.length() == 0)
+                continue;
+            list.add(chunk instanceof CharBuffer
+                ? ((CharBuffer) chunk).duplicate() : chunk);
+        }
+
+        this.chunks = list.toArray(new CharSequence[list.size()]);
+        starts = new int[Math.max(this.chunks.length, 1) + 1];
+
+        int total = 0;
+        for (int i = 0; i < this.chunks.length; i++) {
+            starts[i] = total;
+            total += this.chunks[i].length();
+        }
+        starts[this.chunks.length] = total;
+
+        length = total;
+        lineCounter = Suppliers.memoize(
+            () -> new LineCounter(this, columnMode));
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+        final int chunk = chunkIndex(index);
+        return chunks[chunk].charAt(index - starts[chunk]);
+    }
+
+    @SuppressWarnings("ImplicitNumericConversion")
+    @Override
+    public int codePointAt(final int index)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+
+        if (index >= length)
+            return -1;
+
+        final char c = charAt(index);
+        if (!Character.isHighSurrogate(c))
+            return c;
+        if (index == length - 1)
+            return c;
+        final char c2 = charAt(index + 1);
+        return Character.isLowSurrogate(c2) ? Character.toCodePoint(c, c2) : c;
+    }
+
+    @Override
+    public boolean regionMatches(final int index, final String s)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+
+        final int len = s.length();
+
+        if (len > length - index)
+            return false;
+        if (len == 0)
+            return true;
+
+        final int chunk = chunkIndex(index);
+
+        if (index + len > starts[chunk + 1]
+            || !(chunks[chunk] instanceof String))
+            return InputBuffer.super.regionMatches(index, s);
+
+        return ((String) chunks[chunk]).startsWith(s, index - starts[chunk]);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+
+        if (start == end)
+            return "";
+
+        final int chunk = chunkIndex(start);
+        final int chunkStart = starts[chunk];
+
+        if (end <= starts[chunk + 1])
+            return chunks[chunk].subSequence(start - chunkStart,
+                end - chunkStart);
+
+        return copy(chunk, start, end);
+    }
+
+    @Override
+    public void appendTo(final StringBuilder sb, final int start,
+        final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+
+        if (start < end)
+            appendChunks(sb, chunkIndex(start), start, end);
+    }
+
+    @Override
+    public String extract(final int start, final int end)
+    {
+        final int realStart = Math.max(start, 0);
+        final int realEnd = Math.min(end, length);
+        return realStart >= realEnd ? ""
+            : subSequence(realStart, realEnd).toString();
+    }
+
+    @Override
+    public String extract(final IndexRange range)
+    {
+        return extract(range.start, range.end);
+    }
+
+    @Override
+    public Position getPosition(final int index)
+    {
+        return lineCounter.get().toPosition(index);
+    }
+
+    @Override
+    public long getPackedPosition(final int index)
+    {
+        return lineCounter.get().toPackedPosition(index);
+    }
+
+    @Override
+    public String extractLine(final int lineNumber)
+    {
+        Preconditions.checkArgument(lineNumber > 0, "line number is negative");
+        final Range<Integer> range = lineCounter.get().getLineRange(lineNumber);
+        final int start = range.lowerEndpoint();
+        int end = range.upperEndpoint();
+        if (end > start && charAt(end - 1) == '\n')
+            end--;
+        if (end > start && charAt(end - 1) == '\r')
+            end--;
+        return extract(start, end);
+    }
+
+    @SuppressWarnings("AutoUnboxing")
+    @Override
+    public IndexRange getLineRange(final int lineNumber)
+    {
+        final Range<Integer> range = lineCounter.get().getLineRange(lineNumber);
+        return new IndexRange(range.lowerEndpoint(), range.upperEndpoint());
+    }
+
+    @Override
+    public int getLineCount()
+    {
+        return lineCounter.get().getNrLines();
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return extract(0, length);
+    }
+
+    private int chunkIndex(final int index)
+    {
+        int chunk = cursor;
+
+        if (index >= starts[chunk] && index < starts[chunk + 1])
+            return chunk;
+
+        Preconditions.checkElementIndex(index, length);
+
+        // Sequential access: try the next chunk first
+        chunk++;
+        if (chunk < chunks.length && index >= starts[chunk]
+            && index < starts[chunk + 1]) {
+            cursor = chunk;
+            return chunk;
+        }
+
+        chunk = Arrays.binarySearch(starts, 0, chunks.length, index);
+        if (chunk < 0)
+            chunk = -chunk - 2;
+        cursor = chunk;
+        return chunk;
+    }
+
+    private String copy(final int firstChunk, final int start, final int end)
+    {
+        final StringBuilder sb = new StringBuilder(end - start);
+        appendChunks(sb, firstChunk, start, end);
+        return sb.toString();
+    }
+
+    private void appendChunks(final StringBuilder sb, final int firstChunk,
+        final int start, final int end)
+    {
+        int chunk = firstChunk;
+        int from = start - starts[chunk];
+        int to;
+
+        while (true) {
+            to = Math.min(end, starts[chunk + 1]) - starts[chunk];
+            sb.append(chunks[chunk], from, to);
+            if (starts[chunk + 1] >= end)
+                break;
+            chunk++;
+            from = 0;
+        }
+    }
+}
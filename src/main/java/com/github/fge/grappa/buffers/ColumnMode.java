@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.buffers;
+
+import com.github.fge.grappa.support.Position;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * How column numbers are counted in a {@link Position}
+ *
+ * <p>Three modes are available:</p>
+ *
+ * <ul>
+ *     <li>{@link #UTF16_UNITS} (the default): one column per Java {@code
+ *     char};</li>
+ *     <li>{@link #CODE_POINTS}: one column per Unicode code point, which means
+ *     a surrogate pair only counts as one column;</li>
+ *     <li>{@link #tabExpanded(int)}: like code points, except that a tab
+ *     character advances to the next tab stop; this is the column a text
+ *     editor would display.</li>
+ * </ul>
+ *
+ * <p>Except for the first mode, where a column is a simple subtraction,
+ * buffers compute the columns of a whole line at once, the first time a
+ * position in this line is requested.</p>
+ *
+ * @see CharSequenceInputBuffer#CharSequenceInputBuffer(CharSequence,
+ * ColumnMode)
+ */
+@Immutable
+public final class ColumnMode
+{
+    /**
+     * One column per UTF-16 code unit
+     */
+    public static final ColumnMode UTF16_UNITS = new ColumnMode(false, 0);
+
+    /**
+     * One column per Unicode code point
+     */
+    public static final ColumnMode CODE_POINTS = new ColumnMode(true, 0);
+
+    private final boolean codePoints;
+    private final int tabWidth;
+
+    /**
+     * Display columns, with tabs expanded to a given width
+     *
+     * @param tabWidth the tab width
+     * @return a column mode
+     */
+    public static ColumnMode tabExpanded(final int tabWidth)
+    {
+        Preconditions.checkArgument(tabWidth > 0, "tab width must be positive");
+        return new ColumnMode(true, tabWidth);
+    }
+
+    private ColumnMode(final boolean codePoints, final int tabWidth)
+    {
+        this.codePoints = codePoints;
+        this.tabWidth = tabWidth;
+    }
+
+    /**
+     * Tell whether columns are plain UTF-16 code unit offsets
+     *
+     * @return true if this is {@link #UTF16_UNITS}
+     */
+    public boolean isUtf16Units()
+    {
+        return !codePoints;
+    }
+
+    /**
+     * Compute the columns of all characters of a line
+     *
+     * <p>The returned array has one more element than the line has characters;
+     * this last element is the column following the last character.</p>
+     *
+     * @param input the input
+     * @param start the index of the first character of the line
+     * @param end the index following the last character of the line
+     * @return the columns, starting at 1
+     */
+    int[] computeColumns(final CharSequence input, final int start,
+        final int end)
+    {
+        final int[] ret = new int[end - start + 1];
+        int column = 1;
+        char c;
+        char previous = '\0';
+
+        for (int i = start; i < end; i++) {
+            c = input.charAt(i);
+            ret[i - start] = column;
+            if (!codePoints)
+                column++;
+            else if (c == '\t' && tabWidth != 0)
+                column += tabWidth - (column - 1) % tabWidth;
+            else if (!(Character.isLowSurrogate(c)
+                && Character.isHighSurrogate(previous)))
+                column++;
+            else
+                ret[i - start] = column - 1;
+            previous = c;
+        }
+
+        ret[end - start] = column;
+        return ret;
+    }
+}
@@ -18,6 +18,7 @@ package com.github.fge.grappa.buffers;
 
 import com.github.fge.grappa.support.IndexRange;
 import com.github.fge.grappa.support.Position;
+import com.google.common.base.Preconditions;
 
 /**
  * Abstraction of a character buffer holding the input text to be parsed
@@ -55,6 +56,101 @@ public interface InputBuffer
      */
     String extract(int start, int end);
 
+    /**
+     * Returns a view over a given index range of this buffer
+     *
+     * <p>Unlike {@link #extract(int, int)}, this method does not copy any
+     * characters.</p>
+     *
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return a view
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     */
+    default InputBufferView view(final int start, final int end)
+    {
+        return new InputBufferView(this, start, end);
+    }
+
+    /**
+     * Appends a range of this buffer to a {@link StringBuilder}
+     *
+     * <p>Unlike {@code sb.append(extract(start, end))}, this does not create an
+     * intermediate {@link String}. Implementations are encouraged to override
+     * this method when a bulk copy is possible.</p>
+     *
+     * @param sb the builder
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     */
+    default void appendTo(final StringBuilder sb, final int start,
+        final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length());
+        sb.append(this, start, end);
+    }
+
+    /**
+     * Tells whether this buffer contains a given string at a given index
+     *
+     * <p>This method returns false if the buffer does not have enough
+     * characters left at this index. It never allocates; implementations are
+     * encouraged to override it when a faster comparison is possible (for
+     * instance, when the content of the buffer is a {@link String}).</p>
+     *
+     * @param index the index
+     * @param s the string to compare
+     * @return true if the string is found at this index
+     *
+     * @throws IllegalArgumentException index is negative
+     */
+    default boolean regionMatches(final int index, final String s)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+
+        final int len = s.length();
+
+        if (len > length() - index)
+            return false;
+
+        for (int i = 0; i < len; i++)
+            if (charAt(index + i) != s.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Return the index of the first occurrence of a character in a range of
+     * this buffer
+     *
+     * <p>Implementations are encouraged to override this method when a faster
+     * search is possible (for instance, when the content of the buffer is a
+     * {@link String}).</p>
+     *
+     * @param c the character to search
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the index of the first occurrence, or -1 if not found
+     *
+     * @throws IllegalArgumentException start index is negative
+     */
+    default int indexOf(final char c, final int start, final int end)
+    {
+        Preconditions.checkArgument(start >= 0, "index is negative");
+
+        final int realEnd = Math.min(end, length());
+
+        for (int index = start; index < realEnd; index++)
+            if (charAt(index) == c)
+                return index;
+
+        return -1;
+    }
+
     /**
      * Constructs a new {@link String} from all character covered by the given
      * {@link IndexRange}
@@ -77,6 +173,25 @@ public interface InputBuffer
      */
     Position getPosition(int index);
 
+    /**
+     * Returns the line and column number of the character with the given index
+     * in packed form
+     *
+     * <p>Unlike {@link #getPosition(int)}, implementations are not required to
+     * allocate anything to compute this value. Use {@link
+     * Position#lineOf(long)} and {@link Position#columnOf(long)} to obtain the
+     * line and column.</p>
+     *
+     * @param index the index of the character
+     * @return the packed position
+     *
+     * @see Position#pack(int, int)
+     */
+    default long getPackedPosition(final int index)
+    {
+        return getPosition(index).toPacked();
+    }
+
     /**
      * Constructs a new {@link String} containing all characters with the given
      * line number, except for the trailing newline
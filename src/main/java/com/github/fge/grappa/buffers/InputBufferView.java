@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.buffers;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Objects;
+
+/**
+ * A read only view over a range of an {@link InputBuffer}
+ *
+ * <p>No characters are copied when creating a view; they are read from the
+ * underlying buffer on demand. This makes views suitable for inspecting the
+ * text matched by a rule (comparing it to a keyword, hashing it, etc) without
+ * building a {@link String} for each match.</p>
+ *
+ * <p>{@link #hashCode()} uses the same algorithm as {@link String#hashCode()},
+ * so the hash of a view is equal to the hash of its string representation.
+ * However, a view is only ever {@link #equals(Object) equal} to another view;
+ * use {@link #contentEquals(CharSequence)} to compare it to any other char
+ * sequence.</p>
+ *
+ * @see InputBuffer#view(int, int)
+ */
+@Immutable
+public final class InputBufferView
+    implements CharSequence, Comparable<CharSequence>
+{
+    private final InputBuffer buffer;
+    private final int start;
+    private final int end;
+
+    public InputBufferView(@Nonnull final InputBuffer buffer, final int start,
+        final int end)
+    {
+        this.buffer = Objects.requireNonNull(buffer);
+        Preconditions.checkPositionIndexes(start, end, buffer.length());
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Return the start index of this view in the underlying buffer
+     *
+     * @return the start index (inclusive)
+     */
+    public int getStartIndex()
+    {
+        return start;
+    }
+
+    /**
+     * Return the end index of this view in the underlying buffer
+     *
+     * @return the end index (exclusive)
+     */
+    public int getEndIndex()
+    {
+        return end;
+    }
+
+    @Override
+    public int length()
+    {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+        Preconditions.checkElementIndex(index, end - start);
+        return buffer.charAt(start + index);
+    }
+
+    @Override
+    public InputBufferView subSequence(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, this.end - this.start);
+        return new InputBufferView(buffer, this.start + start,
+            this.start + end);
+    }
+
+    /**
+     * Compare the contents of this view with another char sequence
+     *
+     * @param other the other sequence
+     * @return true if both sequences have the same characters
+     */
+    public boolean contentEquals(@Nonnull final CharSequence other)
+    {
+        final int len = end - start;
+
+        if (other.length() != len)
+            return false;
+
+        for (int i = 0; i < len; i++)
+            if (buffer.charAt(start + i) != other.charAt(i))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Compare the contents of this view with another char sequence, ignoring
+     * case
+     *
+     * <p>The comparison rules are the same as for {@link
+     * String#equalsIgnoreCase(String)}.</p>
+     *
+     * @param other the other sequence
+     * @return true if both sequences are equal, case insensitive
+     */
+    public boolean contentEqualsIgnoreCase(@Nonnull final CharSequence other)
+    {
+        final int len = end - start;
+
+        if (other.length() != len)
+            return false;
+
+        char c1, c2;
+
+        for (int i = 0; i < len; i++) {
+            c1 = buffer.charAt(start + i);
+            c2 = other.charAt(i);
+            if (c1 == c2)
+                continue;
+            c1 = Character.toUpperCase(c1);
+            c2 = Character.toUpperCase(c2);
+            if (c1 == c2)
+                continue;
+            if (Character.toLowerCase(c1) != Character.toLowerCase(c2))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Lexicographically compare this view with another char sequence
+     *
+     * <p>The rules are the same as for {@link String#compareTo(String)}.</p>
+     *
+     * @param other the other sequence
+     * @return a negative integer, zero or a positive integer if this view is
+     * less than, equal to or greater than the other sequence
+     */
+    @Override
+    public int compareTo(@Nonnull final CharSequence other)
+    {
+        final int len = end - start;
+        final int otherLen = other.length();
+        final int min = Math.min(len, otherLen);
+
+        char c1, c2;
+
+        for (int i = 0; i < min; i++) {
+            c1 = buffer.charAt(start + i);
+            c2 = other.charAt(i);
+            if (c1 != c2)
+                return c1 - c2;
+        }
+
+        return len - otherLen;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int ret = 0;
+
+        for (int i = start; i < end; i++)
+            ret = 31 * ret + buffer.charAt(i);
+
+        return ret;
+    }
+
+    @Override
+    public boolean equals(final Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof InputBufferView))
+            return false;
+        return contentEquals((InputBufferView) obj);
+    }
+
+    @Override
+    public String toString()
+    {
+        return buffer.extract(start, end);
+    }
+}
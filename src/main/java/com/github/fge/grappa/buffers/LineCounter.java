@@ -22,12 +22,22 @@ import com.google.common.collect.Range;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.Tainted;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * A line counter used to calculate the lines in a given input
  *
+ * <p>Line starts are stored in a plain {@code int} array. Since parsers, and
+ * actions, mostly request positions in increasing order, the line of the last
+ * position computed is remembered and checked (along with the line following
+ * it) before resorting to a binary search.</p>
+ *
+ * <p>Columns are counted according to a {@link ColumnMode}. Except for
+ * {@link ColumnMode#UTF16_UNITS}, the columns of a line are computed once,
+ * when a position in this line is first requested, and reused as long as
+ * positions are requested in this same line.</p>
+ *
  * @see InputBuffer#getLineCount()
  * @see InputBuffer#getLineRange(int)
  */
@@ -36,33 +46,69 @@ import java.util.List;
 @ParametersAreNonnullByDefault
 public final class LineCounter
 {
-    // TODO: replace with IntRange from largetext
-    private final List<Range<Integer>> lines = new ArrayList<>();
+    private final CharSequence input;
+    private final ColumnMode columnMode;
+    /*
+     * lineStarts[i] is the index of the first character of line i (starting
+     * from 0); lineStarts[nrLines] is the length of the input.
+     */
+    private final int[] lineStarts;
     private final int nrLines;
     private final int len;
 
+    /*
+     * The line of the last computed position. This is a single int, so a stale
+     * read by another thread is harmless.
+     */
+    private int lastLine = 0;
+
+    /*
+     * The columns of the last line for which they were computed, if the column
+     * mode requires it. Both fields of the holder are final, so the holder is
+     * safely published.
+     */
+    private LineColumns lineColumns = null;
+
     public LineCounter(final CharSequence input)
     {
-        int lowerBound = 0;
-        int index = 0;
+        this(input, ColumnMode.UTF16_UNITS);
+    }
+
+    public LineCounter(final CharSequence input, final ColumnMode columnMode)
+    {
+        this.input = input;
+        this.columnMode = columnMode;
         len = input.length();
 
+        int[] starts = new int[16];
+        int count = 1;
+        int index = 0;
+
         while (index < len) {
             if (input.charAt(index++) != '\n')
                 continue;
-            lines.add(Range.closedOpen(lowerBound, index));
-            lowerBound = index;
+            if (count == starts.length - 1)
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            starts[count++] = index;
         }
-        lines.add(Range.closedOpen(lowerBound, index));
-        nrLines = lines.size();
+
+        nrLines = count;
+        starts[count] = len;
+        lineStarts = count + 1 == starts.length ? starts
+            : Arrays.copyOf(starts, count + 1);
     }
 
     @VisibleForTesting
     LineCounter(final List<Range<Integer>> ranges)
     {
-        lines.addAll(ranges);
+        input = "";
+        columnMode = ColumnMode.UTF16_UNITS;
         nrLines = ranges.size();
         len = ranges.get(nrLines - 1).upperEndpoint();
+        lineStarts = new int[nrLines + 1];
+        for (int i = 0; i < nrLines; i++)
+            lineStarts[i] = ranges.get(i).lowerEndpoint();
+        lineStarts[nrLines] = len;
     }
 
     public int getNrLines()
@@ -73,47 +119,126 @@ public final class LineCounter
     public Range<Integer> getLineRange(@Tainted final int lineNr)
     {
         // Edge case: unfortunately, we can get an illegal line number
-        return lines.get(Math.min(lineNr, nrLines) - 1);
+        final int line = Math.min(lineNr, nrLines) - 1;
+        return Range.closedOpen(lineStarts[line], lineStarts[line + 1]);
+    }
+
+    /**
+     * Return the index of the first character of a line
+     *
+     * <p>Like {@link #getLineRange(int)}, a line number greater than the
+     * number of lines is adjusted to the last line.</p>
+     *
+     * @param lineNr the line number, starting from 1
+     * @return the start index
+     */
+    public int getLineStart(@Tainted final int lineNr)
+    {
+        return lineStarts[Math.min(lineNr, nrLines) - 1];
+    }
+
+    /**
+     * Return the index following the last character of a line
+     *
+     * <p>Note that this includes the line terminator, if any.</p>
+     *
+     * @param lineNr the line number, starting from 1
+     * @return the end index
+     *
+     * @see #getLineStart(int)
+     */
+    public int getLineEnd(@Tainted final int lineNr)
+    {
+        return lineStarts[Math.min(lineNr, nrLines)];
     }
 
     public Position toPosition(@Tainted final int index)
+    {
+        return Position.unpack(toPackedPosition(index));
+    }
+
+    /**
+     * Return the position of a given index, in packed form
+     *
+     * @param index the index
+     * @return the packed position
+     *
+     * @see Position#pack(int, int)
+     */
+    public long toPackedPosition(@Tainted final int index)
     {
         if (index < 0)
             throw new IllegalStateException();
 
-        final Range<Integer> range;
+        final int lineNr;
+        final int realIndex;
 
         // Edge case: unfortunately, we can get an illegal index
         if (index >= len) {
-            range = lines.get(nrLines - 1);
-            return new Position(nrLines, len - range.lowerEndpoint() + 1);
+            lineNr = nrLines - 1;
+            realIndex = len;
+        } else {
+            lineNr = findLine(index);
+            realIndex = index;
         }
 
-        final int lineNr = binarySearch(index);
-
-        range = lines.get(lineNr);
-        return new Position(lineNr + 1, index - range.lowerEndpoint() + 1);
+        return Position.pack(lineNr + 1, column(lineNr, realIndex));
     }
 
     @VisibleForTesting
     int binarySearch(final int index)
     {
-        return doBinarySearch(0, nrLines - 1, index);
+        final int ret = Arrays.binarySearch(lineStarts, 0, nrLines, index);
+        return ret >= 0 ? ret : -ret - 2;
+    }
+
+    private int findLine(final int index)
+    {
+        int line = lastLine;
+
+        if (index >= lineStarts[line] && index < lineStarts[line + 1])
+            return line;
+
+        // Sequential access: try the next line first
+        line++;
+        if (line < nrLines && index >= lineStarts[line]
+            && index < lineStarts[line + 1]) {
+            lastLine = line;
+            return line;
+        }
+
+        line = binarySearch(index);
+        lastLine = line;
+        return line;
     }
 
-    private int doBinarySearch(final int low, final int high, final int index)
+    private int column(final int line, final int index)
     {
-        // Guaranteed to always succeed at this point
-        if (high - low <= 1)
-            return lines.get(low).contains(index) ? low : high;
-
-        final int middle = (low + high) / 2;
-        final Range<Integer> range = lines.get(middle);
-        if (range.contains(index))
-            return middle;
-
-        return index < range.lowerEndpoint()
-            ? doBinarySearch(low, middle, index)
-            : doBinarySearch(middle, high, index);
+        final int start = lineStarts[line];
+
+        if (columnMode.isUtf16Units())
+            return index - start + 1;
+
+        LineColumns columns = lineColumns;
+
+        if (columns == null || columns.line != line) {
+            columns = new LineColumns(line,
+                columnMode.computeColumns(input, start, lineStarts[line + 1]));
+            lineColumns = columns;
+        }
+
+        return columns.columns[index - start];
+    }
+
+    private static final class LineColumns
+    {
+        private final int line;
+        private final int[] columns;
+
+        private LineColumns(final int line, final int[] columns)
+        {
+            this.line = line;
+            this.columns = columns;
+        }
     }
 }
@@ -0,0 +1,682 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.buffers;
+
+import com.github.fge.grappa.support.IndexRange;
+import com.github.fge.grappa.support.Position;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Objects;
+
+/**
+ * An editable {@link InputBuffer}, implemented as a rope
+ *
+ * <p>This buffer is meant for workloads where a document is edited, then
+ * parsed again, repeatedly (editor backends, for instance). The text is
+ * stored as a sequence of pieces of at most {@value #MAX_PIECE_LENGTH}
+ * characters, organized as a balanced tree (a <a
+ * href="https://en.wikipedia.org/wiki/Treap" target="_blank">treap</a>):</p>
+ *
+ * <ul>
+ *     <li>{@link #insert(int, CharSequence)}, {@link #delete(int, int)} and
+ *     {@link #replace(int, int, CharSequence)} run in O(log n), plus the
+ *     length of the inserted text;</li>
+ *     <li>each node of the tree also records the number of newlines it
+ *     covers, which means the line index is maintained as edits are made;
+ *     {@link #getPosition(int)} and {@link #getLineRange(int)} are O(log n)
+ *     and never rescan the document;</li>
+ *     <li>{@link #charAt(int)} remembers the last piece it read from, so that
+ *     sequential reads, which is what parsers mostly do, only walk the tree
+ *     once per piece.</li>
+ * </ul>
+ *
+ * <p>Pieces shorter than {@value #MIN_PIECE_LENGTH} characters next to an
+ * edit are merged with their neighbours, so that many small edits (typing,
+ * for instance) do not fragment the buffer into tiny pieces; this costs at
+ * most the copy of two pieces per edit.</p>
+ *
+ * <p>As with {@link CharSequenceInputBuffer}, line and column numbers are
+ * computed using {@code \n} as a line separator.</p>
+ *
+ * <p>This class is not thread safe; in particular, it must not be edited while
+ * a parse is running against it.</p>
+ */
+@NotThreadSafe
+public final class RopeInputBuffer
+    implements InputBuffer
+{
+    @VisibleForTesting
+    static final int MAX_PIECE_LENGTH = 1024;
+    @VisibleForTesting
+    static final int MIN_PIECE_LENGTH = 64;
+
+    private Node root = null;
+    private int seed = 0x2545f491;
+
+    /*
+     * Cursor: the last piece read by charAt(), and the index of its first
+     * character in the buffer
+     */
+    private Node cursor = null;
+    private int cursorStart = 0;
+
+    /*
+     * Results of split()
+     */
+    private Node splitLeft;
+    private Node splitRight;
+
+    /*
+     * Result of removeFirst() and removeLast()
+     */
+    private Node removed;
+
+    /**
+     * Create an empty buffer
+     */
+    public RopeInputBuffer()
+    {
+    }
+
+    /**
+     * Create a buffer with an initial content
+     *
+     * @param text the initial content
+     */
+    public RopeInputBuffer(@Nonnull final CharSequence text)
+    {
+        insert(0, text);
+    }
+
+    /**
+     * Insert text at a given index
+     *
+     * @param index the index
+     * @param text the text to insert
+     * @return this
+     *
+     * @throws IndexOutOfBoundsException index is out of bounds
+     */
+    public RopeInputBuffer insert(final int index,
+        @Nonnull final CharSequence text)
+    {
+        Objects.requireNonNull(text);
+        Preconditions.checkPositionIndex(index, length());
+
+        if (text.length() == 0)
+            return this;
+
+        split(root, index);
+        root = join(splitLeft, text, splitRight);
+        clearSplit();
+        cursor = null;
+        return this;
+    }
+
+    /**
+     * Delete a range of text
+     *
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return this
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     */
+    public RopeInputBuffer delete(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length());
+
+        if (start == end)
+            return this;
+
+        split(root, end);
+        final Node tail = splitRight;
+        split(splitLeft, start);
+        root = join(splitLeft, "", tail);
+        clearSplit();
+        cursor = null;
+        return this;
+    }
+
+    /**
+     * Replace a range of text with another text
+     *
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @param text the replacement text
+     * @return this
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     */
+    public RopeInputBuffer replace(final int start, final int end,
+        @Nonnull final CharSequence text)
+    {
+        Objects.requireNonNull(text);
+        return delete(start, end).insert(start, text);
+    }
+
+    @Override
+    public int length()
+    {
+        return size(root);
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+        final Node node = cursor;
+        final int delta = index - cursorStart;
+
+        if (node != null && delta >= 0 && delta < node.length)
+            return node.data[node.offset + delta];
+
+        Preconditions.checkElementIndex(index, length());
+        return locate(index);
+    }
+
+    @SuppressWarnings("ImplicitNumericConversion")
+    @Override
+    public int codePointAt(final int index)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+
+        final int length = length();
+
+        if (index >= length)
+            return -1;
+
+        final char c = charAt(index);
+        if (!Character.isHighSurrogate(c))
+            return c;
+        if (index == length - 1)
+            return c;
+        final char c2 = charAt(index + 1);
+        return Character.isLowSurrogate(c2) ? Character.toCodePoint(c, c2) : c;
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length());
+        return copy(start, end);
+    }
+
+    @Override
+    public String extract(final int start, final int end)
+    {
+        final int realStart = Math.max(start, 0);
+        final int realEnd = Math.min(end, length());
+        return realStart >= realEnd ? "" : copy(realStart, realEnd);
+    }
+
+    @Override
+    public String extract(final IndexRange range)
+    {
+        return extract(range.start, range.end);
+    }
+
+    @Override
+    public Position getPosition(final int index)
+    {
+        return Position.unpack(getPackedPosition(index));
+    }
+
+    @Override
+    public long getPackedPosition(final int index)
+    {
+        if (index < 0)
+            throw new IllegalStateException();
+
+        final int realIndex = Math.min(index, length());
+        final int line = newlinesBefore(realIndex) + 1;
+        return Position.pack(line, realIndex - lineStart(line) + 1);
+    }
+
+    @Override
+    public String extractLine(final int lineNumber)
+    {
+        Preconditions.checkArgument(lineNumber > 0, "line number is negative");
+        final IndexRange range = getLineRange(lineNumber);
+        final int start = range.start;
+        int end = range.end;
+        if (end > start && charAt(end - 1) == '\n')
+            end--;
+        if (end > start && charAt(end - 1) == '\r')
+            end--;
+        return extract(start, end);
+    }
+
+    @Override
+    public IndexRange getLineRange(final int lineNumber)
+    {
+        if (lineNumber < 1)
+            throw new IndexOutOfBoundsException("invalid line number "
+                + lineNumber);
+
+        final int nrLines = getLineCount();
+        // Same as LineCounter: out of range line numbers yield the last line
+        final int line = Math.min(lineNumber, nrLines);
+        final int start = lineStart(line);
+        final int end = line == nrLines ? length() : lineStart(line + 1);
+        return new IndexRange(start, end);
+    }
+
+    @Override
+    public int getLineCount()
+    {
+        return newlines(root) + 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return extract(0, length());
+    }
+
+    @VisibleForTesting
+    int getNodeCount()
+    {
+        return count(root);
+    }
+
+    /*
+     * Walk the tree to find the piece containing index, and update the cursor
+     */
+    private char locate(final int index)
+    {
+        Node node = root;
+        int base = 0;
+        int leftSize;
+
+        while (true) {
+            leftSize = size(node.left);
+            if (index < base + leftSize) {
+                node = node.left;
+                continue;
+            }
+            base += leftSize;
+            if (index < base + node.length)
+                break;
+            base += node.length;
+            node = node.right;
+        }
+
+        cursor = node;
+        cursorStart = base;
+        return node.data[node.offset + index - base];
+    }
+
+    private String copy(final int start, final int end)
+    {
+        final char[] chars = new char[end - start];
+        copy(root, 0, start, end, chars);
+        return new String(chars);
+    }
+
+    private static void copy(final Node node, final int nodeBase,
+        final int start, final int end, final char[] dst)
+    {
+        if (node == null)
+            return;
+
+        final int leftSize = size(node.left);
+        final int pieceStart = nodeBase + leftSize;
+        final int pieceEnd = pieceStart + node.length;
+
+        if (start < pieceStart)
+            copy(node.left, nodeBase, start, end, dst);
+
+        final int from = Math.max(start, pieceStart);
+        final int to = Math.min(end, pieceEnd);
+        if (from < to)
+            System.arraycopy(node.data, node.offset + from - pieceStart, dst,
+                from - start, to - from);
+
+        if (end > pieceEnd)
+            copy(node.right, pieceEnd, start, end, dst);
+    }
+
+    /*
+     * Number of newlines in [0, index)
+     */
+    private int newlinesBefore(final int index)
+    {
+        Node node = root;
+        int remaining = index;
+        int ret = 0;
+        int leftSize;
+
+        while (node != null) {
+            leftSize = size(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+                continue;
+            }
+            ret += newlines(node.left);
+            remaining -= leftSize;
+            if (remaining < node.length)
+                return ret + countNewlines(node.data, node.offset, remaining);
+            ret += node.newlines;
+            remaining -= node.length;
+            node = node.right;
+        }
+
+        return ret;
+    }
+
+    /*
+     * Index of the first character of a line (line numbers start at 1)
+     */
+    private int lineStart(final int line)
+    {
+        // Looking for the index following the (line - 1)th newline
+        int remaining = line - 1;
+
+        if (remaining == 0)
+            return 0;
+
+        Node node = root;
+        int base = 0;
+        int leftNewlines;
+
+        while (true) {
+            leftNewlines = newlines(node.left);
+            if (remaining <= leftNewlines) {
+                node = node.left;
+                continue;
+            }
+            remaining -= leftNewlines;
+            base += size(node.left);
+            if (remaining <= node.newlines)
+                break;
+            remaining -= node.newlines;
+            base += node.length;
+            node = node.right;
+        }
+
+        final char[] data = node.data;
+        final int offset = node.offset;
+        int i = 0;
+
+        while (true) {
+            if (data[offset + i++] == '\n' && --remaining == 0)
+                return base + i;
+        }
+    }
+
+    /*
+     * Split the tree rooted at node so that its first k characters end up in
+     * splitLeft, and the others in splitRight
+     */
+    private void split(final Node node, final int k)
+    {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+
+        final int leftSize = size(node.left);
+
+        if (k <= leftSize) {
+            split(node.left, k);
+            node.left = splitRight;
+            node.update();
+            splitRight = node;
+            return;
+        }
+
+        if (k >= leftSize + node.length) {
+            split(node.right, k - leftSize - node.length);
+            node.right = splitLeft;
+            node.update();
+            splitLeft = node;
+            return;
+        }
+
+        // The split point falls within this node's piece
+        final int at = k - leftSize;
+        final int headNewlines = countNewlines(node.data, node.offset, at);
+        final Node tail = new Node(node.data, node.offset + at,
+            node.length - at, node.newlines - headNewlines, node.priority);
+
+        tail.right = node.right;
+        tail.update();
+
+        node.length = at;
+        node.newlines = headNewlines;
+        node.right = null;
+        node.update();
+
+        splitLeft = node;
+        splitRight = tail;
+    }
+
+    private void clearSplit()
+    {
+        splitLeft = null;
+        splitRight = null;
+    }
+
+    /*
+     * Join two trees with a text in between; the pieces at the junctions are
+     * rebuilt along with the text if either of them, or the text, is short
+     */
+    private Node join(final Node left, final CharSequence text,
+        final Node right)
+    {
+        Node head = left;
+        Node tail = right;
+        final int textLength = text.length();
+        int length = textLength;
+        Node before = null;
+        Node after = null;
+
+        if (head != null && (length < MIN_PIECE_LENGTH
+            || last(head).length < MIN_PIECE_LENGTH)) {
+            head = removeLast(head);
+            before = removed;
+            length += before.length;
+        }
+
+        if (tail != null && (length < MIN_PIECE_LENGTH
+            || first(tail).length < MIN_PIECE_LENGTH)) {
+            tail = removeFirst(tail);
+            after = removed;
+        }
+
+        removed = null;
+
+        final int beforeLength = before == null ? 0 : before.length;
+        final int afterLength = after == null ? 0 : after.length;
+        final char[] data
+            = new char[beforeLength + textLength + afterLength];
+
+        if (before != null)
+            System.arraycopy(before.data, before.offset, data, 0,
+                beforeLength);
+        for (int i = 0; i < textLength; i++)
+            data[beforeLength + i] = text.charAt(i);
+        if (after != null)
+            System.arraycopy(after.data, after.offset, data,
+                beforeLength + textLength, afterLength);
+
+        return merge(merge(head, buildPieces(data)), tail);
+    }
+
+    private static Node first(final Node node)
+    {
+        Node ret = node;
+
+        while (ret.left != null)
+            ret = ret.left;
+
+        return ret;
+    }
+
+    private static Node last(final Node node)
+    {
+        Node ret = node;
+
+        while (ret.right != null)
+            ret = ret.right;
+
+        return ret;
+    }
+
+    /*
+     * Remove the first piece of a tree, and store it in removed
+     */
+    private Node removeFirst(final Node node)
+    {
+        if (node.left == null) {
+            removed = node;
+            return node.right;
+        }
+
+        node.left = removeFirst(node.left);
+        node.update();
+        return node;
+    }
+
+    /*
+     * Remove the last piece of a tree, and store it in removed
+     */
+    private Node removeLast(final Node node)
+    {
+        if (node.right == null) {
+            removed = node;
+            return node.left;
+        }
+
+        node.right = removeLast(node.right);
+        node.update();
+        return node;
+    }
+
+    private static Node merge(final Node left, final Node right)
+    {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private Node buildPieces(final char[] data)
+    {
+        final int length = data.length;
+
+        // Pieces of even length, so that none of them is needlessly short
+        final int nrPieces = (length + MAX_PIECE_LENGTH - 1) / MAX_PIECE_LENGTH;
+
+        Node ret = null;
+        int offset = 0;
+        int pieceLength;
+
+        for (int i = 0; i < nrPieces; i++) {
+            pieceLength = length / nrPieces + (i < length % nrPieces ? 1 : 0);
+            ret = merge(ret, new Node(data, offset, pieceLength,
+                countNewlines(data, offset, pieceLength), nextPriority()));
+            offset += pieceLength;
+        }
+
+        return ret;
+    }
+
+    private int nextPriority()
+    {
+        // xorshift
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    private static int countNewlines(final char[] data, final int offset,
+        final int length)
+    {
+        int ret = 0;
+
+        for (int i = offset; i < offset + length; i++)
+            if (data[i] == '\n')
+                ret++;
+
+        return ret;
+    }
+
+    private static int size(final Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int newlines(final Node node)
+    {
+        return node == null ? 0 : node.subtreeNewlines;
+    }
+
+    private static int count(final Node node)
+    {
+        return node == null ? 0 : count(node.left) + 1 + count(node.right);
+    }
+
+    private static final class Node
+    {
+        private final char[] data;
+        private final int offset;
+        private final int priority;
+        private int length;
+        private int newlines;
+
+        private Node left;
+        private Node right;
+        private int size;
+        private int subtreeNewlines;
+
+        private Node(final char[] data, final int offset, final int length,
+            final int newlines, final int priority)
+        {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.newlines = newlines;
+            this.priority = priority;
+            size = length;
+            subtreeNewlines = newlines;
+        }
+
+        private void update()
+        {
+            size = size(left) + length + size(right);
+            subtreeNewlines = newlines(left) + newlines + newlines(right);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.buffers;
+
+import com.github.fge.grappa.support.IndexRange;
+import com.github.fge.grappa.support.Position;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Objects;
+
+/**
+ * An {@link InputBuffer} over the tokens of another input buffer
+ *
+ * <p>Each token is seen as one {@code char}, whose value is the token's kind;
+ * rules matching tokens (see {@code BaseParser#token(int)}) therefore advance
+ * (and, when backtracking, rewind) an index into the token array, and never
+ * re-scan characters.</p>
+ *
+ * <p>Text extraction and positions are relative to the source buffer: {@link
+ * #extract(int, int)} returns the source text from the start of the first
+ * token to the end of the last token (including any text skipped between
+ * tokens), and {@link #getPosition(int)} returns the position of the start of
+ * the token in the source.</p>
+ *
+ * <p>Note that this class therefore does not honour the {@link CharSequence}
+ * contract: {@link #subSequence(int, int)} and {@link #toString()} return
+ * source text, whose length is not that of the range of tokens, while {@link
+ * #charAt(int)} returns token kinds. Code reading the text of a range of
+ * tokens must use {@link #extract(int, int)}, {@link #view(int, int)} or
+ * {@link #appendTo(StringBuilder, int, int)}, and not treat this buffer as a
+ * plain char sequence; the text helpers of {@code BaseActions} (such as
+ * {@code matchAsInt()} or {@code matchSymbol()}) do so.</p>
+ *
+ * <p>Instances of this class are produced by a {@code Lexer}.</p>
+ */
+@Immutable
+public final class TokenInputBuffer
+    implements InputBuffer
+{
+    /**
+     * The maximum value of a token kind
+     */
+    public static final int MAX_KIND = 0xfffd;
+
+    /**
+     * The kind of tokens which no token rule could match
+     *
+     * <p>Such tokens are one character long.</p>
+     */
+    public static final int UNKNOWN = 0xfffe;
+
+    private static final int STRIDE = 3;
+
+    private final InputBuffer source;
+    /*
+     * Three ints per token: kind, start offset, end offset (exclusive)
+     */
+    private final int[] tokens;
+    private final int length;
+
+    /**
+     * Constructor
+     *
+     * <p>The token array is not copied.</p>
+     *
+     * @param source the source buffer
+     * @param tokens the token array: kind, start and end of each token
+     * @param length the number of tokens
+     */
+    public TokenInputBuffer(@Nonnull final InputBuffer source,
+        @Nonnull final int[] tokens, final int length)
+    {
+        this.source = Objects.requireNonNull(source);
+        this.tokens = Objects.requireNonNull(tokens);
+        Preconditions.checkArgument(length >= 0
+            && length <= tokens.length / STRIDE, "illegal number of tokens");
+        this.length = length;
+    }
+
+    /**
+     * Return the source buffer
+     *
+     * @return the source buffer
+     */
+    public InputBuffer getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Return the kind of a token
+     *
+     * @param index the index of the token
+     * @return the kind
+     */
+    public int getKind(final int index)
+    {
+        Preconditions.checkElementIndex(index, length);
+        return tokens[STRIDE * index];
+    }
+
+    /**
+     * Return the offset of the start of a token in the source buffer
+     *
+     * @param index the index of the token
+     * @return the start offset (inclusive)
+     */
+    public int getTokenStart(final int index)
+    {
+        Preconditions.checkElementIndex(index, length);
+        return tokens[STRIDE * index + 1];
+    }
+
+    /**
+     * Return the offset of the end of a token in the source buffer
+     *
+     * @param index the index of the token
+     * @return the end offset (exclusive)
+     */
+    public int getTokenEnd(final int index)
+    {
+        Preconditions.checkElementIndex(index, length);
+        return tokens[STRIDE * index + 2];
+    }
+
+    /**
+     * Return the text of a token
+     *
+     * @param index the index of the token
+     * @return the text
+     */
+    public String getText(final int index)
+    {
+        return source.extract(getTokenStart(index), getTokenEnd(index));
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+        return (char) getKind(index);
+    }
+
+    @Override
+    public int codePointAt(final int index)
+    {
+        Preconditions.checkArgument(index >= 0, "index is negative");
+        return index < length ? tokens[STRIDE * index] : -1;
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+        return start == end ? "" : source.subSequence(sourceStart(start),
+            sourceEnd(end));
+    }
+
+    @Override
+    public String extract(final int start, final int end)
+    {
+        final int realStart = Math.max(start, 0);
+        final int realEnd = Math.min(end, length);
+        return realStart >= realEnd ? ""
+            : source.extract(sourceStart(realStart), sourceEnd(realEnd));
+    }
+
+    @Override
+    public String extract(final IndexRange range)
+    {
+        return extract(range.start, range.end);
+    }
+
+    /**
+     * Append the source text of a range of tokens to a string builder
+     *
+     * <p>As with {@link #extract(int, int)}, this is the source text from the
+     * start of the first token to the end of the last token.</p>
+     *
+     * @param sb the string builder
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     */
+    @Override
+    public void appendTo(final StringBuilder sb, final int start,
+        final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+        if (start < end)
+            source.appendTo(sb, sourceStart(start), sourceEnd(end));
+    }
+
+    @Override
+    public InputBufferView view(final int start, final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, length);
+        if (start == end) {
+            final int offset = sourceStart(start);
+            return source.view(offset, offset);
+        }
+        return source.view(sourceStart(start), sourceEnd(end));
+    }
+
+    @Override
+    public Position getPosition(final int index)
+    {
+        return source.getPosition(sourceStart(index));
+    }
+
+    @Override
+    public long getPackedPosition(final int index)
+    {
+        return source.getPackedPosition(sourceStart(index));
+    }
+
+    @Override
+    public String extractLine(final int lineNumber)
+    {
+        return source.extractLine(lineNumber);
+    }
+
+    /**
+     * Return the range of tokens starting on a given line
+     *
+     * @param lineNumber the line number
+     * @return the range of token indices
+     */
+    @Override
+    public IndexRange getLineRange(final int lineNumber)
+    {
+        final IndexRange range = source.getLineRange(lineNumber);
+        return new IndexRange(tokenIndex(range.start), tokenIndex(range.end));
+    }
+
+    @Override
+    public int getLineCount()
+    {
+        return source.getLineCount();
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return source.toString();
+    }
+
+    /*
+     * Start offset of the token at this index; the end of the source text if
+     * the index is the number of tokens
+     */
+    private int sourceStart(final int index)
+    {
+        return index < length ? tokens[STRIDE * index + 1] : source.length();
+    }
+
+    private int sourceEnd(final int index)
+    {
+        return tokens[STRIDE * (index - 1) + 2];
+    }
+
+    /*
+     * Index of the first token starting at or after a given offset
+     */
+    private int tokenIndex(final int offset)
+    {
+        int low = 0;
+        int high = length;
+        int middle;
+
+        while (low < high) {
+            middle = (low + high) >>> 1;
+            if (tokens[STRIDE * middle + 1] < offset)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        return low;
+    }
+}
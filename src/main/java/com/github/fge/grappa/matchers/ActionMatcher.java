@@ -16,6 +16,7 @@
 
 package com.github.fge.grappa.matchers;
 
+import com.github.fge.grappa.annotations.PureAction;
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
 import com.github.fge.grappa.rules.Action;
@@ -35,13 +36,20 @@ import java.util.Objects;
  * <p>All actions in parsers (that is, methods returning booleans or boolean
  * expressions in rules) will eventually be wrapped up in this matcher.</p>
  *
+ * <p>Unless the action class is annotated with {@link PureAction}, a snapshot
+ * of the value stack is taken before the action runs, and restored if it
+ * fails.</p>
  */
 public final class ActionMatcher
     extends AbstractMatcher
 {
+    private static final ContextAware<?>[] NO_CONTEXT_AWARES
+        = new ContextAware<?>[0];
+
     private final Action<?> action;
-    private final List<ContextAware<?>> contextAwares = new ArrayList<>();
+    private final ContextAware<?>[] contextAwares;
     private final boolean skipInPredicates;
+    private final boolean pure;
 
     public ActionMatcher(final Action<?> action)
     {
@@ -59,11 +67,17 @@ public final class ActionMatcher
          */
         final Class<?> actionClass = action.getClass();
 
-        if (actionClass.isSynthetic())
+        pure = actionClass.isAnnotationPresent(PureAction.class);
+
+        if (actionClass.isSynthetic()) {
+            contextAwares = NO_CONTEXT_AWARES;
             return;
+        }
+
+        final List<ContextAware<?>> list = new ArrayList<>();
 
         if (action instanceof ContextAware)
-            contextAwares.add((ContextAware<?>) action);
+            list.add((ContextAware<?>) action);
 
         // in order to make anonymous inner classes and other member classes
         // work seamlessly we collect the synthetic references to the outer
@@ -80,13 +94,33 @@ public final class ActionMatcher
                 final ContextAware<?> contextAware
                     = (ContextAware<?>) field.get(action);
                 if (contextAware != null)
-                    contextAwares.add(contextAware);
+                    list.add(contextAware);
             } catch (IllegalAccessException ignored) {
                 // ignore
             } finally {
                 field.setAccessible(false);
             }
         }
+
+        contextAwares = list.toArray(NO_CONTEXT_AWARES);
+    }
+
+    /**
+     * Tell whether the action is declared not to modify the value stack
+     *
+     * @return true if so
+     *
+     * @see PureAction
+     */
+    boolean isPure()
+    {
+        return pure;
+    }
+
+    @Override
+    public boolean modifiesValueStack()
+    {
+        return !pure;
     }
 
     @Override
@@ -121,12 +155,18 @@ public final class ActionMatcher
         for (final ContextAware<?> contextAware: contextAwares)
             ((ContextAware<V>) contextAware).setContext(parentContext);
 
-        final Object valueStackSnapshot
-            = context.getValueStack().takeSnapshot();
-        if (!((Action<V>) action).run(parentContext)) {
-            // failing actions are not allowed to change the ValueStack
-            context.getValueStack().restoreSnapshot(valueStackSnapshot);
-            return false;
+        if (pure) {
+            if (!((Action<V>) action).run(parentContext))
+                return false;
+        } else {
+            final Object valueStackSnapshot
+                = context.getValueStack().takeSnapshot();
+            if (!((Action<V>) action).run(parentContext)) {
+                // failing actions are not allowed to change the ValueStack
+                context.getValueStack().restoreSnapshot(valueStackSnapshot);
+                return false;
+            }
+            context.getValueStack().discardSnapshot(valueStackSnapshot);
         }
 
         // since we initialize the actions own context only partially in
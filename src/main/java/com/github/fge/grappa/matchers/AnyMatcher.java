@@ -16,8 +16,10 @@
 
 package com.github.fge.grappa.matchers;
 
+import com.github.fge.grappa.buffers.InputBuffer;
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.run.context.MatcherContext;
 
@@ -28,6 +30,7 @@ import com.github.fge.grappa.run.context.MatcherContext;
  */
 public final class AnyMatcher
     extends AbstractMatcher
+    implements SingleCharMatcher
 {
     public AnyMatcher()
     {
@@ -40,6 +43,18 @@ public final class AnyMatcher
         return MatcherType.TERMINAL;
     }
 
+    @Override
+    public boolean matches(final char c)
+    {
+        return true;
+    }
+
+    @Override
+    public int scan(final InputBuffer buffer, final int start, final int end)
+    {
+        return end;
+    }
+
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
@@ -16,24 +16,36 @@
 
 package com.github.fge.grappa.matchers;
 
+import com.github.fge.grappa.buffers.InputBuffer;
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
 import com.github.fge.grappa.run.context.MatcherContext;
 import com.github.fge.grappa.support.Characters;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 /**
  * A {@link Matcher} matching a single (Java) {@code char} out of a given {@link
  * Characters} set.
  *
- * <p>This is the matcher used by {@link BaseParser#anyOf(char[]) anyOf()}.</p>
+ * <p>This is the matcher used by {@link BaseParser#anyOf(char[]) anyOf()}.
+ * It is also used by {@link BaseParser#firstOf(Object[]) firstOf()} when all
+ * alternatives are single character rules; see {@link #unionOf(Rule[])}.</p>
  */
 public final class AnyOfMatcher
     extends AbstractMatcher
+    implements SingleCharMatcher
 {
     private final Characters characters;
+    /*
+     * If this matcher matches all characters but one, this character; -1
+     * otherwise
+     */
+    private final int excluded;
 
     public AnyOfMatcher(final Characters characters)
     {
@@ -41,6 +53,8 @@ public final class AnyOfMatcher
         if (characters.equals(Characters.NONE))
             throw new IllegalArgumentException("empty character specification");
         this.characters = characters;
+        excluded = characters.size() == Character.MAX_VALUE
+            ? characters.getChars()[0] : -1;
     }
 
     @Override
@@ -54,6 +68,63 @@ public final class AnyOfMatcher
         return characters;
     }
 
+    /**
+     * Return the union of the characters matched by a set of rules, if
+     * possible
+     *
+     * <p>This is only possible if all rules are {@link CharMatcher}s, {@link
+     * CharRangeMatcher}s or {@link AnyOfMatcher}s which have not been given a
+     * label of their own (since this label would otherwise be lost).</p>
+     *
+     * @param rules the rules
+     * @return the union of all matched characters, or null if not possible
+     */
+    @Nullable
+    public static Characters unionOf(final Rule[] rules)
+    {
+        Characters ret = Characters.NONE;
+        Characters chars;
+        String label;
+
+        for (final Rule rule: rules) {
+            if (rule instanceof CharMatcher) {
+                final char c = ((CharMatcher) rule).getCharacter();
+                chars = Characters.of(c);
+                label = CharMatcher.getLabel(c);
+            } else if (rule instanceof CharRangeMatcher) {
+                final char low = ((CharRangeMatcher) rule).getLowerBound();
+                final char high = ((CharRangeMatcher) rule).getUpperBound();
+                chars = Characters.range(low, high);
+                label = CharRangeMatcher.getLabel(low, high);
+            } else if (rule instanceof AnyOfMatcher) {
+                chars = ((AnyOfMatcher) rule).characters;
+                label = chars.toString();
+            } else
+                return null;
+            if (!label.equals(((Matcher) rule).getLabel()))
+                return null;
+            ret = ret.union(chars);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public boolean matches(final char c)
+    {
+        return characters.contains(c);
+    }
+
+    @Override
+    public int scan(final InputBuffer buffer, final int start, final int end)
+    {
+        if (excluded == -1)
+            return SingleCharMatcher.super.scan(buffer, start, end);
+
+        final int index = buffer.indexOf((char) excluded, start, end);
+        return index == -1 ? end : index;
+    }
+
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
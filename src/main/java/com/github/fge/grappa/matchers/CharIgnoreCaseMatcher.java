@@ -18,6 +18,7 @@ package com.github.fge.grappa.matchers;
 
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.run.context.MatcherContext;
 
@@ -33,6 +34,7 @@ import static com.github.fge.grappa.support.Chars.escape;
  */
 public final class CharIgnoreCaseMatcher
     extends AbstractMatcher
+    implements SingleCharMatcher
 {
     private final char lowerBound;
     private final char upperBound;
@@ -52,6 +54,12 @@ public final class CharIgnoreCaseMatcher
         return MatcherType.TERMINAL;
     }
 
+    @Override
+    public boolean matches(final char c)
+    {
+        return c == lowerBound || c == upperBound;
+    }
+
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
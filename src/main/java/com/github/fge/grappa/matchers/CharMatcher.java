@@ -18,6 +18,7 @@ package com.github.fge.grappa.matchers;
 
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.run.context.MatcherContext;
 
@@ -30,6 +31,7 @@ import static com.github.fge.grappa.support.Chars.escape;
  */
 public final class CharMatcher
     extends AbstractMatcher
+    implements SingleCharMatcher
 {
     private final char character;
 
@@ -45,8 +47,13 @@ public final class CharMatcher
         return MatcherType.TERMINAL;
     }
 
+    public char getCharacter()
+    {
+        return character;
+    }
+
     // TODO: remove...
-    private static String getLabel(final char c)
+    static String getLabel(final char c)
     {
         switch (c) {
             case 0xffff:
@@ -56,6 +63,12 @@ public final class CharMatcher
         }
     }
 
+    @Override
+    public boolean matches(final char c)
+    {
+        return c == character;
+    }
+
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
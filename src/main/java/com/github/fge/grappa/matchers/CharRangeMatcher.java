@@ -18,6 +18,7 @@ package com.github.fge.grappa.matchers;
 
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.google.common.base.Preconditions;
 import com.github.fge.grappa.run.context.MatcherContext;
@@ -34,13 +35,14 @@ import static com.github.fge.grappa.support.Chars.escape;
 @SuppressWarnings("ImplicitNumericConversion")
 public final class CharRangeMatcher
     extends AbstractMatcher
+    implements SingleCharMatcher
 {
     private final char lowerBound;
     private final char upperBound;
 
     public CharRangeMatcher(final char lowerBound, final char upperBound)
     {
-        super(escape(lowerBound) + ".." + escape(upperBound));
+        super(getLabel(lowerBound, upperBound));
         Preconditions.checkArgument(lowerBound < upperBound);
         this.lowerBound = lowerBound;
         this.upperBound = upperBound;
@@ -52,6 +54,27 @@ public final class CharRangeMatcher
         return MatcherType.TERMINAL;
     }
 
+    public char getLowerBound()
+    {
+        return lowerBound;
+    }
+
+    public char getUpperBound()
+    {
+        return upperBound;
+    }
+
+    static String getLabel(final char lowerBound, final char upperBound)
+    {
+        return escape(lowerBound) + ".." + escape(upperBound);
+    }
+
+    @Override
+    public boolean matches(final char c)
+    {
+        return c >= lowerBound && c <= upperBound;
+    }
+
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
@@ -5,6 +5,7 @@ import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.run.context.MatcherContext;
 
+import javax.annotation.Nullable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,16 +16,37 @@ import java.util.regex.Pattern;
  *
  * <p>Note that the operation used to perform the match is {@link
  * Matcher#lookingAt()}, not {@code matches()} or {@code find()}.</p>
+ *
+ * <p>The match is attempted against the whole input buffer, with a region
+ * starting at the current index and {@link
+ * Matcher#useTransparentBounds(boolean) transparent bounds}; this means
+ * lookbehinds, and {@code \b}, can see the text before the current index.
+ * {@code ^} still matches at the current index.</p>
+ *
+ * <p>Simple regexes (a sequence of literal characters and character classes,
+ * with greedy quantifiers) are matched without using {@code java.util.regex}
+ * at all. For others, one {@link Matcher} is created per thread and reused.
+ * </p>
  */
 public final class RegexMatcher
     extends AbstractMatcher
 {
     private final Pattern pattern;
+    @Nullable
+    private final SimpleRegex simpleRegex;
+    /*
+     * Note that a Matcher retains a reference to the last input it was used
+     * with; it is therefore reset to an empty input after each match
+     */
+    private final ThreadLocal<Matcher> matchers;
 
     public RegexMatcher(final String regex)
     {
         super("regex(" + regex + ')');
         pattern = Pattern.compile(regex);
+        simpleRegex = SimpleRegex.compile(regex);
+        matchers = ThreadLocal.withInitial(
+            () -> pattern.matcher("").useTransparentBounds(true));
     }
 
     @Override
@@ -38,18 +60,32 @@ public final class RegexMatcher
     {
         final InputBuffer buffer = context.getInputBuffer();
         final int startIndex = context.getCurrentIndex();
-        final int length = buffer.length();
 
-        final CharSequence cs = buffer.subSequence(startIndex, length);
+        if (simpleRegex != null) {
+            final int end = simpleRegex.match(buffer, startIndex);
+            if (end == -1)
+                return false;
+            context.advanceIndex(end - startIndex);
+            return true;
+        }
 
         // That is a java.util.regex.Matcher!!
-        final Matcher matcher = pattern.matcher(cs);
+        final Matcher matcher = matchers.get();
+
+        final int end;
 
-        final boolean ret = matcher.lookingAt();
+        try {
+            matcher.reset(buffer).region(startIndex, buffer.length());
+            end = matcher.lookingAt() ? matcher.end() : -1;
+        } finally {
+            // Do not keep the input buffer reachable from this thread
+            matcher.reset("");
+        }
 
-        if (ret)
-            context.advanceIndex(matcher.end());
+        if (end == -1)
+            return false;
 
-        return ret;
+        context.advanceIndex(end - startIndex);
+        return true;
     }
 }
@@ -0,0 +1,506 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.matchers;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A matcher for a simple subset of Java regular expressions
+ *
+ * <p>A simple regex is a sequence of atoms, each atom being a literal
+ * character, a dot, a predefined class ({@code \d}, {@code \w}, {@code \s}
+ * and their negations) or a character class made of characters, ranges and
+ * predefined classes; each atom may be followed by a greedy quantifier
+ * ({@code ?}, {@code *}, {@code +}, {@code {n}}, {@code {n,}} or {@code
+ * {n,m}}).</p>
+ *
+ * <p>Matching is done directly against the input and backtracks exactly like
+ * {@link java.util.regex.Pattern} does, one code point at a time; the result
+ * of {@link #match(CharSequence, int)} is therefore the same as the one of
+ * {@link java.util.regex.Matcher#lookingAt()} with a region starting at the
+ * given index and transparent bounds.</p>
+ *
+ * <p>Anything else (groups, alternations, anchors, flags, lazy or possessive
+ * quantifiers, etc) is not supported, and {@link #compile(String)} returns
+ * null; so does it when it is not sure to interpret the regex the same way
+ * {@code Pattern} does.</p>
+ *
+ * @see RegexMatcher
+ */
+@Immutable
+final class SimpleRegex
+{
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int MAX_ASCII = 127;
+
+    private static final String META = "\\^$.|?*+()[]{}";
+
+    private static final int[] DIGITS = { '0', '9' };
+    private static final int[] WORD = {
+        '0', '9', 'A', 'Z', '_', '_', 'a', 'z'
+    };
+    private static final int[] SPACES = { '\t', '\r', ' ', ' ' };
+    private static final int[] NOT_DOT = {
+        '\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'
+    };
+
+    private final Atom[] atoms;
+
+    /**
+     * Compile a regex, if it is simple enough
+     *
+     * <p>The regex must have been successfully compiled by {@link
+     * java.util.regex.Pattern} beforehand.</p>
+     *
+     * @param regex the regex
+     * @return the compiled regex, or null if not supported
+     */
+    @Nullable
+    static SimpleRegex compile(final String regex)
+    {
+        final List<Atom> list = new ArrayList<>();
+        final int len = regex.length();
+
+        int index = 0;
+        char c;
+        int[] ranges;
+        int min, max;
+
+        while (index < len) {
+            c = regex.charAt(index++);
+            if (Character.isSurrogate(c))
+                return null;
+            if (c == '.') {
+                ranges = complement(NOT_DOT);
+            } else if (c == '[') {
+                final int classEnd = classEnd(regex, index);
+                if (classEnd == -1)
+                    return null;
+                ranges = parseClass(regex, index, classEnd);
+                index = classEnd + 1;
+            } else if (c == '\\') {
+                if (index == len)
+                    return null;
+                ranges = escape(regex.charAt(index++));
+            } else if (META.indexOf(c) != -1) {
+                return null;
+            } else {
+                ranges = new int[] { c, c };
+            }
+
+            if (ranges == null)
+                return null;
+
+            min = 1;
+            max = 1;
+
+            if (index < len) {
+                c = regex.charAt(index);
+                if (c == '?' || c == '*' || c == '+') {
+                    index++;
+                    min = c == '+' ? 1 : 0;
+                    max = c == '?' ? 1 : UNBOUNDED;
+                } else if (c == '{') {
+                    final int quantifierEnd = regex.indexOf('}', index);
+                    if (quantifierEnd == -1)
+                        return null;
+                    final int[] bounds
+                        = parseBounds(regex.substring(index + 1,
+                        quantifierEnd));
+                    if (bounds == null)
+                        return null;
+                    min = bounds[0];
+                    max = bounds[1];
+                    index = quantifierEnd + 1;
+                }
+                // Lazy and possessive quantifiers are not supported
+                if (index < len && (min != 1 || max != 1)) {
+                    c = regex.charAt(index);
+                    if (c == '?' || c == '+')
+                        return null;
+                }
+            }
+
+            list.add(new Atom(ranges, min, max));
+        }
+
+        return new SimpleRegex(list.toArray(new Atom[list.size()]));
+    }
+
+    private SimpleRegex(final Atom[] atoms)
+    {
+        this.atoms = atoms;
+    }
+
+    /**
+     * Match this regex at a given index of the input
+     *
+     * @param input the input
+     * @param start the index
+     * @return the end index of the match, or -1 if there is no match
+     */
+    int match(final CharSequence input, final int start)
+    {
+        return match(input, input.length(), 0, start);
+    }
+
+    private int match(final CharSequence input, final int end,
+        final int atomIndex, final int start)
+    {
+        if (atomIndex == atoms.length)
+            return start;
+
+        final Atom atom = atoms[atomIndex];
+        final int min = atom.min;
+        final int max = atom.max;
+
+        int index = start;
+        int count = 0;
+        int next;
+
+        // Greedy: match as many times as possible, then back off
+        while (count < max && (next = atom.step(input, index, end)) != -1) {
+            index = next;
+            count++;
+        }
+
+        if (count < min)
+            return -1;
+
+        int ret;
+
+        while (true) {
+            ret = match(input, end, atomIndex + 1, index);
+            if (ret != -1 || count == min)
+                return ret;
+            index = stepBack(input, start, index);
+            count--;
+        }
+    }
+
+    /*
+     * The atoms of a run all matched one code point each, starting at index
+     * start; a surrogate pair in this run is therefore always one code point.
+     */
+    private static int stepBack(final CharSequence input, final int start,
+        final int index)
+    {
+        if (index - 2 >= start
+            && Character.isLowSurrogate(input.charAt(index - 1))
+            && Character.isHighSurrogate(input.charAt(index - 2)))
+            return index - 2;
+        return index - 1;
+    }
+
+    /*
+     * Return the index of the closing bracket of a character class, or -1 if
+     * the class uses a construct which is not supported (nested classes,
+     * intersections, a closing bracket as the first character)
+     */
+    private static int classEnd(final String regex, final int start)
+    {
+        final int len = regex.length();
+        int index = start;
+        char c;
+
+        if (index < len && regex.charAt(index) == '^')
+            index++;
+        if (index < len && regex.charAt(index) == ']')
+            return -1;
+
+        while (index < len) {
+            c = regex.charAt(index);
+            switch (c) {
+                case ']':
+                    return index;
+                case '[':
+                    return -1;
+                case '&':
+                    if (index + 1 < len && regex.charAt(index + 1) == '&')
+                        return -1;
+                    break;
+                case '\\':
+                    index++;
+                    break;
+                default:
+            }
+            index++;
+        }
+
+        return -1;
+    }
+
+    @Nullable
+    private static int[] parseClass(final String regex, final int start,
+        final int end)
+    {
+        final List<int[]> items = new ArrayList<>();
+        final boolean negated = regex.charAt(start) == '^';
+
+        final int first = negated ? start + 1 : start;
+        int index = first;
+        int[] item;
+        int low, high;
+
+        while (index < end) {
+            // A dash is a literal if first or last in the class
+            if (regex.charAt(index) == '-' && (index == first
+                || index == end - 1)) {
+                items.add(new int[] { '-', '-' });
+                index++;
+                continue;
+            }
+
+            item = classChar(regex, index);
+            if (item == null)
+                return null;
+            index += regex.charAt(index) == '\\' ? 2 : 1;
+
+            if (index >= end - 1 || regex.charAt(index) != '-') {
+                items.add(item);
+                continue;
+            }
+
+            // A range; both ends must be single characters
+            if (item.length != 2 || item[0] != item[1])
+                return null;
+            low = item[0];
+            item = classChar(regex, index + 1);
+            if (item == null || item.length != 2 || item[0] != item[1])
+                return null;
+            high = item[0];
+            if (high < low)
+                return null;
+            items.add(new int[] { low, high });
+            index += regex.charAt(index + 1) == '\\' ? 3 : 2;
+        }
+
+        final int[] ranges = union(items);
+        return negated ? complement(ranges) : ranges;
+    }
+
+    @Nullable
+    private static int[] classChar(final String regex, final int index)
+    {
+        final char c = regex.charAt(index);
+
+        if (Character.isSurrogate(c))
+            return null;
+        if (c == '\\')
+            return escape(regex.charAt(index + 1));
+        // Let Pattern deal with any other dash which is not part of a range
+        if (c == '-')
+            return null;
+        return new int[] { c, c };
+    }
+
+    @Nullable
+    private static int[] escape(final char c)
+    {
+        switch (c) {
+            case 'd':
+                return DIGITS;
+            case 'D':
+                return complement(DIGITS);
+            case 'w':
+                return WORD;
+            case 'W':
+                return complement(WORD);
+            case 's':
+                return SPACES;
+            case 'S':
+                return complement(SPACES);
+            case 't':
+                return new int[] { '\t', '\t' };
+            case 'n':
+                return new int[] { '\n', '\n' };
+            case 'r':
+                return new int[] { '\r', '\r' };
+            case 'f':
+                return new int[] { '\f', '\f' };
+            case 'a':
+                return new int[] { '\u0007', '\u0007' };
+            case 'e':
+                return new int[] { '\u001b', '\u001b' };
+            default:
+        }
+
+        if (c <= MAX_ASCII && Character.isLetterOrDigit(c))
+            return null;
+        if (Character.isSurrogate(c))
+            return null;
+        return new int[] { c, c };
+    }
+
+    @Nullable
+    private static int[] parseBounds(final String quantifier)
+    {
+        final int comma = quantifier.indexOf(',');
+
+        try {
+            if (comma == -1) {
+                final int n = parseBound(quantifier);
+                return new int[] { n, n };
+            }
+            final int min = parseBound(quantifier.substring(0, comma));
+            final String s = quantifier.substring(comma + 1);
+            final int max = s.isEmpty() ? UNBOUNDED : parseBound(s);
+            return min <= max ? new int[] { min, max } : null;
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    private static int parseBound(final String s)
+    {
+        for (int i = 0; i < s.length(); i++)
+            if (s.charAt(i) < '0' || s.charAt(i) > '9')
+                throw new NumberFormatException();
+        return Integer.parseInt(s);
+    }
+
+    /*
+     * Ranges are arrays of inclusive (low, high) pairs, sorted and merged
+     */
+    private static int[] union(final List<int[]> items)
+    {
+        final List<int[]> pairs = new ArrayList<>();
+
+        for (final int[] item: items)
+            for (int i = 0; i < item.length; i += 2)
+                pairs.add(new int[] { item[i], item[i + 1] });
+
+        pairs.sort((o1, o2) -> Integer.compare(o1[0], o2[0]));
+
+        final int[] ret = new int[pairs.size() * 2];
+        int size = 0;
+
+        for (final int[] pair: pairs) {
+            if (size > 0 && pair[0] <= ret[size - 1] + 1) {
+                ret[size - 1] = Math.max(ret[size - 1], pair[1]);
+                continue;
+            }
+            ret[size++] = pair[0];
+            ret[size++] = pair[1];
+        }
+
+        return Arrays.copyOf(ret, size);
+    }
+
+    private static int[] complement(final int[] ranges)
+    {
+        final int[] ret = new int[ranges.length + 2];
+        int size = 0;
+        int next = 0;
+
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                ret[size++] = next;
+                ret[size++] = ranges[i] - 1;
+            }
+            next = ranges[i + 1] + 1;
+        }
+
+        if (next <= Character.MAX_CODE_POINT) {
+            ret[size++] = next;
+            ret[size++] = Character.MAX_CODE_POINT;
+        }
+
+        return Arrays.copyOf(ret, size);
+    }
+
+    @Immutable
+    private static final class Atom
+    {
+        private final int[] ranges;
+        private final long lowMask;
+        private final long highMask;
+        private final int min;
+        private final int max;
+
+        private Atom(final int[] ranges, final int min, final int max)
+        {
+            this.ranges = ranges;
+            this.min = min;
+            this.max = max;
+
+            long low = 0L;
+            long high = 0L;
+
+            for (int c = 0; c <= MAX_ASCII; c++) {
+                if (!inRanges(c))
+                    continue;
+                if (c < 64)
+                    low |= 1L << c;
+                else
+                    high |= 1L << c - 64;
+            }
+
+            lowMask = low;
+            highMask = high;
+        }
+
+        /*
+         * Match one code point at the given index; return the index after it,
+         * or -1 if there is no match
+         */
+        private int step(final CharSequence input, final int index,
+            final int end)
+        {
+            if (index >= end)
+                return -1;
+
+            final char c = input.charAt(index);
+
+            if (c <= MAX_ASCII) {
+                final long mask = c < 64 ? lowMask : highMask;
+                return (mask & 1L << c) != 0L ? index + 1 : -1;
+            }
+
+            if (Character.isHighSurrogate(c) && index + 1 < end) {
+                final char c2 = input.charAt(index + 1);
+                if (Character.isLowSurrogate(c2))
+                    return inRanges(Character.toCodePoint(c, c2))
+                        ? index + 2 : -1;
+            }
+
+            return inRanges(c) ? index + 1 : -1;
+        }
+
+        private boolean inRanges(final int codePoint)
+        {
+            int low = 0;
+            int high = ranges.length / 2 - 1;
+            int middle;
+
+            while (low <= high) {
+                middle = (low + high) >>> 1;
+                if (codePoint < ranges[2 * middle])
+                    high = middle - 1;
+                else if (codePoint > ranges[2 * middle + 1])
+                    low = middle + 1;
+                else
+                    return true;
+            }
+
+            return false;
+        }
+    }
+}
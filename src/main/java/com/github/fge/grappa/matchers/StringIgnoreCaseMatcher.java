@@ -16,6 +16,7 @@
 
 package com.github.fge.grappa.matchers;
 
+import com.github.fge.grappa.buffers.InputBuffer;
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.run.context.MatcherContext;
@@ -27,18 +28,49 @@ import java.util.Objects;
  *
  * <p>This is the matcher used by {@link BaseParser#ignoreCase(String)
  * ignoreCase()} (the string version).</p>
+ *
+ * <p>Characters are compared using the same rules as {@link
+ * String#equalsIgnoreCase(String)}. Case variants of the string are computed
+ * once, at construction time, so that the common case (an exact match, or a
+ * match of the other case) is a plain comparison; matching stops at the first
+ * mismatch, and no text is extracted from the input.</p>
  */
 public final class StringIgnoreCaseMatcher
     extends AbstractMatcher
 {
-    private final String input;
+    private static final char MAX_ASCII = '\u007f';
+
+    private final int length;
+
+    /*
+     * For each character of the input: the character itself, the character
+     * in the other case (if any; otherwise, the character itself), and the
+     * upper then lower case version, as String#equalsIgnoreCase() computes
+     * them.
+     */
+    private final char[] chars;
+    private final char[] others;
+    private final char[] uppers;
+    private final char[] lowers;
 
     public StringIgnoreCaseMatcher(final String input)
     {
         super("stringIgnoreCase(" + input + ')');
-        this.input = Objects.requireNonNull(input);
+        chars = Objects.requireNonNull(input).toCharArray();
+        length = chars.length;
+        others = new char[length];
+        uppers = new char[length];
+        lowers = new char[length];
+
+        char c;
+        for (int i = 0; i < length; i++) {
+            c = chars[i];
+            uppers[i] = Character.toUpperCase(c);
+            lowers[i] = Character.toLowerCase(uppers[i]);
+            others[i] = c == uppers[i] ? Character.toLowerCase(c) : uppers[i];
+        }
     }
-    
+
     @Override
     public MatcherType getType()
     {
@@ -48,14 +80,30 @@ public final class StringIgnoreCaseMatcher
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
-        final int len = input.length();
         final int index = context.getCurrentIndex();
-        final String s = context.getInputBuffer().extract(index, index + len);
+        final InputBuffer buffer = context.getInputBuffer();
 
-        if (!s.equalsIgnoreCase(input))
+        if (length > buffer.length() - index)
             return false;
 
-        context.advanceIndex(len);
+        for (int i = 0; i < length; i++)
+            if (!charMatches(i, buffer.charAt(index + i)))
+                return false;
+
+        context.advanceIndex(length);
         return true;
     }
+
+    private boolean charMatches(final int i, final char c)
+    {
+        if (c == chars[i] || c == others[i])
+            return true;
+
+        // In the ASCII range, there are no other case equivalences
+        if (c <= MAX_ASCII && chars[i] <= MAX_ASCII)
+            return false;
+
+        final char upper = Character.toUpperCase(c);
+        return upper == uppers[i] || Character.toLowerCase(upper) == lowers[i];
+    }
 }
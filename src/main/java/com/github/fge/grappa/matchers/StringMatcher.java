@@ -16,6 +16,7 @@
 
 package com.github.fge.grappa.matchers;
 
+import com.github.fge.grappa.buffers.InputBuffer;
 import com.github.fge.grappa.matchers.base.AbstractMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.run.context.MatcherContext;
@@ -27,16 +28,23 @@ import java.util.Objects;
  *
  * <p>This is the matcher used by {@link BaseParser#string(String) string()}.
  * </p>
+ *
+ * <p>Matching is done directly against the input buffer, without extracting
+ * any text: the first character is checked first (most attempts fail there),
+ * then the rest of the string is compared using {@link
+ * InputBuffer#regionMatches(int, String)}.</p>
  */
 public final class StringMatcher
     extends AbstractMatcher
 {
     private final String input;
+    private final int length;
 
     public StringMatcher(final String input)
     {
         super("string(" + input + ')');
         this.input = Objects.requireNonNull(input);
+        length = input.length();
     }
     
     @Override
@@ -48,14 +56,20 @@ public final class StringMatcher
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
-        final int len = input.length();
+        if (length == 0)
+            return true;
+
         final int index = context.getCurrentIndex();
-        final String s = context.getInputBuffer().extract(index, index + len);
+        final InputBuffer buffer = context.getInputBuffer();
 
-        if (!s.equals(input))
+        if (length > buffer.length() - index)
+            return false;
+        if (buffer.charAt(index) != input.charAt(0))
+            return false;
+        if (!buffer.regionMatches(index, input))
             return false;
 
-        context.advanceIndex(len);
+        context.advanceIndex(length);
         return true;
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers;
+
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.google.common.base.Preconditions;
+
+/**
+ * A {@link Matcher} matching one token of a given kind
+ *
+ * <p>This matcher is meant to be used over a {@link TokenInputBuffer}, where
+ * each token is seen as a character whose value is the kind of the token.</p>
+ *
+ * <p>This is the matcher used by {@link BaseParser#token(int) token()}.</p>
+ */
+public final class TokenMatcher
+    extends AbstractMatcher
+    implements SingleCharMatcher
+{
+    private final char kind;
+
+    public TokenMatcher(final int kind)
+    {
+        super("token(" + kind + ')');
+        Preconditions.checkArgument(kind >= 0
+            && kind <= TokenInputBuffer.MAX_KIND, "illegal token kind %s",
+            kind);
+        this.kind = (char) kind;
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public boolean matches(final char c)
+    {
+        return c == kind;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        if (context.atEnd())
+            return false;
+
+        if (context.getCurrentChar() != kind)
+            return false;
+
+        context.advanceIndex(1);
+        return true;
+    }
+}
@@ -70,4 +70,20 @@ public interface Matcher
      * @param <V> type parameter of the parsers's stack values
      */
     <V> boolean match(MatcherContext<V> context);
+
+    /**
+     * Tells whether this matcher may modify the value stack by itself
+     *
+     * <p>The children of this matcher are not taken into account. By default,
+     * only {@link MatcherType#ACTION actions} may; matchers which push, pop or
+     * otherwise modify the value stack must override this method.</p>
+     *
+     * @return true if this matcher may modify the value stack
+     *
+     * @see StackPurity
+     */
+    default boolean modifiesValueStack()
+    {
+        return getType() == MatcherType.ACTION;
+    }
 }
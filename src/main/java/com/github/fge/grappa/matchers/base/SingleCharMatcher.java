@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.base;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.matchers.repeat.RepeatMatcher;
+
+/**
+ * A {@link Matcher} which matches exactly one character, depending only on
+ * the value of this character
+ *
+ * <p>{@link RepeatMatcher}s use this interface to consume a run of such
+ * characters directly from the input buffer, without creating a context for
+ * each character. As a consequence, no match events are fired for the inner
+ * matcher of such repetitions.</p>
+ */
+public interface SingleCharMatcher
+    extends Matcher
+{
+    /**
+     * Tell whether this matcher matches a given character
+     *
+     * @param c the character
+     * @return true if the character matches
+     */
+    boolean matches(char c);
+
+    /**
+     * Return the end of the run of matching characters at a given index
+     *
+     * <p>Implementations may override this method if they can find the end of
+     * the run faster than by testing all characters one by one.</p>
+     *
+     * @param buffer the input buffer
+     * @param start the start index
+     * @param end the maximum end index; must not exceed the buffer's length
+     * @return the index of the first character which does not match, or
+     * {@code end} if all characters match
+     */
+    default int scan(final InputBuffer buffer, final int start, final int end)
+    {
+        int index = start;
+
+        while (index < end && matches(buffer.charAt(index)))
+            index++;
+
+        return index;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.matchers.base;
+
+import com.github.fge.grappa.matchers.wrap.ProxyMatcher;
+import com.github.fge.grappa.stack.ValueStack;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Lazy analysis of whether a matcher can modify the value stack
+ *
+ * <p>A matcher is <em>stack pure</em> if no matcher reachable from it
+ * {@link Matcher#modifiesValueStack() modifies the value stack}.</p>
+ *
+ * <p>Composite matchers which take {@link ValueStack#takeSnapshot() value
+ * stack snapshots} use an instance of this class to skip snapshots entirely
+ * when they are stack pure; this is the case, for instance, of all purely
+ * lexical rules.</p>
+ *
+ * <p>The analysis is done on first use and not at construction time: at that
+ * point, proxies for recursive rules may not have been armed yet. It is
+ * idempotent, therefore an instance can be safely shared among threads.</p>
+ */
+public final class StackPurity
+{
+    private static final int UNKNOWN = 0;
+    private static final int PURE = 1;
+    private static final int IMPURE = 2;
+
+    private final Matcher matcher;
+
+    private int state = UNKNOWN;
+
+    public StackPurity(final Matcher matcher)
+    {
+        this.matcher = matcher;
+    }
+
+    /**
+     * Tell whether the matcher is stack pure
+     *
+     * @return true if it is
+     */
+    public boolean isPure()
+    {
+        if (state == UNKNOWN)
+            state = isPure(matcher) ? PURE : IMPURE;
+        return state == PURE;
+    }
+
+    /**
+     * Tell whether a matcher is stack pure
+     *
+     * @param matcher the matcher
+     * @return true if it is
+     */
+    public static boolean isPure(final Matcher matcher)
+    {
+        final Set<Matcher> seen
+            = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Matcher> toVisit = new ArrayDeque<>();
+
+        toVisit.push(matcher);
+
+        Matcher current;
+
+        while (!toVisit.isEmpty()) {
+            current = ProxyMatcher.unwrap(toVisit.pop());
+            if (!seen.add(current))
+                continue;
+            if (current.modifiesValueStack())
+                return false;
+            current.getChildren().forEach(toVisit::push);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.bytes;
+
+import com.github.fge.grappa.buffers.ByteInputBuffer;
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.google.common.base.Preconditions;
+
+/**
+ * A matcher matching one given byte
+ *
+ * <p>This is the matcher used by {@link BaseParser#singleByte(int)
+ * singleByte()}. It is meant to be used with a {@link ByteInputBuffer}, where
+ * each byte of input is seen as a char between {@code 0x00} and {@code 0xff}.
+ * </p>
+ */
+public final class ByteMatcher
+    extends AbstractMatcher
+{
+    private final char value;
+
+    /**
+     * Constructor
+     *
+     * @param value the byte value, either signed or unsigned
+     *
+     * @see #toUnsignedByte(int)
+     */
+    public ByteMatcher(final int value)
+    {
+        super(String.format("byte(0x%02x)", toUnsignedByte(value)));
+        this.value = (char) (value & 0xff);
+    }
+
+    /**
+     * Convert a signed or unsigned byte value to its unsigned value
+     *
+     * @param value the value, between {@code -128} and {@code 255}
+     * @return the unsigned value
+     *
+     * @throws IllegalArgumentException value is out of range
+     */
+    public static int toUnsignedByte(final int value)
+    {
+        Preconditions.checkArgument(value >= Byte.MIN_VALUE && value <= 0xff,
+            "illegal byte value %s", value);
+        return value & 0xff;
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        if (context.atEnd())
+            return false;
+
+        if (context.getCurrentChar() != value)
+            return false;
+
+        context.advanceIndex(1);
+        return true;
+    }
+}
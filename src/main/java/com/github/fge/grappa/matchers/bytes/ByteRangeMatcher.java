@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.bytes;
+
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.google.common.base.Preconditions;
+
+/**
+ * A matcher matching one byte out of a range of byte values
+ *
+ * <p>This is the matcher used by {@link BaseParser#byteRange(int, int)
+ * byteRange()}. Bounds are unsigned values, both inclusive.</p>
+ */
+public final class ByteRangeMatcher
+    extends AbstractMatcher
+{
+    private final char lowerBound;
+    private final char upperBound;
+
+    public ByteRangeMatcher(final int lowerBound, final int upperBound)
+    {
+        super(String.format("byte(0x%02x..0x%02x)", lowerBound, upperBound));
+        Preconditions.checkArgument(lowerBound < upperBound);
+        this.lowerBound = (char) lowerBound;
+        this.upperBound = (char) upperBound;
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        if (context.atEnd())
+            return false;
+
+        final char c = context.getCurrentChar();
+
+        if (c < lowerBound || c > upperBound)
+            return false;
+
+        context.advanceIndex(1);
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.bytes;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.google.common.io.BaseEncoding;
+
+import java.util.Objects;
+
+/**
+ * A matcher matching a fixed sequence of bytes
+ *
+ * <p>This is the matcher used by {@link BaseParser#bytes(byte...) bytes()};
+ * typical usages include magic numbers and fixed protocol headers.</p>
+ */
+public final class ByteSequenceMatcher
+    extends AbstractMatcher
+{
+    private final char[] values;
+
+    public ByteSequenceMatcher(final byte[] bytes)
+    {
+        super("bytes(" + BaseEncoding.base16().lowerCase()
+            .encode(Objects.requireNonNull(bytes)) + ')');
+        values = new char[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            values[i] = (char) (bytes[i] & 0xff);
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int index = context.getCurrentIndex();
+        final int len = values.length;
+
+        if (buffer.length() - index < len)
+            return false;
+
+        for (int i = 0; i < len; i++)
+            if (buffer.charAt(index + i) != values[i])
+                return false;
+
+        context.advanceIndex(len);
+        return true;
+    }
+}
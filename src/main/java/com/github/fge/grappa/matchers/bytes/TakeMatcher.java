@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.bytes;
+
+import com.github.fge.grappa.exceptions.GrappaException;
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.stack.ValueStack;
+import com.google.common.base.Preconditions;
+
+/**
+ * A matcher consuming a given number of input characters (or bytes)
+ *
+ * <p>The count is either fixed, or read from the top of the value stack; in
+ * the latter case, the value must be a {@link Number}, and is popped only if
+ * the match succeeds. This makes length prefixed fields easy to express:</p>
+ *
+ * <pre>
+ *     // a 16-bit big endian length, followed by that many bytes
+ *     return sequence(u16be(), take());
+ * </pre>
+ *
+ * <p>The matcher fails if not enough input remains.</p>
+ *
+ * @see BaseParser#take()
+ * @see BaseParser#take(int)
+ */
+public final class TakeMatcher
+    extends AbstractMatcher
+{
+    private static final int FROM_STACK = -1;
+
+    private final int count;
+
+    /**
+     * Constructor for a matcher reading the count from the value stack
+     */
+    public TakeMatcher()
+    {
+        super("take()");
+        count = FROM_STACK;
+    }
+
+    /**
+     * Constructor for a fixed count
+     *
+     * @param count the number of characters to consume
+     */
+    public TakeMatcher(final int count)
+    {
+        super("take(" + count + ')');
+        Preconditions.checkArgument(count >= 0, "count must not be negative");
+        this.count = count;
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public boolean modifiesValueStack()
+    {
+        return count == FROM_STACK;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final int remaining = context.getInputBuffer().length()
+            - context.getCurrentIndex();
+
+        if (count != FROM_STACK) {
+            if (remaining < count)
+                return false;
+            context.advanceIndex(count);
+            return true;
+        }
+
+        final ValueStack<V> stack = context.getValueStack();
+        final Object value = stack.peek();
+
+        if (!(value instanceof Number))
+            throw new GrappaException("take(): top of stack is not a number ("
+                + value + ')');
+
+        final long n = ((Number) value).longValue();
+
+        if (n < 0L)
+            throw new GrappaException("take(): negative count (" + n + ')');
+
+        if (remaining < n)
+            return false;
+
+        stack.pop();
+        context.advanceIndex((int) n);
+        return true;
+    }
+}
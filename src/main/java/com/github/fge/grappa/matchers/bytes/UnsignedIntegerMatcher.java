@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.bytes;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A matcher decoding a fixed width unsigned integer and pushing its value
+ *
+ * <p>This matcher consumes one, two or four bytes of input, decodes them as an
+ * unsigned integer in the given byte order and pushes the result onto the
+ * value stack: an {@link Integer} for widths one and two, a {@link Long} for
+ * width four.</p>
+ *
+ * <p>The value is computed directly from the input buffer; neither the bytes
+ * nor an intermediate string are ever extracted.</p>
+ *
+ * @see BaseParser#u8()
+ * @see BaseParser#u16be()
+ * @see BaseParser#u32le()
+ */
+public final class UnsignedIntegerMatcher
+    extends AbstractMatcher
+{
+    private final int width;
+    private final boolean bigEndian;
+
+    public UnsignedIntegerMatcher(final int width, final ByteOrder order)
+    {
+        super(getLabel(width, order));
+        Preconditions.checkArgument(width == 1 || width == 2 || width == 4,
+            "width must be 1, 2 or 4");
+        this.width = width;
+        bigEndian = Objects.requireNonNull(order) == ByteOrder.BIG_ENDIAN;
+    }
+
+    private static String getLabel(final int width, final ByteOrder order)
+    {
+        if (width == 1)
+            return "u8";
+        return "u" + width * 8
+            + (order == ByteOrder.BIG_ENDIAN ? "be" : "le");
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public boolean modifiesValueStack()
+    {
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int index = context.getCurrentIndex();
+
+        if (buffer.length() - index < width)
+            return false;
+
+        long value = 0L;
+        char c;
+
+        for (int i = 0; i < width; i++) {
+            c = buffer.charAt(bigEndian ? index + i : index + width - i - 1);
+            if (c > 0xff)
+                return false;
+            value = value << 8 | c;
+        }
+
+        final Object pushed = width == 4 ? (Object) value : (Object) (int) value;
+        context.getValueStack().push((V) pushed);
+        context.advanceIndex(width);
+        return true;
+    }
+}
@@ -19,6 +19,7 @@ package com.github.fge.grappa.matchers.delegate;
 import com.github.fge.grappa.matchers.MatcherType;
 import com.github.fge.grappa.matchers.base.CustomDefaultLabelMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.StackPurity;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.rules.Rule;
 import com.github.fge.grappa.stack.ValueStack;
@@ -34,10 +35,15 @@ import java.util.Objects;
  * sequence()}; but it is also used in rules accepting more than one rule as
  * an argument, for instance {@code join(...)}, {@code zeroOrMore(...)}, {@code
  * test(...)} etc.</p>
+ *
+ * <p>No value stack snapshot is taken if this matcher is {@link StackPurity
+ * stack pure}.</p>
  */
 public final class SequenceMatcher
     extends CustomDefaultLabelMatcher<SequenceMatcher>
 {
+    private final StackPurity purity = new StackPurity(this);
+
     public SequenceMatcher(final Rule[] subRules)
     {
         super(Objects.requireNonNull(subRules, "subRules"), "sequence");
@@ -52,6 +58,13 @@ public final class SequenceMatcher
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
+        if (purity.isPure()) {
+            for (final Matcher matcher: getChildren())
+                if (!matcher.getSubContext(context).runMatcher())
+                    return false;
+            return true;
+        }
+
         final ValueStack<V> stack = context.getValueStack();
         final Object snapshot = stack.takeSnapshot();
 
@@ -62,6 +75,8 @@ public final class SequenceMatcher
             stack.restoreSnapshot(snapshot);
             return false;
         }
+
+        stack.discardSnapshot(snapshot);
         return true;
     }
 }
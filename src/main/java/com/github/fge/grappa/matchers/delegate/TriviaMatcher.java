@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.delegate;
+
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.CustomDefaultLabelMatcher;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.run.stream.StreamingParseRunner;
+import com.github.fge.grappa.run.tree.TreeParseRunner;
+import com.github.fge.grappa.stack.ValueStack;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link Matcher} skipping trivia (whitespace, comments...) and always
+ * succeeding
+ *
+ * <p>The end of the trivia at a given index is cached, so that the trivia
+ * following a token is only ever matched once, no matter how many times the
+ * grammar backtracks over this token. The cache is a fixed size window of
+ * recent positions, kept per thread and per parsing run; a run is identified
+ * by its value stack, which parse runners create anew for each run. An input
+ * buffer edited in place may therefore be parsed again.</p>
+ *
+ * <p>As a consequence, the trivia rule must only depend on the input: it
+ * should neither run actions nor push values. Also, since it is not run at
+ * all on a cache hit, {@link TreeParseRunner} and {@link StreamingParseRunner}
+ * never report matches within trivia, and parse event listeners only see the
+ * trivia rule the first time it is tried at a given position.</p>
+ *
+ * @see BaseParser#trivia()
+ * @see BaseParser#skipTrivia()
+ */
+public final class TriviaMatcher
+    extends CustomDefaultLabelMatcher<TriviaMatcher>
+{
+    private static final int CACHE_SIZE = 1024;
+
+    private final Matcher subMatcher;
+    private final ThreadLocal<Cache> caches
+        = ThreadLocal.withInitial(Cache::new);
+
+    public TriviaMatcher(final Rule subRule)
+    {
+        super(Objects.requireNonNull(subRule, "subRule"), "skipTrivia");
+        subMatcher = getChildren().get(0);
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.COMPOSITE;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final Cache cache = caches.get();
+        final int index = context.getCurrentIndex();
+        final int slot = cache.slot(context.getValueStack(), index);
+
+        if (cache.positions[slot] == index) {
+            context.advanceIndex(cache.ends[slot] - index);
+            return true;
+        }
+
+        subMatcher.getSubContext(context).runMatcher();
+        cache.positions[slot] = index;
+        cache.ends[slot] = context.getCurrentIndex();
+        return true;
+    }
+
+    /*
+     * Direct mapped cache: positions[i] is the index cached in slot i (-1 if
+     * none), ends[i] the end of the trivia at this index
+     */
+    private static final class Cache
+    {
+        private final int[] positions = new int[CACHE_SIZE];
+        private final int[] ends = new int[CACHE_SIZE];
+        private Reference<ValueStack<?>> run = new WeakReference<>(null);
+
+        private int slot(final ValueStack<?> valueStack, final int index)
+        {
+            if (run.get() != valueStack) {
+                run = new WeakReference<>(valueStack);
+                Arrays.fill(positions, -1);
+            }
+            return index & CACHE_SIZE - 1;
+        }
+    }
+}
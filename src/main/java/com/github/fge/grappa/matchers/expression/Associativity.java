@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.expression;
+
+/**
+ * Associativity of an infix operator
+ *
+ * @see ExpressionMatcherBuilder#infix(Object, int, Associativity, Object)
+ */
+public enum Associativity
+{
+    /**
+     * Left associative: {@code a - b - c} is {@code (a - b) - c}
+     */
+    LEFT,
+    /**
+     * Right associative: {@code a ^ b ^ c} is {@code a ^ (b ^ c)}
+     */
+    RIGHT
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.expression;
+
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.CustomDefaultLabelMatcher;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.context.MatcherContext;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Matcher} for operator expressions, using precedence climbing
+ *
+ * <p>Instead of a ladder of rules, one per precedence level, this matcher
+ * tries the operand rule and the operators of its table in a loop; it only
+ * recurses when an operator is actually found, and then only as deep as the
+ * precedence of this operator requires.</p>
+ *
+ * <p>For each operator, the matching is as follows:</p>
+ *
+ * <ul>
+ *     <li>a prefix operator applies to the expression which follows it, made
+ *     of operators of precedence at least equal to its own;</li>
+ *     <li>an infix operator of precedence {@code p} takes as a right operand
+ *     the expression made of operators of precedence greater than {@code p}
+ *     (left associative) or at least equal to {@code p} (right associative);
+ *     </li>
+ *     <li>a postfix operator applies to the expression before it.</li>
+ * </ul>
+ *
+ * <p>Operators of the same kind are tried in the order in which they were
+ * declared. Each time an operator is applied, its reduction rule (typically
+ * an action), if any, is run; values of the operands are then on the value
+ * stack, the rightmost operand on top. If a reduction fails, the whole
+ * expression fails, including when this reduction is part of the operand of
+ * another operator; the value stack is then restored to its state before the
+ * expression was tried.</p>
+ *
+ * <p>If a prefix operator matches but is not followed by an expression, the
+ * input is tried against the operand rule instead. If an infix operator
+ * matches but is not followed by an expression, the expression ends before
+ * this operator. In both cases, the value stack is restored to its state
+ * before the operator was tried.</p>
+ *
+ * @see ExpressionMatcherBuilder
+ */
+public final class ExpressionMatcher
+    extends CustomDefaultLabelMatcher<ExpressionMatcher>
+{
+    /*
+     * Outcomes of matching a (sub)expression: NO_MATCH means that the input
+     * at this position is not an expression, and another alternative may be
+     * tried; FAILED means that a reduction failed, which fails the whole
+     * expression
+     */
+    private static final int MATCHED = 0;
+    private static final int NO_MATCH = 1;
+    private static final int FAILED = 2;
+
+    private final Matcher operand;
+    private final Operator[] prefix;
+    private final Operator[] infix;
+    private final Operator[] postfix;
+
+    ExpressionMatcher(final Rule operand, final Operator[] prefix,
+        final Operator[] infix, final Operator[] postfix)
+    {
+        super(collectRules(operand, prefix, infix, postfix), "expression");
+        this.operand = (Matcher) operand;
+        this.prefix = prefix;
+        this.infix = infix;
+        this.postfix = postfix;
+    }
+
+    private static Rule[] collectRules(final Rule operand,
+        final Operator[]... tables)
+    {
+        final List<Rule> list = new ArrayList<>();
+
+        list.add(operand);
+
+        for (final Operator[] table: tables)
+            for (final Operator operator: table) {
+                list.add(operator.rule);
+                if (operator.reduction != null)
+                    list.add(operator.reduction);
+            }
+
+        return list.toArray(new Rule[list.size()]);
+    }
+
+    @Override
+    public MatcherType getType()
+    {
+        return MatcherType.COMPOSITE;
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final Object snapshot = context.getValueStack().takeSnapshot();
+
+        if (climb(context, 0) == MATCHED) {
+            context.getValueStack().discardSnapshot(snapshot);
+            return true;
+        }
+
+        context.getValueStack().restoreSnapshot(snapshot);
+        return false;
+    }
+
+    private <V> int climb(final MatcherContext<V> context,
+        final int minPrecedence)
+    {
+        int status = unary(context);
+
+        if (status != MATCHED)
+            return status;
+
+        Operator operator;
+
+        while (true) {
+            operator = postfix(context, minPrecedence);
+            if (operator != null) {
+                if (!reduce(context, operator))
+                    return FAILED;
+                continue;
+            }
+            status = infix(context, minPrecedence);
+            if (status != MATCHED)
+                return status == NO_MATCH ? MATCHED : FAILED;
+        }
+    }
+
+    /*
+     * Prefix operators, then operand
+     */
+    private <V> int unary(final MatcherContext<V> context)
+    {
+        final int index = context.getCurrentIndex();
+        Object snapshot;
+        int status;
+
+        for (final Operator operator: prefix) {
+            snapshot = context.getValueStack().takeSnapshot();
+            if (!run(context, operator.rule)) {
+                context.getValueStack().discardSnapshot(snapshot);
+                continue;
+            }
+            status = climb(context, operator.precedence);
+            if (status == NO_MATCH) {
+                context.getValueStack().restoreSnapshot(snapshot);
+                context.setCurrentIndex(index);
+                continue;
+            }
+            context.getValueStack().discardSnapshot(snapshot);
+            if (status == FAILED)
+                return FAILED;
+            return reduce(context, operator) ? MATCHED : FAILED;
+        }
+
+        return run(context, operand) ? MATCHED : NO_MATCH;
+    }
+
+    /*
+     * Return the postfix operator which matched, if any
+     */
+    @Nullable
+    private <V> Operator postfix(final MatcherContext<V> context,
+        final int minPrecedence)
+    {
+        for (final Operator operator: postfix)
+            if (operator.precedence >= minPrecedence
+                && run(context, operator.rule))
+                return operator;
+
+        return null;
+    }
+
+    /*
+     * Match an infix operator along with its right operand, and reduce it
+     */
+    private <V> int infix(final MatcherContext<V> context,
+        final int minPrecedence)
+    {
+        final int index = context.getCurrentIndex();
+        Object snapshot;
+        int status;
+
+        for (final Operator operator: infix) {
+            if (operator.precedence < minPrecedence)
+                continue;
+            snapshot = context.getValueStack().takeSnapshot();
+            if (!run(context, operator.rule)) {
+                context.getValueStack().discardSnapshot(snapshot);
+                continue;
+            }
+            status = climb(context, operator.rightAssociative
+                ? operator.precedence : operator.precedence + 1);
+            if (status == NO_MATCH) {
+                context.getValueStack().restoreSnapshot(snapshot);
+                context.setCurrentIndex(index);
+                continue;
+            }
+            context.getValueStack().discardSnapshot(snapshot);
+            if (status == FAILED)
+                return FAILED;
+            return reduce(context, operator) ? MATCHED : FAILED;
+        }
+
+        return NO_MATCH;
+    }
+
+    private static <V> boolean reduce(final MatcherContext<V> context,
+        final Operator operator)
+    {
+        return operator.reduction == null || run(context, operator.reduction);
+    }
+
+    private static <V> boolean run(final MatcherContext<V> context,
+        final Matcher matcher)
+    {
+        return matcher.getSubContext(context).runMatcher();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.expression;
+
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A builder for an {@link ExpressionMatcher}
+ *
+ * <p>Operators and reductions are converted to rules using {@link
+ * BaseParser#toRule(Object)}; a reduction is typically an action. A greater
+ * precedence means that the operator binds more tightly. For instance:</p>
+ *
+ * <pre>
+ *     public Rule expr()
+ *     {
+ *         return expression(firstOf(pushInteger(), sequence('(', expr(), ')')))
+ *             .prefix('-', 30, ACTION(push(-pop())))
+ *             .infix('+', 10, Associativity.LEFT, ACTION(push(pop(1) + pop())))
+ *             .infix('*', 20, Associativity.LEFT, ACTION(push(pop(1) * pop())))
+ *             .build();
+ *     }
+ * </pre>
+ *
+ * @param <V> the type of values of the parser
+ *
+ * @see BaseParser#expression(Object)
+ */
+public final class ExpressionMatcherBuilder<V>
+{
+    private final BaseParser<V> parser;
+    private final Rule operand;
+
+    private final List<Operator> prefix = new ArrayList<>();
+    private final List<Operator> infix = new ArrayList<>();
+    private final List<Operator> postfix = new ArrayList<>();
+
+    public ExpressionMatcherBuilder(@Nonnull final BaseParser<V> parser,
+        @Nonnull final Rule operand)
+    {
+        this.parser = Objects.requireNonNull(parser);
+        this.operand = Objects.requireNonNull(operand);
+    }
+
+    /**
+     * Add a prefix operator
+     *
+     * @param operator the operator
+     * @param precedence the precedence
+     * @param reduction the reduction
+     * @return this
+     */
+    public ExpressionMatcherBuilder<V> prefix(@Nonnull final Object operator,
+        final int precedence, @Nonnull final Object reduction)
+    {
+        prefix.add(operator(operator, precedence, false, reduction));
+        return this;
+    }
+
+    /**
+     * Add a prefix operator with no reduction
+     *
+     * @param operator the operator
+     * @param precedence the precedence
+     * @return this
+     */
+    public ExpressionMatcherBuilder<V> prefix(@Nonnull final Object operator,
+        final int precedence)
+    {
+        prefix.add(operator(operator, precedence, false, null));
+        return this;
+    }
+
+    /**
+     * Add an infix operator
+     *
+     * @param operator the operator
+     * @param precedence the precedence
+     * @param associativity the associativity
+     * @param reduction the reduction
+     * @return this
+     */
+    public ExpressionMatcherBuilder<V> infix(@Nonnull final Object operator,
+        final int precedence, @Nonnull final Associativity associativity,
+        @Nonnull final Object reduction)
+    {
+        infix.add(operator(operator, precedence,
+            Objects.requireNonNull(associativity) == Associativity.RIGHT,
+            reduction));
+        return this;
+    }
+
+    /**
+     * Add an infix operator with no reduction
+     *
+     * @param operator the operator
+     * @param precedence the precedence
+     * @param associativity the associativity
+     * @return this
+     */
+    public ExpressionMatcherBuilder<V> infix(@Nonnull final Object operator,
+        final int precedence, @Nonnull final Associativity associativity)
+    {
+        infix.add(operator(operator, precedence,
+            Objects.requireNonNull(associativity) == Associativity.RIGHT,
+            null));
+        return this;
+    }
+
+    /**
+     * Add a postfix operator
+     *
+     * @param operator the operator
+     * @param precedence the precedence
+     * @param reduction the reduction
+     * @return this
+     */
+    public ExpressionMatcherBuilder<V> postfix(@Nonnull final Object operator,
+        final int precedence, @Nonnull final Object reduction)
+    {
+        postfix.add(operator(operator, precedence, false, reduction));
+        return this;
+    }
+
+    /**
+     * Add a postfix operator with no reduction
+     *
+     * @param operator the operator
+     * @param precedence the precedence
+     * @return this
+     */
+    public ExpressionMatcherBuilder<V> postfix(@Nonnull final Object operator,
+        final int precedence)
+    {
+        postfix.add(operator(operator, precedence, false, null));
+        return this;
+    }
+
+    /**
+     * Build the expression rule
+     *
+     * @return a rule
+     */
+    public Rule build()
+    {
+        return new ExpressionMatcher(operand, toArray(prefix), toArray(infix),
+            toArray(postfix));
+    }
+
+    private Operator operator(final Object operator, final int precedence,
+        final boolean rightAssociative, @Nullable final Object reduction)
+    {
+        Preconditions.checkArgument(precedence >= 0
+            && precedence < Integer.MAX_VALUE, "illegal precedence %s",
+            precedence);
+        final Matcher rule = (Matcher) parser.toRule(operator);
+        final Matcher matcher = reduction == null ? null
+            : (Matcher) parser.toRule(reduction);
+        return new Operator(rule, precedence, rightAssociative, matcher);
+    }
+
+    private static Operator[] toArray(final List<Operator> list)
+    {
+        return list.toArray(new Operator[list.size()]);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.expression;
+
+import com.github.fge.grappa.matchers.base.Matcher;
+
+import javax.annotation.Nullable;
+
+/*
+ * One entry of an operator table
+ */
+final class Operator
+{
+    final Matcher rule;
+    final int precedence;
+    final boolean rightAssociative;
+    @Nullable
+    final Matcher reduction;
+
+    Operator(final Matcher rule, final int precedence,
+        final boolean rightAssociative, @Nullable final Matcher reduction)
+    {
+        this.rule = rule;
+        this.precedence = precedence;
+        this.rightAssociative = rightAssociative;
+        this.reduction = reduction;
+    }
+}
@@ -20,6 +20,7 @@ import com.github.fge.grappa.exceptions.GrappaException;
 import com.github.fge.grappa.matchers.MatcherType;
 import com.github.fge.grappa.matchers.base.CustomDefaultLabelMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.StackPurity;
 import com.github.fge.grappa.rules.Rule;
 import com.github.fge.grappa.run.context.MatcherContext;
 
@@ -50,6 +51,9 @@ import com.github.fge.grappa.run.context.MatcherContext;
  * empty sequence. Unfortunately, due to current limitations, this can only
  * be detected at runtime.</p>
  *
+ * <p>No value stack snapshot is taken if this matcher is {@link StackPurity
+ * stack pure}.</p>
+ *
  * <p>This matcher is not built directly; its build is initiated by a {@link
  * JoinMatcherBootstrap}. Example:</p>
  *
@@ -71,6 +75,8 @@ public abstract class JoinMatcher
     protected final Matcher joined;
     protected final Matcher joining;
 
+    private final StackPurity purity = new StackPurity(this);
+
     protected JoinMatcher(final Rule joined, final Rule joining)
     {
         super(new Rule[] { joined, joining }, "join");
@@ -105,16 +111,21 @@ public abstract class JoinMatcher
 
         cycles++;
 
-        Object snapshot = context.getValueStack().takeSnapshot();
+        final boolean pure = purity.isPure();
+        Object snapshot = pure ? null : context.getValueStack().takeSnapshot();
         int beforeCycle = context.getCurrentIndex();
 
         while (runAgain(cycles) && matchCycle(context, beforeCycle)) {
             beforeCycle = context.getCurrentIndex();
-            snapshot = context.getValueStack().takeSnapshot();
+            if (!pure) {
+                context.getValueStack().discardSnapshot(snapshot);
+                snapshot = context.getValueStack().takeSnapshot();
+            }
             cycles++;
         }
 
-        context.getValueStack().restoreSnapshot(snapshot);
+        if (!pure)
+            context.getValueStack().restoreSnapshot(snapshot);
         context.setCurrentIndex(beforeCycle);
 
         return enoughCycles(cycles);
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.numbers;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+
+import java.math.BigDecimal;
+
+/**
+ * A matcher for decimal numbers
+ *
+ * <p>The syntax is an optional minus sign, one or more digits, then
+ * optionally a dot followed by one or more digits. The value is a {@link
+ * BigDecimal} whose scale is the number of digits after the dot.</p>
+ *
+ * <p>The unscaled value is computed while scanning; the text is only
+ * extracted if it does not fit in a long. When the value is not pushed, no
+ * {@link BigDecimal} is created at all.</p>
+ *
+ * @see BaseParser#decimal()
+ * @see BaseParser#pushDecimal()
+ */
+public final class DecimalMatcher
+    extends NumberMatcher
+{
+    public DecimalMatcher(final boolean push)
+    {
+        super("decimal", push);
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int length = buffer.length();
+        final int start = context.getCurrentIndex();
+        int index = start;
+
+        if (index >= length)
+            return false;
+
+        final boolean negative = buffer.charAt(index) == '-';
+        if (negative)
+            index++;
+
+        final int digitsStart = index;
+        int point = -1;
+        long unscaled = 0L;
+        boolean overflow = false;
+        int digit;
+
+        while (index < length) {
+            digit = buffer.charAt(index) - '0';
+            if (digit == '.' - '0' && point == -1 && index > digitsStart) {
+                // The dot must be followed by a digit
+                if (skipDigits(buffer, index + 1) == index + 1)
+                    break;
+                point = index++;
+                continue;
+            }
+            if (digit < 0 || digit > 9)
+                break;
+            if (unscaled > (Long.MAX_VALUE - digit) / 10L)
+                overflow = true;
+            unscaled = unscaled * 10L + digit;
+            index++;
+        }
+
+        if (index == digitsStart)
+            return false;
+
+        // The value is only needed if it is pushed
+        if (!modifiesValueStack())
+            return success(context, index, null);
+
+        if (overflow)
+            return success(context, index,
+                new BigDecimal(buffer.extract(start, index)));
+
+        final int scale = point == -1 ? 0 : index - point - 1;
+        return success(context, index,
+            BigDecimal.valueOf(negative ? -unscaled : unscaled, scale));
+    }
+}
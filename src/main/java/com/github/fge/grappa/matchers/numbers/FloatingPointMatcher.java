@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.numbers;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.support.CharSequences;
+
+/**
+ * A matcher for floating point numbers
+ *
+ * <p>The syntax is the one of JSON numbers, except that leading zeroes are
+ * allowed: an optional minus sign, one or more digits, optionally a dot
+ * followed by one or more digits, and optionally an exponent ({@code e} or
+ * {@code E}, an optional sign, and one or more digits).</p>
+ *
+ * <p>The value is a {@link Double}, as computed by {@link
+ * CharSequences#parseDouble(CharSequence, int, int)}; literals whose value is
+ * too large to be represented as a double do not match.</p>
+ *
+ * <p>When the value is not pushed, the literal is not parsed: whether it is
+ * too large is decided from the position of its first significant digit and
+ * its exponent, and only literals of the same order of magnitude as {@link
+ * Double#MAX_VALUE} are parsed. Note that when the value is pushed, literals
+ * with more than 15 significant digits or a large exponent are handed over to
+ * {@link Double#parseDouble(String)}, and therefore extracted as a string;
+ * this is deliberate, as computing a correctly rounded value for them is the
+ * job of the JDK.</p>
+ *
+ * @see BaseParser#floatingPoint()
+ * @see BaseParser#pushFloatingPoint()
+ */
+public final class FloatingPointMatcher
+    extends NumberMatcher
+{
+    /*
+     * The decimal exponent of the first significant digit of Double.MAX_VALUE
+     */
+    private static final int MAX_MAGNITUDE = 308;
+
+    public FloatingPointMatcher(final boolean push)
+    {
+        super("floatingPoint", push);
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int length = buffer.length();
+        final int start = context.getCurrentIndex();
+        int index = start;
+
+        if (index < length && buffer.charAt(index) == '-')
+            index++;
+
+        final int digitsStart = index;
+        final int digitsEnd = skipDigits(buffer, index);
+        if (digitsEnd == index)
+            return false;
+
+        index = digitsEnd;
+
+        if (index < length && buffer.charAt(index) == '.') {
+            final int fractionEnd = skipDigits(buffer, index + 1);
+            if (fractionEnd > index + 1)
+                index = fractionEnd;
+        }
+
+        final int mantissaEnd = index;
+        long exponent = 0L;
+
+        if (index < length && (buffer.charAt(index) | 0x20) == 'e') {
+            int exponentStart = index + 1;
+            boolean negative = false;
+            if (exponentStart < length) {
+                final char c = buffer.charAt(exponentStart);
+                if (c == '-' || c == '+') {
+                    negative = c == '-';
+                    exponentStart++;
+                }
+            }
+            final int exponentEnd = skipDigits(buffer, exponentStart);
+            if (exponentEnd > exponentStart) {
+                index = exponentEnd;
+                for (int i = exponentStart; i < exponentEnd; i++)
+                    exponent = Math.min(exponent * 10L
+                        + buffer.charAt(i) - '0', Integer.MAX_VALUE);
+                if (negative)
+                    exponent = -exponent;
+            }
+        }
+
+        if (!modifiesValueStack()) {
+            final long magnitude = magnitude(buffer, digitsStart, digitsEnd,
+                mantissaEnd) + exponent;
+            if (magnitude < MAX_MAGNITUDE)
+                return success(context, index, null);
+            if (magnitude > MAX_MAGNITUDE)
+                return false;
+        }
+
+        final double value = CharSequences.parseDouble(buffer, start, index);
+        if (Double.isInfinite(value))
+            return false;
+
+        return success(context, index, value);
+    }
+
+    /*
+     * The decimal exponent of the first significant digit of the mantissa
+     * (1 for 12.3, -2 for 0.0123), or Integer.MIN_VALUE if the mantissa is
+     * zero. The digits of the fraction, if any, start right after the integral
+     * digits and a dot.
+     */
+    private static long magnitude(final InputBuffer buffer,
+        final int digitsStart, final int digitsEnd, final int mantissaEnd)
+    {
+        for (int index = digitsStart; index < mantissaEnd; index++) {
+            if (index == digitsEnd || buffer.charAt(index) == '0')
+                continue;
+            return index < digitsEnd ? digitsEnd - index - 1
+                : digitsEnd - index;
+        }
+
+        return Integer.MIN_VALUE;
+    }
+}
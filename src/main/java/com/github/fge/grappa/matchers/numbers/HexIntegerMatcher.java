@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.numbers;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+
+/**
+ * A matcher for hexadecimal integers
+ *
+ * <p>The syntax is {@code 0x} (or {@code 0X}) followed by one or more
+ * hexadecimal digits, in any case. The value is a {@link Long}, with the same
+ * semantics as {@link Long#parseUnsignedLong(String, int)}: literals of more
+ * than 64 significant bits do not match.</p>
+ *
+ * @see BaseParser#hexInteger()
+ * @see BaseParser#pushHexInteger()
+ */
+public final class HexIntegerMatcher
+    extends NumberMatcher
+{
+    public HexIntegerMatcher(final boolean push)
+    {
+        super("hexInteger", push);
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int length = buffer.length();
+        int index = context.getCurrentIndex();
+
+        if (length - index < 3)
+            return false;
+        if (buffer.charAt(index) != '0'
+            || (buffer.charAt(index + 1) | 0x20) != 'x')
+            return false;
+
+        index += 2;
+
+        final int start = index;
+        long value = 0L;
+        int digit;
+
+        while (index < length) {
+            digit = hexDigit(buffer.charAt(index));
+            if (digit == -1)
+                break;
+            if ((value & 0xf000000000000000L) != 0L)
+                return false;
+            value = value << 4 | digit;
+            index++;
+        }
+
+        if (index == start)
+            return false;
+
+        return success(context, index, value);
+    }
+
+    private static int hexDigit(final char c)
+    {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        final char lower = (char) (c | 0x20);
+        if (lower >= 'a' && lower <= 'f')
+            return lower - 'a' + 10;
+        return -1;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.numbers;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.run.context.MatcherContext;
+
+/**
+ * A matcher for decimal integers
+ *
+ * <p>The syntax is an optional minus sign followed by one or more digits. The
+ * value is a {@link Long}; literals out of the range of a long do not match.
+ * </p>
+ *
+ * @see BaseParser#integer()
+ * @see BaseParser#pushInteger()
+ */
+public final class IntegerMatcher
+    extends NumberMatcher
+{
+    public IntegerMatcher(final boolean push)
+    {
+        super("integer", push);
+    }
+
+    @Override
+    public <V> boolean match(final MatcherContext<V> context)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int length = buffer.length();
+        int index = context.getCurrentIndex();
+
+        if (index >= length)
+            return false;
+
+        final boolean negative = buffer.charAt(index) == '-';
+        if (negative)
+            index++;
+
+        // Accumulate negatively, as the negative range is the largest
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final int start = index;
+        long value = 0L;
+        int digit;
+
+        while (index < length) {
+            digit = buffer.charAt(index) - '0';
+            if (digit < 0 || digit > 9)
+                break;
+            if (value < Long.MIN_VALUE / 10L)
+                return false;
+            value *= 10L;
+            if (value < limit + digit)
+                return false;
+            value -= digit;
+            index++;
+        }
+
+        if (index == start)
+            return false;
+
+        return success(context, index, negative ? value : -value);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.numbers;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.run.context.MatcherContext;
+
+import javax.annotation.Nullable;
+
+/**
+ * Base class for numeric literal matchers
+ *
+ * <p>These matchers recognize a numeric syntax in one pass over the input
+ * buffer, computing the value as they go; no text is extracted. If so
+ * configured, they push the value onto the value stack when they match.</p>
+ *
+ * <p>Only ASCII digits are recognized. A literal whose value cannot be
+ * represented by the pushed type is not matched at all.</p>
+ */
+public abstract class NumberMatcher
+    extends AbstractMatcher
+{
+    private final boolean push;
+
+    protected NumberMatcher(final String label, final boolean push)
+    {
+        super(label);
+        this.push = push;
+    }
+
+    @Override
+    public final MatcherType getType()
+    {
+        return MatcherType.TERMINAL;
+    }
+
+    @Override
+    public final boolean modifiesValueStack()
+    {
+        return push;
+    }
+
+    /**
+     * Return the end of a run of ASCII digits
+     *
+     * @param buffer the input buffer
+     * @param index the start index
+     * @return the index of the first non digit character (or of the end of
+     * input)
+     */
+    protected static int skipDigits(final InputBuffer buffer, final int index)
+    {
+        final int length = buffer.length();
+        int ret = index;
+        char c;
+
+        while (ret < length) {
+            c = buffer.charAt(ret);
+            if (c < '0' || c > '9')
+                break;
+            ret++;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Complete a successful match
+     *
+     * @param context the context
+     * @param end the end index of the match
+     * @param value the value to push, if so configured (may be null
+     * otherwise)
+     * @param <V> type parameter of the value stack
+     * @return always true
+     */
+    @SuppressWarnings("unchecked")
+    protected final <V> boolean success(final MatcherContext<V> context,
+        final int end, @Nullable final Object value)
+    {
+        if (push)
+            context.getValueStack().push((V) value);
+        context.advanceIndex(end - context.getCurrentIndex());
+        return true;
+    }
+}
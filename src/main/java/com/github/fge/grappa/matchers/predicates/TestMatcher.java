@@ -19,6 +19,7 @@ package com.github.fge.grappa.matchers.predicates;
 import com.github.fge.grappa.matchers.MatcherType;
 import com.github.fge.grappa.matchers.base.CustomDefaultLabelMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.StackPurity;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.rules.Rule;
 import com.github.fge.grappa.run.context.MatcherContext;
@@ -43,11 +44,13 @@ public final class TestMatcher
     extends CustomDefaultLabelMatcher<TestMatcher>
 {
     private final Matcher subMatcher;
+    private final StackPurity purity;
 
     public TestMatcher(final Rule subRule)
     {
         super(Objects.requireNonNull(subRule, "subRule"), "test");
         subMatcher = getChildren().get(0);
+        purity = new StackPurity(subMatcher);
     }
 
     @Override
@@ -60,17 +63,22 @@ public final class TestMatcher
     public <V> boolean match(final MatcherContext<V> context)
     {
         final int lastIndex = context.getCurrentIndex();
+        final boolean pure = purity.isPure();
         final Object valueStackSnapshot
-            = context.getValueStack().takeSnapshot();
+            = pure ? null : context.getValueStack().takeSnapshot();
 
-        if (!subMatcher.getSubContext(context).runMatcher())
+        if (!subMatcher.getSubContext(context).runMatcher()) {
+            if (!pure)
+                context.getValueStack().discardSnapshot(valueStackSnapshot);
             return false;
+        }
 
         // reset location, Test matchers never advance
         context.setCurrentIndex(lastIndex);
 
         // erase all value stack changes the the submatcher could have made
-        context.getValueStack().restoreSnapshot(valueStackSnapshot);
+        if (!pure)
+            context.getValueStack().restoreSnapshot(valueStackSnapshot);
         return true;
     }
 }
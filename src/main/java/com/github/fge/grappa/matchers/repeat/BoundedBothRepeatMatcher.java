@@ -26,6 +26,12 @@ public final class BoundedBothRepeatMatcher
         return cycles >= minCycles;
     }
 
+    @Override
+    protected int getMaxCycles()
+    {
+        return maxCycles;
+    }
+
     @Override
     protected boolean runAgain(final int cycles)
     {
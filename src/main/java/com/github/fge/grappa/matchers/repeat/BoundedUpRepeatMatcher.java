@@ -25,6 +25,12 @@ public final class BoundedUpRepeatMatcher
         return true;
     }
 
+    @Override
+    protected int getMaxCycles()
+    {
+        return maxCycles;
+    }
+
     @Override
     protected boolean runAgain(final int cycles)
     {
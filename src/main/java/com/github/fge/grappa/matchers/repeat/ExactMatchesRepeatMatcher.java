@@ -23,6 +23,12 @@ public final class ExactMatchesRepeatMatcher
         return cycles == nrCycles;
     }
 
+    @Override
+    protected int getMaxCycles()
+    {
+        return nrCycles;
+    }
+
     @Override
     protected boolean runAgain(final int cycles)
     {
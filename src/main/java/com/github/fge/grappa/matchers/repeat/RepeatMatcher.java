@@ -1,9 +1,11 @@
 package com.github.fge.grappa.matchers.repeat;
 
+import com.github.fge.grappa.buffers.InputBuffer;
 import com.github.fge.grappa.exceptions.GrappaException;
 import com.github.fge.grappa.matchers.MatcherType;
-import com.github.fge.grappa.matchers.base.AbstractMatcher;
+import com.github.fge.grappa.matchers.base.CustomDefaultLabelMatcher;
 import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.base.SingleCharMatcher;
 import com.github.fge.grappa.parsers.BaseParser;
 import com.github.fge.grappa.rules.Rule;
 import com.github.fge.grappa.run.context.MatcherContext;
@@ -30,7 +32,7 @@ import com.github.fge.grappa.run.context.MatcherContext;
  * </pre>
  */
 public abstract class RepeatMatcher
-    extends AbstractMatcher
+    extends CustomDefaultLabelMatcher<RepeatMatcher>
 {
     private final Matcher matcher;
 
@@ -49,6 +51,9 @@ public abstract class RepeatMatcher
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
+        if (matcher instanceof SingleCharMatcher)
+            return scan(context, (SingleCharMatcher) matcher);
+
         int cycles = 0;
 
         int beforeMatch = context.getCurrentIndex();
@@ -68,6 +73,35 @@ public abstract class RepeatMatcher
         return enoughCycles(cycles);
     }
 
+    /*
+     * Single character inner matcher: consume the whole run of matching
+     * characters at once
+     */
+    private <V> boolean scan(final MatcherContext<V> context,
+        final SingleCharMatcher charMatcher)
+    {
+        final InputBuffer buffer = context.getInputBuffer();
+        final int start = context.getCurrentIndex();
+        final int end = (int) Math.min((long) buffer.length(),
+            (long) start + getMaxCycles());
+
+        final int index = charMatcher.scan(buffer, start, end);
+
+        context.advanceIndex(index - start);
+        return enoughCycles(index - start);
+    }
+
+    /**
+     * Return the maximum number of cycles of this matcher
+     *
+     * @return the maximum number of cycles; {@link Integer#MAX_VALUE} if
+     * unbounded
+     */
+    protected int getMaxCycles()
+    {
+        return Integer.MAX_VALUE;
+    }
+
     protected abstract boolean enoughCycles(final int cycles);
 
     protected abstract boolean runAgain(final int cycles);
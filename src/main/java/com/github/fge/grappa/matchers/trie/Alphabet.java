@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.matchers.trie;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The alphabet of a {@link Trie}
+ *
+ * <p>This maps each distinct character of the words of a trie to a code, from
+ * 1 to the number of distinct characters; 0 means that the character does not
+ * appear in any word. Codes are allocated in character order.</p>
+ *
+ * <p>Characters lower than 256 are looked up in a table; others are binary
+ * searched.</p>
+ */
+@Immutable
+final class Alphabet
+{
+    private static final int DIRECT_SIZE = 256;
+
+    private final char[] chars;
+    private final char[] directCodes;
+
+    static Alphabet of(final Collection<String> words)
+    {
+        final boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        int count = 0;
+
+        for (final String word: words)
+            for (int i = 0; i < word.length(); i++)
+                if (!seen[word.charAt(i)]) {
+                    seen[word.charAt(i)] = true;
+                    count++;
+                }
+
+        final char[] chars = new char[count];
+        int index = 0;
+
+        for (int c = 0; c <= Character.MAX_VALUE; c++)
+            if (seen[c])
+                chars[index++] = (char) c;
+
+        return new Alphabet(chars);
+    }
+
+    Alphabet(final char[] chars)
+    {
+        this.chars = chars;
+
+        final int max = chars.length == 0 ? 0 : chars[chars.length - 1];
+        directCodes = new char[Math.min(max + 1, DIRECT_SIZE)];
+
+        for (int i = 0; i < chars.length && chars[i] < directCodes.length;
+            i++)
+            directCodes[chars[i]] = (char) (i + 1);
+    }
+
+    int size()
+    {
+        return chars.length;
+    }
+
+    char[] getChars()
+    {
+        return chars.clone();
+    }
+
+    int code(final char c)
+    {
+        if (c < directCodes.length)
+            return directCodes[c];
+        if (c < DIRECT_SIZE)
+            return 0;
+        final int index = Arrays.binarySearch(chars, c);
+        return index < 0 ? 0 : index + 1;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.matchers.trie;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds the double array of a {@link Trie} from a sorted list of words
+ *
+ * <p>Each state of the trie uses two consecutive slots of an {@code int}
+ * array:</p>
+ *
+ * <ul>
+ *     <li>the base, which is the index of the state's first possible child
+ *     (the child for a character of code {@code n} is at state {@code base +
+ *     n}); the highest bit of the base is set if the state ends a word;</li>
+ *     <li>the check, which is the parent state of this state, or -1 if the
+ *     state is free.</li>
+ * </ul>
+ *
+ * <p>Characters are first mapped to codes from 1 to the number of distinct
+ * characters in the words (see {@link Alphabet}), which keeps the
+ * array dense.</p>
+ *
+ * <p>States are created breadth first: the children of a node are the runs of
+ * words, among the words sharing the node's prefix, with the same character
+ * at the current depth. Since words are sorted, these runs are contiguous,
+ * and each word is visited once per character.</p>
+ *
+ * <p>Free states are kept in a linked list. When looking for the base of a
+ * state's children, only a bounded number of free states is tried before
+ * giving up and allocating after the last state; and a free state which
+ * keeps failing at the head of the list is eventually abandoned. This keeps
+ * the construction linear in the total length of the words, at the cost of a
+ * few holes in the array.</p>
+ */
+final class DoubleArrayBuilder
+{
+    static final int TERMINAL = 0x80000000;
+    static final int BASE_MASK = 0x7fffffff;
+
+    private static final int FREE = -1;
+    private static final int NONE = -1;
+    private static final int MAX_TRIES = 32;
+    private static final int MAX_HEAD_FAILURES = 16;
+
+    private final List<String> words;
+    private final Alphabet alphabet;
+
+    private int[] units;
+    private int capacity;
+    private int nrStates = 1;
+
+    // The list of free states
+    private int[] nextFree;
+    private int[] previousFree;
+    private int head;
+    private int tail;
+    private int headFailures = 0;
+
+    /**
+     * Constructor
+     *
+     * @param words the words, sorted, without duplicates
+     * @param alphabet the alphabet of these words
+     */
+    DoubleArrayBuilder(final List<String> words, final Alphabet alphabet)
+    {
+        this.words = words;
+        this.alphabet = alphabet;
+
+        capacity = Math.max(1024, alphabet.size() + 2);
+        units = new int[2 * capacity];
+        nextFree = new int[capacity];
+        previousFree = new int[capacity];
+
+        // The root state is its own parent
+        units[0] = 0;
+        units[1] = 0;
+
+        head = NONE;
+        tail = NONE;
+        addFree(1, capacity);
+    }
+
+    int[] build()
+    {
+        final Deque<int[]> queue = new ArrayDeque<>();
+        final int[] codes = new int[alphabet.size()];
+        final int[] starts = new int[alphabet.size() + 1];
+
+        // state, first word, last word (exclusive), depth
+        queue.add(new int[] { 0, 0, words.size(), 0 });
+
+        int[] node;
+        int state, low, high, depth;
+        int count, base, code;
+
+        while (!queue.isEmpty()) {
+            node = queue.remove();
+            state = node[0];
+            low = node[1];
+            high = node[2];
+            depth = node[3];
+
+            // The shortest word, if it ends here, comes first
+            if (words.get(low).length() == depth) {
+                units[2 * state] |= TERMINAL;
+                low++;
+            }
+
+            if (low == high)
+                continue;
+
+            count = 0;
+            for (int i = low; i < high; i++) {
+                code = alphabet.code(words.get(i).charAt(depth));
+                if (count > 0 && codes[count - 1] == code)
+                    continue;
+                codes[count] = code;
+                starts[count] = i;
+                count++;
+            }
+            starts[count] = high;
+
+            base = findBase(codes, count);
+            units[2 * state] |= base;
+
+            for (int i = 0; i < count; i++) {
+                occupy(base + codes[i], state);
+                queue.add(new int[] {
+                    base + codes[i], starts[i], starts[i + 1], depth + 1
+                });
+            }
+        }
+
+        return Arrays.copyOf(units, 2 * nrStates);
+    }
+
+    private int findBase(final int[] codes, final int count)
+    {
+        int free = head;
+        int next;
+        int base;
+
+        for (int tries = 0; free != NONE && tries < MAX_TRIES; tries++) {
+            base = free - codes[0];
+            if (base >= 1 && fits(base, codes, count))
+                return base;
+            next = nextFree[free];
+            if (free == head && ++headFailures >= MAX_HEAD_FAILURES) {
+                removeFree(free);
+                headFailures = 0;
+            }
+            free = next;
+        }
+
+        // All states after the last used state are free
+        return Math.max(nrStates - codes[0], 1);
+    }
+
+    private boolean fits(final int base, final int[] codes, final int count)
+    {
+        int state;
+
+        for (int i = 0; i < count; i++) {
+            state = base + codes[i];
+            if (state < capacity && units[2 * state + 1] != FREE)
+                return false;
+        }
+
+        return true;
+    }
+
+    private void occupy(final int state, final int parent)
+    {
+        if (state >= capacity)
+            grow(state + 1);
+
+        // It may have been abandoned already
+        if (nextFree[state] != NONE || previousFree[state] != NONE
+            || head == state)
+            removeFree(state);
+
+        units[2 * state] = 0;
+        units[2 * state + 1] = parent;
+        nrStates = Math.max(nrStates, state + 1);
+    }
+
+    private void grow(final int minCapacity)
+    {
+        final int oldCapacity = capacity;
+
+        capacity = Math.max(minCapacity, 2 * oldCapacity);
+        units = Arrays.copyOf(units, 2 * capacity);
+        nextFree = Arrays.copyOf(nextFree, capacity);
+        previousFree = Arrays.copyOf(previousFree, capacity);
+        addFree(oldCapacity, capacity);
+    }
+
+    private void addFree(final int from, final int to)
+    {
+        for (int state = from; state < to; state++) {
+            units[2 * state] = 0;
+            units[2 * state + 1] = FREE;
+            previousFree[state] = tail;
+            nextFree[state] = NONE;
+            if (tail == NONE)
+                head = state;
+            else
+                nextFree[tail] = state;
+            tail = state;
+        }
+    }
+
+    private void removeFree(final int state)
+    {
+        final int previous = previousFree[state];
+        final int next = nextFree[state];
+
+        if (previous == NONE)
+            head = next;
+        else
+            nextFree[previous] = next;
+
+        if (next == NONE)
+            tail = previous;
+        else
+            previousFree[next] = previous;
+
+        previousFree[state] = NONE;
+        nextFree[state] = NONE;
+    }
+}
@@ -16,7 +16,23 @@
 
 package com.github.fge.grappa.matchers.trie;
 
+import com.github.fge.grappa.exceptions.GrappaException;
+import com.github.fge.grappa.parsers.BaseParser;
+
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * "User-facing" class of a {@link TrieMatcher}
@@ -25,22 +41,38 @@ import javax.annotation.concurrent.Immutable;
  * href="http://en.wikipedia.org/wiki/Trie" target="_blank">trie</a> designed
  * to search for string constants.</p>
  *
- * <p>It is a rather "naïve" implementation in that it is only a trie and not
- * a much more sophisticated <a href="http://en.wikipedia.org/wiki/Radix_tree"
- * target="_blank">radix tree</a>, but it is efficient enough that searching
- * for a string among a series of strings is very fast.</p>
+ * <p>The trie is stored as a <em>double array</em>: all states are in a single
+ * {@code int} array, and following a transition from a state is a matter of
+ * an addition and a comparison. Characters are first mapped to a compact
+ * alphabet made of the characters actually used by the words of the trie.
+ * Searching never allocates, and can be done directly against any {@link
+ * CharSequence}, including an input buffer.</p>
  *
- * <p>The core of the trie search algorithm is implemented by {@link TrieNode}.
- * </p>
+ * <p>A trie can be written to a file (see {@link #writeTo(Path)}) and loaded
+ * back with {@link #load(Path)}. Loading a trie does not rebuild anything:
+ * the file is memory mapped, and the states are read directly from the
+ * mapping; several JVMs loading the same file therefore share its pages
+ * through the operating system's cache.</p>
  *
  * @since 1.0.0-beta.6
  */
 @Immutable
 public final class Trie
 {
+    /*
+     * File format: a header of six big endian ints (magic number, version,
+     * number of words, maximum length, alphabet size, number of states),
+     * then the alphabet, one int per character, then the states, two ints
+     * per state.
+     */
+    private static final int MAGIC = 0x47525452; // "GRTR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+
     private final int nrWords;
     private final int maxLength;
-    private final TrieNode node;
+    private final Alphabet alphabet;
+    private final IntBuffer units;
 
     /**
      * Create a new builder for this class
@@ -52,6 +84,59 @@ public final class Trie
         return new TrieBuilder();
     }
 
+    /**
+     * Load a trie from a file
+     *
+     * <p>The file is memory mapped, read only; the mapping remains valid for
+     * as long as the returned trie is reachable. The file must have been
+     * written by {@link #writeTo(Path)} and must not be modified afterwards.
+     * </p>
+     *
+     * @param path the path to the file
+     * @return the trie
+     * @throws IOException failed to read the file, or not a trie file
+     */
+    public static Trie load(@Nonnull final Path path)
+        throws IOException
+    {
+        Objects.requireNonNull(path);
+
+        final ByteBuffer buffer;
+
+        try (
+            final FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ);
+        ) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L,
+                channel.size());
+        }
+
+        return new Trie(path, buffer.asIntBuffer());
+    }
+
+    /**
+     * Load a trie from a file, throwing an unchecked exception on failure
+     *
+     * <p>This is the method used by {@link BaseParser#trie(Path)} and {@link
+     * BaseParser#trieIgnoreCase(Path)}. Note that rule methods cannot catch
+     * exceptions themselves, since their code is copied into the generated
+     * parser.</p>
+     *
+     * @param path the path to the file
+     * @return the trie
+     * @throws GrappaException failed to load the trie
+     *
+     * @see #load(Path)
+     */
+    public static Trie loadUnchecked(@Nonnull final Path path)
+    {
+        try {
+            return load(path);
+        } catch (IOException e) {
+            throw new GrappaException("failed to load trie", e);
+        }
+    }
+
     /**
      * Get the number of words injected into this trie
      *
@@ -72,21 +157,166 @@ public final class Trie
         return maxLength;
     }
 
+    /**
+     * Get the number of states of this trie
+     *
+     * <p>Each state uses two {@code int}s. Note that some states are unused;
+     * they are the holes left by the double array construction.</p>
+     *
+     * @return the number of states
+     */
+    public int getNrStates()
+    {
+        return units.limit() / 2;
+    }
+
+    /**
+     * Write this trie to a file
+     *
+     * <p>The file is created, or truncated if it exists. It can then be loaded
+     * with {@link #load(Path)}; for instance, to compile a dictionary offline:
+     * </p>
+     *
+     * <pre>
+     *     Trie.newBuilder().addWords(Files.readAllLines(wordList)).build()
+     *         .writeTo(trieFile);
+     * </pre>
+     *
+     * @param path the path to the file
+     * @throws IOException failed to write the file
+     */
+    public void writeTo(@Nonnull final Path path)
+        throws IOException
+    {
+        Objects.requireNonNull(path);
+
+        final char[] chars = alphabet.getChars();
+        final int size = units.limit();
+
+        try (
+            final OutputStream out = Files.newOutputStream(path);
+            final DataOutputStream data
+                = new DataOutputStream(new BufferedOutputStream(out));
+        ) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(nrWords);
+            data.writeInt(maxLength);
+            data.writeInt(chars.length);
+            data.writeInt(size / 2);
+            for (final char c: chars)
+                data.writeInt(c);
+            for (int i = 0; i < size; i++)
+                data.writeInt(units.get(i));
+        }
+    }
+
     /**
      * Search for a string into this trie
      *
      * @param needle the string to search
+     * @param ignoreCase whether the search should be case insensitive
      * @return the length of the match (ie, the string) or -1 if not found
      */
     public int search(final String needle, final boolean ignoreCase)
     {
-        return node.search(needle, ignoreCase);
+        return search(needle, 0, ignoreCase);
+    }
+
+    /**
+     * Search for the longest word of this trie at a given index of an input
+     *
+     * <p>When the search is case insensitive and a character of the input
+     * has no matching transition, the character in the other case is tried
+     * (if the character has a case).</p>
+     *
+     * @param input the input
+     * @param index the index in the input
+     * @param ignoreCase whether the search should be case insensitive
+     * @return the length of the match, or -1 if not found
+     */
+    public int search(final CharSequence input, final int index,
+        final boolean ignoreCase)
+    {
+        final int end = Math.min(input.length(), index + maxLength);
+
+        int state = 0;
+        int ret = -1;
+        int next;
+        char c;
+
+        for (int i = index; i < end; i++) {
+            c = input.charAt(i);
+            next = transition(state, c);
+            if (next == -1 && ignoreCase) {
+                final boolean isUpper = Character.isUpperCase(c);
+                final boolean isLower = Character.isLowerCase(c);
+                if (isUpper != isLower)
+                    next = transition(state, isUpper
+                        ? Character.toLowerCase(c) : Character.toUpperCase(c));
+            }
+            if (next == -1)
+                break;
+            state = next;
+            if ((units.get(2 * state) & DoubleArrayBuilder.TERMINAL) != 0)
+                ret = i - index + 1;
+        }
+
+        return ret;
     }
 
     Trie(final TrieBuilder builder)
     {
+        final List<String> words = builder.sortedWords();
+
         nrWords = builder.nrWords;
         maxLength = builder.maxLength;
-        node = builder.nodeBuilder.build();
+        alphabet = Alphabet.of(words);
+        units = IntBuffer.wrap(words.isEmpty() ? new int[] { 0, 0 }
+            : new DoubleArrayBuilder(words, alphabet).build());
+    }
+
+    private Trie(final Path path, final IntBuffer buffer)
+        throws IOException
+    {
+        final int size = buffer.limit();
+
+        if (size < HEADER_SIZE || buffer.get(0) != MAGIC)
+            throw new IOException(path + ": not a trie file");
+        if (buffer.get(1) != VERSION)
+            throw new IOException(path + ": unsupported trie file version "
+                + buffer.get(1));
+
+        nrWords = buffer.get(2);
+        maxLength = buffer.get(3);
+
+        final int alphabetSize = buffer.get(4);
+        final int nrStates = buffer.get(5);
+
+        if (alphabetSize < 0 || nrStates < 1 || (long) HEADER_SIZE
+            + alphabetSize + 2L * nrStates != size)
+            throw new IOException(path + ": corrupted trie file");
+
+        final char[] chars = new char[alphabetSize];
+        for (int i = 0; i < alphabetSize; i++)
+            chars[i] = (char) buffer.get(HEADER_SIZE + i);
+        alphabet = new Alphabet(chars);
+
+        buffer.position(HEADER_SIZE + alphabetSize);
+        units = buffer.slice();
+    }
+
+    private int transition(final int state, final char c)
+    {
+        final int code = alphabet.code(c);
+
+        if (code == 0)
+            return -1;
+
+        final int next = (units.get(2 * state) & DoubleArrayBuilder.BASE_MASK)
+            + code;
+
+        return 2 * next < units.limit() && units.get(2 * next + 1) == state
+            ? next : -1;
     }
 }
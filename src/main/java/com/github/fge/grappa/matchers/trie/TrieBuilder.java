@@ -17,6 +17,9 @@
 package com.github.fge.grappa.matchers.trie;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -28,8 +31,7 @@ public final class TrieBuilder
 {
     int nrWords = 0;
     int maxLength = 0;
-    final TrieNodeBuilder nodeBuilder
-        = new TrieNodeBuilder();
+    private final List<String> words = new ArrayList<>();
 
     TrieBuilder()
     {
@@ -53,7 +55,25 @@ public final class TrieBuilder
                 + "strings (use EMPTY instead)");
         nrWords++;
         maxLength = Math.max(maxLength, length);
-        nodeBuilder.addWord(word);
+        words.add(word);
+        return this;
+    }
+
+    /**
+     * Add all words of a collection to the trie
+     *
+     * <p>Building the trie is faster if the words are already sorted.</p>
+     *
+     * @param words the words
+     * @return this
+     * @throws IllegalArgumentException one of the words is empty
+     *
+     * @see #addWord(String)
+     */
+    public TrieBuilder addWords(@Nonnull final Iterable<String> words)
+    {
+        Objects.requireNonNull(words);
+        words.forEach(this::addWord);
         return this;
     }
 
@@ -61,4 +81,22 @@ public final class TrieBuilder
     {
         return new Trie(this);
     }
+
+    /*
+     * Words sorted, without duplicates. Sorting an already sorted list is
+     * linear.
+     */
+    List<String> sortedWords()
+    {
+        final List<String> ret = new ArrayList<>(words);
+
+        Collections.sort(ret);
+
+        int size = 0;
+        for (final String word: ret)
+            if (size == 0 || !word.equals(ret.get(size - 1)))
+                ret.set(size++, word);
+
+        return ret.subList(0, size);
+    }
 }
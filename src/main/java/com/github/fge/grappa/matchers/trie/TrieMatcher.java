@@ -62,24 +62,16 @@ public final class TrieMatcher
     public <V> boolean match(final MatcherContext<V> context)
     {
         /*
-         * Since the trie knows about the length of its possible longest match,
-         * extract that many characters from the buffer. Remind that .extract()
-         * will adjust illegal indices automatically.
+         * The trie searches directly into the buffer; its search stops, at
+         * the latest, after its maximum length.
          */
-        final int maxLength = trie.getMaxLength();
         final int index = context.getCurrentIndex();
-        final String input = context.getInputBuffer()
-            .extract(index, index + maxLength);
-
-        /*
-         * We now just have to trie and search... (pun intended)
-         */
-        final int ret = trie.search(input, false);
+        final int ret = trie.search(context.getInputBuffer(), index, false);
         if (ret == -1)
             return false;
 
         /*
-         * and since the result, when positive, is the length of the match,
+         * Since the result, when positive, is the length of the match,
          * advance the index in the buffer by that many positions.
          */
         context.advanceIndex(ret);
@@ -55,6 +55,14 @@ public final class ProxyMatcher
         return target.getChildren();
     }
 
+    @Override
+    public boolean modifiesValueStack()
+    {
+        if (dirty)
+            apply();
+        return target.modifiesValueStack();
+    }
+
     public void setLabel(final String label)
     {
         this.label = label;
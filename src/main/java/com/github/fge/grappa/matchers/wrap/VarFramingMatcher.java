@@ -20,25 +20,43 @@ import com.github.fge.grappa.matchers.MatcherType;
 import com.github.fge.grappa.matchers.base.Matcher;
 import com.github.fge.grappa.rules.Rule;
 import com.github.fge.grappa.run.context.MatcherContext;
-import com.github.fge.grappa.support.Var;
+import com.github.fge.grappa.support.FramedVar;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Special wrapping matcher that manages the creation and destruction of
  * execution frames for a number of action vars
  *
- * @see Var
+ * <p>If the wrapped rule is not recursive, it cannot be reentered while it
+ * runs; in this case, variables are only reset to their initial value each
+ * time the rule runs, and no frame is entered (their {@link
+ * FramedVar#getLevel() level} therefore stays at zero). Whether the rule is
+ * recursive is determined on first use, since proxies for recursive rules may
+ * not be armed when this matcher is built.</p>
+ *
+ * @see FramedVar
  */
 // TODO: use delegation pattern
 public final class VarFramingMatcher
     implements Matcher
 {
+    private static final int UNKNOWN = 0;
+    private static final int RECURSIVE = 1;
+    private static final int NOT_RECURSIVE = 2;
+
     private final Matcher inner;
-    private final Var<?>[] variables;
+    private final FramedVar[] variables;
 
-    public VarFramingMatcher(final Rule inner, final Var<?>[] variables)
+    private int recursion = UNKNOWN;
+
+    public VarFramingMatcher(final Rule inner, final FramedVar[] variables)
     {
         this.inner = Objects.requireNonNull((Matcher) inner, "inner");
         this.variables = Objects.requireNonNull(variables, "variables");
@@ -53,19 +71,59 @@ public final class VarFramingMatcher
     @Override
     public <V> boolean match(final MatcherContext<V> context)
     {
-        for (final Var<?> var: variables)
+        if (recursion == UNKNOWN)
+            recursion = isRecursive() ? RECURSIVE : NOT_RECURSIVE;
+
+        if (recursion == NOT_RECURSIVE) {
+            for (final FramedVar var: variables)
+                var.resetFrame();
+            return inner.match(context);
+        }
+
+        for (final FramedVar var: variables)
             var.enterFrame();
 
         final boolean matched = inner.match(context);
 
-        for (final Var<?> var : variables)
+        for (final FramedVar var : variables)
             var.exitFrame();
 
         return matched;
     }
 
+    /*
+     * The rule is recursive if a framing matcher for the same variables (this
+     * one, or a relabelled copy) can be reached from the inner matcher
+     */
+    private boolean isRecursive()
+    {
+        final Set<Matcher> seen
+            = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Matcher> toVisit = new ArrayDeque<>(inner.getChildren());
+
+        Matcher current;
+
+        while (!toVisit.isEmpty()) {
+            current = ProxyMatcher.unwrap(toVisit.pop());
+            if (!seen.add(current))
+                continue;
+            if (current instanceof VarFramingMatcher
+                && ((VarFramingMatcher) current).variables == variables)
+                return true;
+            current.getChildren().forEach(toVisit::push);
+        }
+
+        return false;
+    }
+
     // GraphNode
 
+    @Override
+    public boolean modifiesValueStack()
+    {
+        return inner.modifiesValueStack();
+    }
+
     @Override
     public List<Matcher> getChildren()
     {
@@ -16,16 +16,25 @@
 
 package com.github.fge.grappa.parsers;
 
+import com.github.fge.grappa.annotations.PureAction;
 import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.buffers.InputBufferView;
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.exceptions.GrappaException;
 import com.github.fge.grappa.exceptions.InvalidGrammarException;
 import com.github.fge.grappa.rules.Action;
 import com.github.fge.grappa.run.context.Context;
 import com.github.fge.grappa.run.context.ContextAware;
+import com.github.fge.grappa.stack.PrimitiveValueStack;
 import com.github.fge.grappa.stack.ValueStack;
+import com.github.fge.grappa.support.CharSequences;
 import com.github.fge.grappa.support.IndexRange;
 import com.github.fge.grappa.support.Position;
+import com.github.fge.grappa.support.StringBuilderVar;
+import com.github.fge.grappa.symbols.SymbolTable;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 /**
@@ -71,6 +80,7 @@ public abstract class BaseActions<V>
      *
      * @return the current index
      */
+    @PureAction
     public final int currentIndex()
     {
         check();
@@ -86,12 +96,167 @@ public abstract class BaseActions<V>
      *
      * @return the input text matched by the immediately previous rule
      */
+    @PureAction
     public String match()
     {
         check();
         return context.getMatch();
     }
 
+    /**
+     * Return a view over the input text matched by the immediately preceding
+     * rule
+     *
+     * <p>The same restrictions as {@link #match()} apply. No characters are
+     * copied; this is the method to use when the matched text only needs to
+     * be compared, hashed or otherwise inspected.</p>
+     *
+     * @return a view over the matched text
+     *
+     * @see InputBufferView
+     */
+    @PureAction
+    public InputBufferView matchView()
+    {
+        check();
+        return context.getMatchView();
+    }
+
+    /**
+     * Return the canonical string for the input text matched by the
+     * immediately preceding rule
+     *
+     * <p>The same restrictions as {@link #match()} apply. If the text is
+     * already in the table, no string is created. Over a {@link
+     * TokenInputBuffer}, the symbol is that of the source text of the matched
+     * tokens.</p>
+     *
+     * @param table the symbol table
+     * @return the canonical string
+     *
+     * @see SymbolTable#symbol(CharSequence, int, int)
+     */
+    @PureAction
+    public String matchSymbol(@Nonnull final SymbolTable table)
+    {
+        check();
+        final InputBufferView text = tokenText();
+        if (text != null)
+            return table.symbol(text, 0, text.length());
+        return table.symbol(context.getInputBuffer(),
+            context.getMatchStartIndex(), context.getMatchEndIndex());
+    }
+
+    /**
+     * Return the symbol id of the input text matched by the immediately
+     * preceding rule
+     *
+     * <p>The same restrictions as {@link #matchSymbol(SymbolTable)} apply.
+     * </p>
+     *
+     * @param table the symbol table
+     * @return the symbol id
+     *
+     * @see SymbolTable#symbolId(CharSequence, int, int)
+     */
+    @PureAction
+    public int matchSymbolId(@Nonnull final SymbolTable table)
+    {
+        check();
+        final InputBufferView text = tokenText();
+        if (text != null)
+            return table.symbolId(text, 0, text.length());
+        return table.symbolId(context.getInputBuffer(),
+            context.getMatchStartIndex(), context.getMatchEndIndex());
+    }
+
+    /**
+     * Append the input text matched by the immediately preceding rule to a
+     * {@link StringBuilderVar}
+     *
+     * <p>The same restrictions as {@link #match()} apply. Characters are
+     * copied directly from the input buffer; no intermediate {@link String} is
+     * created.</p>
+     *
+     * @param var the variable
+     * @return true
+     */
+    public boolean appendMatch(@Nonnull final StringBuilderVar var)
+    {
+        check();
+        return var.append(context.getInputBuffer(),
+            context.getMatchStartIndex(), context.getMatchEndIndex());
+    }
+
+    /**
+     * Return the input text matched by the immediately preceding rule as an
+     * int
+     *
+     * <p>The same restrictions as {@link #match()} apply. The value is parsed
+     * directly from the input buffer (from the source text of the matched
+     * tokens over a {@link TokenInputBuffer}).</p>
+     *
+     * @return the value
+     *
+     * @throws NumberFormatException the matched text is not a valid int
+     *
+     * @see CharSequences#parseInt(CharSequence, int, int)
+     */
+    @PureAction
+    public int matchAsInt()
+    {
+        check();
+        final InputBufferView text = tokenText();
+        if (text != null)
+            return CharSequences.parseInt(text, 0, text.length());
+        return CharSequences.parseInt(context.getInputBuffer(),
+            context.getMatchStartIndex(), context.getMatchEndIndex());
+    }
+
+    /**
+     * Return the input text matched by the immediately preceding rule as a
+     * long
+     *
+     * @return the value
+     *
+     * @throws NumberFormatException the matched text is not a valid long
+     *
+     * @see #matchAsInt()
+     * @see CharSequences#parseLong(CharSequence, int, int)
+     */
+    @PureAction
+    public long matchAsLong()
+    {
+        check();
+        final InputBufferView text = tokenText();
+        if (text != null)
+            return CharSequences.parseLong(text, 0, text.length());
+        return CharSequences.parseLong(context.getInputBuffer(),
+            context.getMatchStartIndex(), context.getMatchEndIndex());
+    }
+
+    /**
+     * Return the input text matched by the immediately preceding rule as a
+     * double
+     *
+     * @return the value
+     *
+     * @throws NumberFormatException the matched text is not a valid double
+     *
+     * @see #matchAsInt()
+     * @see CharSequences#parseDouble(CharSequence, int, int)
+     */
+    @PureAction
+    public double matchAsDouble()
+    {
+        check();
+        final InputBufferView text = tokenText();
+        if (text != null)
+            return CharSequences.parseDouble(text, 0, text.length());
+        return CharSequences.parseDouble(context.getInputBuffer(),
+            context.getMatchStartIndex(), context.getMatchEndIndex());
+    }
+
     /**
      * Returns the range covering the input text matched by the immediately
      * preceding rule
@@ -102,6 +267,7 @@ public abstract class BaseActions<V>
      *
      * @return a new IndexRange instance
      */
+    @PureAction
     public IndexRange matchRange()
     {
         check();
@@ -117,6 +283,7 @@ public abstract class BaseActions<V>
      *
      * @return see description
      */
+    @PureAction
     public int matchStart()
     {
         check();
@@ -136,6 +303,7 @@ public abstract class BaseActions<V>
      *
      * @return see description
      */
+    @PureAction
     public int matchEnd()
     {
         check();
@@ -148,12 +316,30 @@ public abstract class BaseActions<V>
      *
      * @return the current position in the underlying inputbuffer
      */
+    @PureAction
     public Position position()
     {
         check();
         return context.getPosition();
     }
 
+    /**
+     * Returns the current position in the underlying {@link InputBuffer} in
+     * packed form
+     *
+     * <p>Unlike {@link #position()}, this does not allocate a {@link Position}
+     * instance; use {@link Position#lineOf(long)} and {@link
+     * Position#columnOf(long)} to read the line and column.</p>
+     *
+     * @return the current position, packed
+     */
+    @PureAction
+    public long packedPosition()
+    {
+        check();
+        return context.getPackedPosition();
+    }
+
     /**
      * Pushes the given value onto the value stack
      *
@@ -292,6 +478,7 @@ public abstract class BaseActions<V>
      *
      * @throws IllegalArgumentException if the stack is empty
      */
+    @PureAction
     public V peek()
     {
         check();
@@ -308,6 +495,7 @@ public abstract class BaseActions<V>
      *
      * @see #peek()
      */
+    @PureAction
     public <E extends V> E peekAs(final Class<E> c)
     {
         return c.cast(peek());
@@ -324,6 +512,7 @@ public abstract class BaseActions<V>
      * @throws IllegalArgumentException the stack does not contain enough
      * elements to perform this operation
      */
+    @PureAction
     public V peek(final int down)
     {
         check();
@@ -342,6 +531,7 @@ public abstract class BaseActions<V>
      *
      * @see #peek(int)
      */
+    @PureAction
     public <E extends V> E peekAs(final Class<E> c, final int down)
     {
         return c.cast(peek(down));
@@ -428,11 +618,216 @@ public abstract class BaseActions<V>
         return true;
     }
 
+    /**
+     * Pushes an int value onto the primitive lane of the value stack
+     *
+     * @param value the value
+     * @return always true
+     *
+     * @see PrimitiveValueStack
+     */
+    public boolean pushInt(final int value)
+    {
+        check();
+        primitiveStack().pushInt(value);
+        return true;
+    }
+
+    /**
+     * Removes the top value of the primitive lane of the value stack, as an
+     * int
+     *
+     * @return the value
+     * @throws IllegalStateException the lane is empty
+     */
+    public int popInt()
+    {
+        return popInt(0);
+    }
+
+    /**
+     * Removes a value from the primitive lane of the value stack, as an int
+     *
+     * @param down the depth of the value
+     * @return the value
+     * @throws IllegalStateException the lane does not contain enough values
+     */
+    public int popInt(final int down)
+    {
+        check();
+        return primitiveStack().popInt(down);
+    }
+
+    /**
+     * Returns the top value of the primitive lane of the value stack, as an
+     * int, without removing it
+     *
+     * @return the value
+     * @throws IllegalStateException the lane is empty
+     */
+    @PureAction
+    public int peekInt()
+    {
+        return peekInt(0);
+    }
+
+    /**
+     * Returns a value from the primitive lane of the value stack, as an int,
+     * without removing it
+     *
+     * @param down the depth of the value
+     * @return the value
+     * @throws IllegalStateException the lane does not contain enough values
+     */
+    @PureAction
+    public int peekInt(final int down)
+    {
+        check();
+        return primitiveStack().peekInt(down);
+    }
+
+    /**
+     * Pushes a long value onto the primitive lane of the value stack
+     *
+     * @param value the value
+     * @return always true
+     *
+     * @see PrimitiveValueStack
+     */
+    public boolean pushLong(final long value)
+    {
+        check();
+        primitiveStack().pushLong(value);
+        return true;
+    }
+
+    /**
+     * Removes the top value of the primitive lane of the value stack, as a
+     * long
+     *
+     * @return the value
+     * @throws IllegalStateException the lane is empty
+     */
+    public long popLong()
+    {
+        return popLong(0);
+    }
+
+    /**
+     * Removes a value from the primitive lane of the value stack, as a long
+     *
+     * @param down the depth of the value
+     * @return the value
+     * @throws IllegalStateException the lane does not contain enough values
+     */
+    public long popLong(final int down)
+    {
+        check();
+        return primitiveStack().popLong(down);
+    }
+
+    /**
+     * Returns the top value of the primitive lane of the value stack, as a
+     * long, without removing it
+     *
+     * @return the value
+     * @throws IllegalStateException the lane is empty
+     */
+    @PureAction
+    public long peekLong()
+    {
+        return peekLong(0);
+    }
+
+    /**
+     * Returns a value from the primitive lane of the value stack, as a long,
+     * without removing it
+     *
+     * @param down the depth of the value
+     * @return the value
+     * @throws IllegalStateException the lane does not contain enough values
+     */
+    @PureAction
+    public long peekLong(final int down)
+    {
+        check();
+        return primitiveStack().peekLong(down);
+    }
+
+    /**
+     * Pushes a double value onto the primitive lane of the value stack
+     *
+     * @param value the value
+     * @return always true
+     *
+     * @see PrimitiveValueStack
+     */
+    public boolean pushDouble(final double value)
+    {
+        check();
+        primitiveStack().pushDouble(value);
+        return true;
+    }
+
+    /**
+     * Removes the top value of the primitive lane of the value stack, as a
+     * double
+     *
+     * @return the value
+     * @throws IllegalStateException the lane is empty
+     */
+    public double popDouble()
+    {
+        return popDouble(0);
+    }
+
+    /**
+     * Removes a value from the primitive lane of the value stack, as a double
+     *
+     * @param down the depth of the value
+     * @return the value
+     * @throws IllegalStateException the lane does not contain enough values
+     */
+    public double popDouble(final int down)
+    {
+        check();
+        return primitiveStack().popDouble(down);
+    }
+
+    /**
+     * Returns the top value of the primitive lane of the value stack, as a
+     * double, without removing it
+     *
+     * @return the value
+     * @throws IllegalStateException the lane is empty
+     */
+    @PureAction
+    public double peekDouble()
+    {
+        return peekDouble(0);
+    }
+
+    /**
+     * Returns a value from the primitive lane of the value stack, as a double,
+     * without removing it
+     *
+     * @param down the depth of the value
+     * @return the value
+     * @throws IllegalStateException the lane does not contain enough values
+     */
+    @PureAction
+    public double peekDouble(final int down)
+    {
+        check();
+        return primitiveStack().peekDouble(down);
+    }
+
     /**
      * Check whether the end of input has been reached by the current context
      *
      * @return true if the end of the input has been reached
      */
+    @PureAction
     public boolean atEnd()
     {
         check();
@@ -447,6 +842,7 @@ public abstract class BaseActions<V>
      *
      * @return the next input character about to be matched
      */
+    @PureAction
     public Character currentChar()
     {
         check();
@@ -466,6 +862,7 @@ public abstract class BaseActions<V>
      *
      * @return true if in a predicate
      */
+    @PureAction
     public boolean inPredicate()
     {
         check();
@@ -478,12 +875,36 @@ public abstract class BaseActions<V>
      * @return true if either the current rule or a sub rule has recorded a
      * parse error
      */
+    @PureAction
     public boolean hasError()
     {
         check();
         return context.hasError();
     }
 
+    private PrimitiveValueStack primitiveStack()
+    {
+        final ValueStack<V> stack = context.getValueStack();
+
+        if (!(stack instanceof PrimitiveValueStack))
+            throw new GrappaException("value stack does not support"
+                + " primitive values (" + stack.getClass().getName() + ')');
+
+        return (PrimitiveValueStack) stack;
+    }
+
+    /*
+     * The characters of a token buffer are token kinds, not text: the text
+     * matched over such a buffer is read from its source, through a view.
+     * Returns null for all other buffers, whose matched text is read in place.
+     */
+    @Nullable
+    private InputBufferView tokenText()
+    {
+        return context.getInputBuffer() instanceof TokenInputBuffer
+            ? context.getMatchView() : null;
+    }
+
     // TODO: pain point here
     private void check()
     {
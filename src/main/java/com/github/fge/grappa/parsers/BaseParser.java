@@ -20,6 +20,9 @@ import com.github.fge.grappa.annotations.Cached;
 import com.github.fge.grappa.annotations.DontExtend;
 import com.github.fge.grappa.annotations.DontLabel;
 import com.github.fge.grappa.annotations.SkipActionsInPredicates;
+import com.github.fge.grappa.buffers.ByteInputBuffer;
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.exceptions.GrappaException;
 import com.github.fge.grappa.exceptions.InvalidGrammarException;
 import com.github.fge.grappa.matchers.ActionMatcher;
 import com.github.fge.grappa.matchers.AnyMatcher;
@@ -33,11 +36,24 @@ import com.github.fge.grappa.matchers.NothingMatcher;
 import com.github.fge.grappa.matchers.RegexMatcher;
 import com.github.fge.grappa.matchers.StringIgnoreCaseMatcher;
 import com.github.fge.grappa.matchers.StringMatcher;
+import com.github.fge.grappa.matchers.TokenMatcher;
+import com.github.fge.grappa.matchers.bytes.ByteMatcher;
+import com.github.fge.grappa.matchers.bytes.ByteRangeMatcher;
+import com.github.fge.grappa.matchers.bytes.ByteSequenceMatcher;
+import com.github.fge.grappa.matchers.bytes.TakeMatcher;
+import com.github.fge.grappa.matchers.bytes.UnsignedIntegerMatcher;
 import com.github.fge.grappa.matchers.delegate.FirstOfMatcher;
 import com.github.fge.grappa.matchers.delegate.OptionalMatcher;
 import com.github.fge.grappa.matchers.delegate.SequenceMatcher;
+import com.github.fge.grappa.matchers.delegate.TriviaMatcher;
+import com.github.fge.grappa.matchers.expression.ExpressionMatcher;
+import com.github.fge.grappa.matchers.expression.ExpressionMatcherBuilder;
 import com.github.fge.grappa.matchers.join.JoinMatcherBootstrap;
 import com.github.fge.grappa.matchers.join.JoinMatcherBuilder;
+import com.github.fge.grappa.matchers.numbers.DecimalMatcher;
+import com.github.fge.grappa.matchers.numbers.FloatingPointMatcher;
+import com.github.fge.grappa.matchers.numbers.HexIntegerMatcher;
+import com.github.fge.grappa.matchers.numbers.IntegerMatcher;
 import com.github.fge.grappa.matchers.predicates.TestMatcher;
 import com.github.fge.grappa.matchers.predicates.TestNotMatcher;
 import com.github.fge.grappa.matchers.repeat.RepeatMatcherBuilder;
@@ -45,16 +61,19 @@ import com.github.fge.grappa.matchers.trie.CaseInsensitiveTrieMatcher;
 import com.github.fge.grappa.matchers.trie.Trie;
 import com.github.fge.grappa.matchers.trie.TrieBuilder;
 import com.github.fge.grappa.matchers.trie.TrieMatcher;
-import com.github.fge.grappa.matchers.trie.TrieNode;
 import com.github.fge.grappa.matchers.unicode.CodePointMatcher;
 import com.github.fge.grappa.matchers.unicode.CodePointRangeMatcher;
 import com.github.fge.grappa.rules.Action;
 import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.Lexer;
 import com.github.fge.grappa.support.Characters;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -261,7 +280,7 @@ public abstract class BaseParser<V>
     public Rule anyOf(final Characters characters)
     {
         Objects.requireNonNull(characters);
-        if (!characters.isSubtractive() && characters.getChars().length == 1)
+        if (characters.size() == 1)
             return ch(characters.getChars()[0]);
         if (characters.equals(Characters.NONE))
             return NOTHING;
@@ -517,7 +536,7 @@ public abstract class BaseParser<V>
      * @return a rule
      *
      * @see TrieMatcher
-     * @see TrieNode
+     * @see Trie
      */
     /*
      * TODO:
@@ -551,7 +570,7 @@ public abstract class BaseParser<V>
      * @return a rule
      *
      * @see TrieMatcher
-     * @see TrieNode
+     * @see Trie
      */
     public Rule trie(final String first, final String second,
         final String... others)
@@ -562,6 +581,27 @@ public abstract class BaseParser<V>
         return trie(words);
     }
 
+    /**
+     * Match one string among many using a <a
+     * href="http://en.wikipedia.org/wiki/Trie" target="_blank">trie</a> stored
+     * in a file
+     *
+     * <p>The file must have been written using {@link Trie#writeTo(Path)}; it
+     * is memory mapped, so loading it does not require rebuilding the trie.
+     * Matching behaves exactly as with {@link #trie(Collection)}.</p>
+     *
+     * @param path the path to the trie file
+     * @return a rule
+     * @throws GrappaException failed to load the trie
+     *
+     * @see Trie#loadUnchecked(Path)
+     */
+    @Cached
+    public Rule trie(final Path path)
+    {
+        return new TrieMatcher(Trie.loadUnchecked(path));
+    }
+
     /**
      * Match one string among many using a <a
      * href="http://en.wikipedia.org/wiki/Trie" target="_blank">trie</a>, case
@@ -617,6 +657,345 @@ public abstract class BaseParser<V>
         return trieIgnoreCase(words);
     }
 
+    /**
+     * Match one string among many using a <a
+     * href="http://en.wikipedia.org/wiki/Trie" target="_blank">trie</a> stored
+     * in a file, case insensitive version
+     *
+     * <p>See {@link #trie(Path)}; matching behaves exactly as with {@link
+     * #trieIgnoreCase(Collection)}.</p>
+     *
+     * @param path the path to the trie file
+     * @return a rule
+     * @throws GrappaException failed to load the trie
+     *
+     * @see Trie#loadUnchecked(Path)
+     */
+    @Cached
+    public Rule trieIgnoreCase(final Path path)
+    {
+        return new CaseInsensitiveTrieMatcher(Trie.loadUnchecked(path));
+    }
+
+    /*
+     * BINARY RULES
+     *
+     * These rules are meant to be used with a ByteInputBuffer, which presents
+     * each byte of input as a char between 0x00 and 0xff.
+     */
+
+    /**
+     * Match one given byte
+     *
+     * <p>The value can be given either signed ({@code -128} to {@code 127})
+     * or unsigned ({@code 0} to {@code 255}); that is, {@code singleByte(-1)}
+     * and {@code singleByte(0xff)} are equivalent.</p>
+     *
+     * @param b the byte value
+     * @return a rule
+     *
+     * @see ByteInputBuffer
+     */
+    @Cached
+    @DontLabel
+    public Rule singleByte(final int b)
+    {
+        return new ByteMatcher(b);
+    }
+
+    /**
+     * Match one byte out of a range of byte values
+     *
+     * <p>Bounds are inclusive and follow the same rules as for {@link
+     * #singleByte(int)}; once converted to their unsigned value, the lower
+     * bound must be less than, or equal to, the upper bound.</p>
+     *
+     * @param low the lower bound
+     * @param high the upper bound
+     * @return a rule
+     */
+    @Cached
+    @DontLabel
+    public Rule byteRange(final int low, final int high)
+    {
+        final int realLow = ByteMatcher.toUnsignedByte(low);
+        final int realHigh = ByteMatcher.toUnsignedByte(high);
+        Preconditions.checkArgument(realLow <= realHigh,
+            "illegal byte range");
+        return realLow == realHigh ? new ByteMatcher(realLow)
+            : new ByteRangeMatcher(realLow, realHigh);
+    }
+
+    /**
+     * Match a fixed sequence of bytes
+     *
+     * @param bytes the bytes
+     * @return a rule
+     */
+    @Cached
+    @DontLabel
+    public Rule bytes(final byte... bytes)
+    {
+        Objects.requireNonNull(bytes);
+        if (bytes.length == 1)
+            return singleByte(bytes[0]);
+        return new ByteSequenceMatcher(bytes);
+    }
+
+    /**
+     * Match one byte and push its unsigned value as an {@link Integer}
+     *
+     * @return a rule
+     *
+     * @see UnsignedIntegerMatcher
+     */
+    @DontLabel
+    public Rule u8()
+    {
+        return new UnsignedIntegerMatcher(1, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Match two bytes and push their big endian unsigned value as an {@link
+     * Integer}
+     *
+     * @return a rule
+     *
+     * @see UnsignedIntegerMatcher
+     */
+    @DontLabel
+    public Rule u16be()
+    {
+        return new UnsignedIntegerMatcher(2, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Match two bytes and push their little endian unsigned value as an {@link
+     * Integer}
+     *
+     * @return a rule
+     *
+     * @see UnsignedIntegerMatcher
+     */
+    @DontLabel
+    public Rule u16le()
+    {
+        return new UnsignedIntegerMatcher(2, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Match four bytes and push their big endian unsigned value as a {@link
+     * Long}
+     *
+     * @return a rule
+     *
+     * @see UnsignedIntegerMatcher
+     */
+    @DontLabel
+    public Rule u32be()
+    {
+        return new UnsignedIntegerMatcher(4, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Match four bytes and push their little endian unsigned value as a {@link
+     * Long}
+     *
+     * @return a rule
+     *
+     * @see UnsignedIntegerMatcher
+     */
+    @DontLabel
+    public Rule u32le()
+    {
+        return new UnsignedIntegerMatcher(4, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Consume a fixed number of bytes (or characters)
+     *
+     * @param count the number of bytes
+     * @return a rule
+     *
+     * @see TakeMatcher
+     */
+    @Cached
+    @DontLabel
+    public Rule take(final int count)
+    {
+        return new TakeMatcher(count);
+    }
+
+    /**
+     * Consume a number of bytes (or characters) given by the value on top of
+     * the stack
+     *
+     * <p>The value on top of the stack must be a {@link Number}; it is popped
+     * if, and only if, this rule succeeds. Combined with, for instance, {@link
+     * #u16be()}, this allows to match length prefixed fields:</p>
+     *
+     * <pre>
+     *     return sequence(u16be(), take());
+     * </pre>
+     *
+     * @return a rule
+     *
+     * @see TakeMatcher
+     */
+    @DontLabel
+    public Rule take()
+    {
+        return new TakeMatcher();
+    }
+
+    /**
+     * Match a decimal integer
+     *
+     * <p>The syntax is an optional minus sign followed by one or more
+     * digits.</p>
+     *
+     * @return a rule
+     *
+     * @see IntegerMatcher
+     */
+    @DontLabel
+    public Rule integer()
+    {
+        return new IntegerMatcher(false);
+    }
+
+    /**
+     * Match a decimal integer and push its value as a {@link Long}
+     *
+     * <p>The value is computed while matching, without extracting the text;
+     * literals whose value does not fit into a {@link Long} do not match.</p>
+     *
+     * @return a rule
+     *
+     * @see #integer()
+     */
+    @DontLabel
+    public Rule pushInteger()
+    {
+        return new IntegerMatcher(true);
+    }
+
+    /**
+     * Match a hexadecimal integer
+     *
+     * <p>The syntax is {@code 0x} or {@code 0X} followed by one or more
+     * hexadecimal digits.</p>
+     *
+     * @return a rule
+     *
+     * @see HexIntegerMatcher
+     */
+    @DontLabel
+    public Rule hexInteger()
+    {
+        return new HexIntegerMatcher(false);
+    }
+
+    /**
+     * Match a hexadecimal integer and push its value as a {@link Long}
+     *
+     * <p>The value is computed while matching, without extracting the text;
+     * literals of more than 64 significant bits do not match. Values above
+     * {@link Long#MAX_VALUE} are pushed as negative values, as {@link
+     * Long#parseUnsignedLong(String, int)} does.</p>
+     *
+     * @return a rule
+     *
+     * @see #hexInteger()
+     */
+    @DontLabel
+    public Rule pushHexInteger()
+    {
+        return new HexIntegerMatcher(true);
+    }
+
+    /**
+     * Match a decimal number
+     *
+     * <p>The syntax is an integer optionally followed by a dot and one or
+     * more digits.</p>
+     *
+     * @return a rule
+     *
+     * @see DecimalMatcher
+     */
+    @DontLabel
+    public Rule decimal()
+    {
+        return new DecimalMatcher(false);
+    }
+
+    /**
+     * Match a decimal number and push its value as a {@link BigDecimal}
+     *
+     * <p>The unscaled value is computed while matching; the text is only
+     * extracted if it does not fit into a long.</p>
+     *
+     * @return a rule
+     *
+     * @see #decimal()
+     */
+    @DontLabel
+    public Rule pushDecimal()
+    {
+        return new DecimalMatcher(true);
+    }
+
+    /**
+     * Match a floating point number
+     *
+     * <p>The syntax is a decimal number optionally followed by an exponent.</p>
+     *
+     * @return a rule
+     *
+     * @see FloatingPointMatcher
+     */
+    @DontLabel
+    public Rule floatingPoint()
+    {
+        return new FloatingPointMatcher(false);
+    }
+
+    /**
+     * Match a floating point number and push its value as a {@link Double}
+     *
+     * <p>The value is computed while matching, without extracting the text
+     * (except for literals with many significant digits); literals whose value
+     * is too large for a {@link Double} do not match.</p>
+     *
+     * @return a rule
+     *
+     * @see #floatingPoint()
+     */
+    @DontLabel
+    public Rule pushFloatingPoint()
+    {
+        return new FloatingPointMatcher(true);
+    }
+
+    /**
+     * Match one token of a given kind
+     *
+     * <p>This rule is meant to be used when parsing over a {@link
+     * TokenInputBuffer}, as produced by a {@link Lexer}.</p>
+     *
+     * @param kind the token kind
+     * @return a rule
+     *
+     * @see TokenMatcher
+     */
+    @Cached
+    @DontLabel
+    public Rule token(final int kind)
+    {
+        return new TokenMatcher(kind);
+    }
+
     /*
      * "DELEGATING" RULES
      *
@@ -653,6 +1032,11 @@ public abstract class BaseParser<V>
      *
      * <p>When one rule matches, all others are ignored.</p>
      *
+     * <p>If all rules are single character rules (such as {@link #ch(char)},
+     * {@link #charRange(char, char)} or {@link #anyOf(String)}), they are
+     * collapsed into a single {@link #anyOf(Characters)} over the union of
+     * their characters.</p>
+     *
      * @param rules the subrules
      * @return a rule
      */
@@ -665,10 +1049,16 @@ public abstract class BaseParser<V>
             return toRule(rules[0]);
 
         final Collection<String> strings = new ArrayList<>();
+        final Rule[] subRules;
+        final Characters characters;
 
         for (final Object object: rules) {
-            if (!(object instanceof String))
-                return new FirstOfMatcher(toRules(rules));
+            if (!(object instanceof String)) {
+                subRules = toRules(rules);
+                characters = AnyOfMatcher.unionOf(subRules);
+                return characters != null ? anyOf(characters)
+                    : new FirstOfMatcher(subRules);
+            }
             strings.add((String) object);
         }
 
@@ -711,6 +1101,71 @@ public abstract class BaseParser<V>
         return repeat(rule, rule2, moreRules).min(1);
     }
 
+    /**
+     * The trivia of this grammar (whitespace, comments...)
+     *
+     * <p>By default, there are none; override this rule to define them, for
+     * instance:</p>
+     *
+     * <pre>
+     *     &#64;Override
+     *     public Rule trivia()
+     *     {
+     *         return zeroOrMore(firstOf(wsp(), comment()));
+     *     }
+     * </pre>
+     *
+     * <p>This rule must only depend on the input: it should neither run
+     * actions nor push values.</p>
+     *
+     * @return a rule
+     *
+     * @see #skipTrivia()
+     * @see #lexeme(Object)
+     */
+    public Rule trivia()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Skip the trivia of this grammar, if any
+     *
+     * <p>This rule always succeeds. The end of the trivia at a given position
+     * is cached, so that backtracking never scans the same trivia twice.</p>
+     *
+     * @return a rule
+     *
+     * @see #trivia()
+     * @see TriviaMatcher
+     */
+    @DontLabel
+    public Rule skipTrivia()
+    {
+        final Rule trivia = trivia();
+        return trivia instanceof EmptyMatcher ? EMPTY
+            : new TriviaMatcher(trivia);
+    }
+
+    /**
+     * Match a rule, then skip the trivia which follows it
+     *
+     * <p>Wrap the terminals of a grammar (keywords, operators, literals...)
+     * into this rule instead of writing a spacing rule after each of them.
+     * </p>
+     *
+     * @param rule the subrule
+     * @return a rule
+     *
+     * @see #trivia()
+     */
+    @Cached
+    @DontLabel
+    public Rule lexeme(final Object rule)
+    {
+        return sequence(rule, skipTrivia());
+    }
+
     /**
      * Try and match a rule zero or one time
      *
@@ -822,6 +1277,32 @@ public abstract class BaseParser<V>
         return join(sequence(rule, rule2, moreRules));
     }
 
+    /**
+     * Kickstart an operator expression rule
+     *
+     * <p>Usage:</p>
+     *
+     * <pre>
+     *     return expression(operand())
+     *         .prefix('-', 30, ACTION(negate()))
+     *         .infix('+', 10, Associativity.LEFT, ACTION(add()))
+     *         .postfix('!', 40, ACTION(factorial()))
+     *         .build();
+     * </pre>
+     *
+     * <p>See {@link ExpressionMatcher} for the matching semantics.</p>
+     *
+     * @param operand the operand rule
+     * @return a builder
+     *
+     * @see ExpressionMatcherBuilder
+     */
+    @DontLabel
+    public final ExpressionMatcherBuilder<V> expression(final Object operand)
+    {
+        return new ExpressionMatcherBuilder<>(this, toRule(operand));
+    }
+
     /**
      * Kickstart a repeat rule
      *
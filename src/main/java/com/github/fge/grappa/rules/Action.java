@@ -16,6 +16,7 @@
 
 package com.github.fge.grappa.rules;
 
+import com.github.fge.grappa.annotations.PureAction;
 import com.github.fge.grappa.parsers.BaseActions;
 import com.github.fge.grappa.run.context.Context;
 import com.github.fge.grappa.run.context.ContextAware;
@@ -42,6 +43,9 @@ import com.github.fge.grappa.run.context.ContextAware;
  * parser rule definitions, even when they access context-sensitive methods
  * defined in parser classes.</p>
  *
+ * <p>Implementations which never modify the value stack can be annotated with
+ * {@link PureAction}.</p>
+ *
  * @see BaseActions#match()
  */
 @FunctionalInterface
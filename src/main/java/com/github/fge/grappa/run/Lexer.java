@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.run;
+
+import com.github.fge.grappa.buffers.CharSequenceInputBuffer;
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.matchers.EmptyMatcher;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.run.context.DefaultMatcherContext;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.stack.ReverseArrayValueStack;
+import com.github.fge.grappa.stack.ValueStack;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A lexer splitting an input buffer into tokens
+ *
+ * <p>A lexer is built from two sets of rules (see {@link LexerBuilder}):
+ * <em>skip rules</em>, which match text to ignore (whitespace, comments...),
+ * and <em>token rules</em>, each associated to a token kind. At each position
+ * of the input, the lexer proceeds as follows:</p>
+ *
+ * <ul>
+ *     <li>if a skip rule matches, the matched text is skipped (skip rules are
+ *     tried in declaration order);</li>
+ *     <li>otherwise, the token rule with the longest match produces a token;
+ *     in the event of a tie, the rule declared first wins (which means that
+ *     keywords should be declared before identifiers);</li>
+ *     <li>if no rule matches, a one character token of kind {@link
+ *     TokenInputBuffer#UNKNOWN} is produced.</li>
+ * </ul>
+ *
+ * <p>Rules which match empty text are treated as if they had failed. Values
+ * pushed by token or skip rules, if any, are discarded.</p>
+ *
+ * <p>The result is a {@link TokenInputBuffer}; a parser can then run over it
+ * using {@code token()} rules, and backtracking only ever rewinds an index
+ * into the token array.</p>
+ *
+ * <p>Lexers are immutable and can be reused to tokenize several inputs, in
+ * parallel if need be.</p>
+ */
+@Immutable
+public final class Lexer
+{
+    private static final int STRIDE = 3;
+    private static final int INITIAL_SIZE = 64;
+
+    private static final MatchHandler HANDLER = new MatchHandler()
+    {
+        @Override
+        public <V> boolean match(final MatcherContext<V> context)
+        {
+            return context.getMatcher().match(context);
+        }
+    };
+
+    private final Matcher[] skipRules;
+    private final Matcher[] tokenRules;
+    private final int[] kinds;
+
+    /**
+     * Create a new lexer builder
+     *
+     * @return a builder
+     */
+    public static LexerBuilder newBuilder()
+    {
+        return new LexerBuilder();
+    }
+
+    Lexer(final Matcher[] skipRules, final Matcher[] tokenRules,
+        final int[] kinds)
+    {
+        this.skipRules = skipRules;
+        this.tokenRules = tokenRules;
+        this.kinds = kinds;
+    }
+
+    /**
+     * Tokenize a character sequence
+     *
+     * @param input the input
+     * @return a token buffer
+     */
+    public TokenInputBuffer tokenize(@Nonnull final CharSequence input)
+    {
+        Objects.requireNonNull(input);
+        return tokenize(new CharSequenceInputBuffer(input));
+    }
+
+    /**
+     * Tokenize an input buffer
+     *
+     * @param buffer the input buffer
+     * @return a token buffer
+     */
+    public TokenInputBuffer tokenize(@Nonnull final InputBuffer buffer)
+    {
+        Objects.requireNonNull(buffer);
+
+        final ValueStack<Object> stack = new ReverseArrayValueStack<>();
+        final MatcherContext<Object> context = new DefaultMatcherContext<>(
+            buffer, stack, HANDLER, new EmptyMatcher());
+        final int length = buffer.length();
+
+        int[] tokens = new int[STRIDE * INITIAL_SIZE];
+        int nrTokens = 0;
+        int index = 0;
+        int end;
+        int kind;
+
+        while (index < length) {
+            end = skip(context, index);
+            if (end != -1) {
+                index = end;
+                continue;
+            }
+
+            kind = TokenInputBuffer.UNKNOWN;
+            end = index + 1;
+
+            for (int i = 0; i < tokenRules.length; i++) {
+                final int tokenEnd = run(context, tokenRules[i], index);
+                if (tokenEnd > end || tokenEnd == end
+                    && kind == TokenInputBuffer.UNKNOWN) {
+                    kind = kinds[i];
+                    end = tokenEnd;
+                }
+            }
+
+            if (STRIDE * nrTokens == tokens.length)
+                tokens = Arrays.copyOf(tokens, 2 * tokens.length);
+            tokens[STRIDE * nrTokens] = kind;
+            tokens[STRIDE * nrTokens + 1] = index;
+            tokens[STRIDE * nrTokens + 2] = end;
+            nrTokens++;
+            index = end;
+        }
+
+        return new TokenInputBuffer(buffer, tokens, nrTokens);
+    }
+
+    private int skip(final MatcherContext<Object> context, final int index)
+    {
+        int end;
+
+        for (final Matcher rule: skipRules) {
+            end = run(context, rule, index);
+            if (end != -1)
+                return end;
+        }
+
+        return -1;
+    }
+
+    /*
+     * Run a rule at the given index; return the end index of the match, or -1
+     * if the rule does not match (or matches empty text)
+     */
+    private static int run(final MatcherContext<Object> context,
+        final Matcher rule, final int index)
+    {
+        context.setCurrentIndex(index);
+
+        final boolean matched = rule.getSubContext(context).runMatcher();
+        context.getValueStack().clear();
+
+        if (!matched)
+            return -1;
+
+        final int end = context.getCurrentIndex();
+        return end > index ? end : -1;
+    }
+}
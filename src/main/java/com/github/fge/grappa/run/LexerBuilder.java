@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.run;
+
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.rules.Rule;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A builder for a {@link Lexer}
+ *
+ * <p>Rules are typically obtained from a parser instance, which means the
+ * lexer can reuse any rule of the grammar:</p>
+ *
+ * <pre>
+ *     final Lexer lexer = Lexer.newBuilder()
+ *         .skip(parser.whitespace())
+ *         .token(IF, parser.ifKeyword())
+ *         .token(IDENTIFIER, parser.identifier())
+ *         .build();
+ * </pre>
+ *
+ * @see Lexer#newBuilder()
+ */
+@NotThreadSafe
+public final class LexerBuilder
+{
+    private final List<Matcher> skipRules = new ArrayList<>();
+    private final List<Matcher> tokenRules = new ArrayList<>();
+    private final List<Integer> kinds = new ArrayList<>();
+
+    LexerBuilder()
+    {
+    }
+
+    /**
+     * Add a skip rule
+     *
+     * @param rule the rule
+     * @return this
+     */
+    public LexerBuilder skip(@Nonnull final Rule rule)
+    {
+        skipRules.add((Matcher) Objects.requireNonNull(rule));
+        return this;
+    }
+
+    /**
+     * Add a token rule
+     *
+     * @param kind the token kind
+     * @param rule the rule
+     * @return this
+     *
+     * @throws IllegalArgumentException kind is negative or greater than {@link
+     * TokenInputBuffer#MAX_KIND}
+     */
+    public LexerBuilder token(final int kind, @Nonnull final Rule rule)
+    {
+        Preconditions.checkArgument(kind >= 0
+            && kind <= TokenInputBuffer.MAX_KIND, "illegal token kind %s",
+            kind);
+        tokenRules.add((Matcher) Objects.requireNonNull(rule));
+        kinds.add(kind);
+        return this;
+    }
+
+    /**
+     * Build the lexer
+     *
+     * @return a new lexer
+     */
+    public Lexer build()
+    {
+        final int[] array = new int[kinds.size()];
+
+        for (int i = 0; i < array.length; i++)
+            array[i] = kinds.get(i);
+
+        return new Lexer(skipRules.toArray(new Matcher[skipRules.size()]),
+            tokenRules.toArray(new Matcher[tokenRules.size()]), array);
+    }
+}
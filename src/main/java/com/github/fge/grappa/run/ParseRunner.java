@@ -31,7 +31,7 @@ import com.github.fge.grappa.run.events.MatchSuccessEvent;
 import com.github.fge.grappa.run.events.PostParseEvent;
 import com.github.fge.grappa.run.events.PreMatchEvent;
 import com.github.fge.grappa.run.events.PreParseEvent;
-import com.github.fge.grappa.stack.ArrayValueStack;
+import com.github.fge.grappa.stack.ReverseArrayValueStack;
 import com.github.fge.grappa.stack.ValueStack;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.eventbus.EventBus;
@@ -123,7 +123,7 @@ public class ParseRunner<V>
     private void resetValueStack()
     {
         // TODO: write a "memoizing" API
-        valueStack = new ArrayValueStack<>();
+        valueStack = new ReverseArrayValueStack<>();
         stackSnapshot = null;
     }
 
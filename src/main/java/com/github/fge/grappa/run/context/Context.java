@@ -17,6 +17,7 @@
 package com.github.fge.grappa.run.context;
 
 import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.buffers.InputBufferView;
 import com.github.fge.grappa.matchers.base.Matcher;
 import com.github.fge.grappa.rules.Action;
 import com.github.fge.grappa.stack.ValueStack;
@@ -125,6 +126,19 @@ public interface Context<V>
      */
     String getMatch();
 
+    /**
+     * Returns a view over the input text matched by the rule immediately
+     * preceding the action expression that is currently being evaluated
+     *
+     * <p>The same restrictions as {@link #getMatch()} apply; unlike this
+     * method, however, no characters are copied.</p>
+     *
+     * @return a view over the matched text
+     *
+     * @see InputBuffer#view(int, int)
+     */
+    InputBufferView getMatchView();
+
     /**
      * <p>Returns the first character of the input text matched by the rule
      * immediately preceding the action expression that is currently being
@@ -180,6 +194,17 @@ public interface Context<V>
      */
     Position getPosition();
 
+    /**
+     * <p>Returns the current position in the underlying {@link InputBuffer} in
+     * packed form.</p>
+     *
+     * @return the current position, packed
+     *
+     * @see Position#pack(int, int)
+     * @see InputBuffer#getPackedPosition(int)
+     */
+    long getPackedPosition();
+
     /**
      * Creates a new {@link IndexRange} instance covering the input text matched
      * by the rule immediately preceding the action expression that is currently
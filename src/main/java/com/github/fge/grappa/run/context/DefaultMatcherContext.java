@@ -17,6 +17,7 @@
 package com.github.fge.grappa.run.context;
 
 import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.buffers.InputBufferView;
 import com.github.fge.grappa.exceptions.GrappaException;
 import com.github.fge.grappa.exceptions.InvalidGrammarException;
 import com.github.fge.grappa.matchers.ActionMatcher;
@@ -201,6 +202,13 @@ public final class DefaultMatcherContext<V>
         return inputBuffer.extract(ctx.startIndex, ctx.currentIndex);
     }
 
+    @Override
+    public InputBufferView getMatchView()
+    {
+        final DefaultMatcherContext<V> ctx = subContext;
+        return inputBuffer.view(ctx.startIndex, ctx.currentIndex);
+    }
+
     @Override
     public char getFirstMatchChar()
     {
@@ -237,6 +245,12 @@ public final class DefaultMatcherContext<V>
         return inputBuffer.getPosition(currentIndex);
     }
 
+    @Override
+    public long getPackedPosition()
+    {
+        return inputBuffer.getPackedPosition(currentIndex);
+    }
+
     @Override
     public IndexRange getMatchRange()
     {
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.stream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Callback for a {@link StreamingParseRunner}
+ *
+ * <p>Events are only delivered once they can no longer be revoked by
+ * backtracking, and in document order: a rule is entered before any rule it
+ * contains is, and exited after all of them are. Both methods do nothing by
+ * default.</p>
+ *
+ * <p>If the parse eventually fails, the events delivered so far describe the
+ * input up to the point where no alternative was left.</p>
+ */
+public interface MatchEventHandler
+{
+    /**
+     * Called when a rule is entered
+     *
+     * @param label the label of the rule
+     * @param start the start index of the match
+     */
+    default void enterRule(@Nonnull final String label, final int start)
+    {
+    }
+
+    /**
+     * Called when a rule has matched
+     *
+     * @param label the label of the rule
+     * @param start the start index of the match (inclusive)
+     * @param end the end index of the match (exclusive)
+     */
+    default void exitRule(@Nonnull final String label, final int start,
+        final int end)
+    {
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.stream;
+
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.delegate.SequenceMatcher;
+import com.github.fge.grappa.matchers.delegate.TriviaMatcher;
+import com.github.fge.grappa.matchers.join.JoinMatcher;
+import com.github.fge.grappa.matchers.repeat.RepeatMatcher;
+import com.github.fge.grappa.matchers.wrap.VarFramingMatcher;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.context.MatcherContext;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A parse runner streaming rule events to a {@link MatchEventHandler}
+ *
+ * <p>By default, events are reported for labelled composite rules; typically,
+ * these are the rules defined by rule methods of a parser. Override {@link
+ * #isReported(Matcher)} to change this.</p>
+ *
+ * <p>Events are buffered until no backtracking can revoke them anymore, that
+ * is until no enclosing matcher can still swallow the failure of the match
+ * which produced them:</p>
+ *
+ * <ul>
+ *     <li>for a repetition, only the current iteration;</li>
+ *     <li>for a join, only the current cycle (joining rule, then joined
+ *     rule);</li>
+ *     <li>for any other composite except a sequence (first of, optional,
+ *     predicates, etc), all of its match.</li>
+ * </ul>
+ *
+ * <p>Events within predicates, or within {@link TriviaMatcher trivia}, are
+ * never reported. With a grammar whose top level is a repetition, for
+ * instance, memory use is therefore bounded by the largest element, not by
+ * the size of the input.</p>
+ *
+ * @param <V> type parameter of the parser's stack values
+ */
+public class StreamingParseRunner<V>
+    extends ParseRunner<V>
+{
+    private static final int INITIAL_SIZE = 256;
+    private static final int INITIAL_LEVELS = 64;
+
+    /*
+     * Events: the low bit tells whether this is an exit event, the other bits
+     * are the rule id; then the start and end indices
+     */
+    private static final int STRIDE = 3;
+    private static final int EXIT = 1;
+
+    /*
+     * Frame kinds
+     */
+    private static final int SEQUENCE = 0;
+    private static final int ABSORBING = 1;
+    private static final int REPEAT = 2;
+    private static final int JOIN = 3;
+    private static final int PREDICATE = 4;
+
+    private static final int NONE = -1;
+
+    private final MatchEventHandler handler;
+
+    private final Map<Matcher, Integer> ruleIds = new IdentityHashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    /*
+     * Buffered events; positions are absolute event numbers, and base is the
+     * number of the first event in the buffer
+     */
+    private int[] events = new int[STRIDE * INITIAL_SIZE];
+    private int base;
+    private int nrEvents;
+    private int nrDelivered;
+
+    /*
+     * Per context level: frame kind, event number at the start of the match,
+     * first event number which this frame can still revoke, number of
+     * children started
+     */
+    private int[] kinds = new int[INITIAL_LEVELS];
+    private int[] starts = new int[INITIAL_LEVELS];
+    private int[] boundaries = new int[INITIAL_LEVELS];
+    private int[] nrChildren = new int[INITIAL_LEVELS];
+
+    /*
+     * Levels of the open frames which can swallow a failure, outermost first
+     */
+    private int[] absorbing = new int[INITIAL_LEVELS];
+    private int nrAbsorbing;
+
+    /**
+     * Constructor
+     *
+     * @param rule the rule
+     * @param handler the event handler
+     */
+    public StreamingParseRunner(@Nonnull final Rule rule,
+        @Nonnull final MatchEventHandler handler)
+    {
+        super(rule);
+        this.handler = Objects.requireNonNull(handler);
+    }
+
+    /**
+     * Tell whether events are reported for matches of a given matcher
+     *
+     * @param matcher the matcher
+     * @return true if the matcher has a custom label and is a composite
+     */
+    protected boolean isReported(@Nonnull final Matcher matcher)
+    {
+        return matcher.hasCustomLabel()
+            && matcher.getType() == MatcherType.COMPOSITE;
+    }
+
+    @Override
+    public <T> boolean match(final MatcherContext<T> context)
+    {
+        final int level = context.getLevel();
+        final Matcher matcher = context.getMatcher();
+        final int start = context.getCurrentIndex();
+
+        if (level == 0)
+            reset();
+        else {
+            if (level == kinds.length)
+                growLevels();
+            childStarts(level - 1);
+        }
+
+        final int kind = getKind(matcher);
+        final int ruleId = getRuleId(matcher);
+
+        kinds[level] = kind;
+        starts[level] = nrEvents;
+        boundaries[level] = nrEvents;
+        nrChildren[level] = 0;
+
+        if (kind != SEQUENCE) {
+            if (nrAbsorbing == absorbing.length)
+                absorbing = Arrays.copyOf(absorbing, nrAbsorbing << 1);
+            absorbing[nrAbsorbing++] = level;
+        }
+
+        if (ruleId != NONE)
+            add(ruleId << 1, start, start);
+
+        final boolean matched = super.match(context);
+        final int end = context.getCurrentIndex();
+
+        if (kind != SEQUENCE)
+            nrAbsorbing--;
+
+        if (!matched || kind == PREDICATE)
+            truncate(starts[level]);
+        else {
+            dropStaleEvents(ruleId == NONE ? starts[level]
+                : starts[level] + 1, end);
+            if (ruleId != NONE)
+                add(ruleId << 1 | EXIT, start, end);
+        }
+
+        deliver();
+        return matched;
+    }
+
+    private void reset()
+    {
+        base = 0;
+        nrEvents = 0;
+        nrDelivered = 0;
+        nrAbsorbing = 0;
+    }
+
+    private int getRuleId(final Matcher matcher)
+    {
+        Integer id = ruleIds.get(matcher);
+
+        if (id == null) {
+            id = NONE;
+            if (isReported(matcher)) {
+                id = labels.size();
+                labels.add(matcher.getLabel());
+            }
+            ruleIds.put(matcher, id);
+        }
+
+        return id;
+    }
+
+    private static int getKind(final Matcher contextMatcher)
+    {
+        // rules declaring vars are wrapped; see VarFramingMatcher
+        final Matcher matcher = VarFramingMatcher.unwrap(contextMatcher);
+
+        if (matcher instanceof SequenceMatcher)
+            return SEQUENCE;
+        // trivia is cached, and therefore not reported consistently
+        if (matcher instanceof TriviaMatcher)
+            return PREDICATE;
+
+        switch (matcher.getType()) {
+            case TERMINAL:
+            case ACTION:
+                return SEQUENCE;
+            case PREDICATE:
+                return PREDICATE;
+            default:
+                if (matcher instanceof RepeatMatcher)
+                    return REPEAT;
+                if (matcher instanceof JoinMatcher)
+                    return JOIN;
+                return ABSORBING;
+        }
+    }
+
+    /*
+     * A new iteration of a repetition, or a new cycle of a join (which starts
+     * with the joining rule, that is with odd children), cannot be revoked by
+     * the failure of the previous ones
+     */
+    private void childStarts(final int parentLevel)
+    {
+        final int child = nrChildren[parentLevel]++;
+
+        switch (kinds[parentLevel]) {
+            case REPEAT:
+                boundaries[parentLevel] = nrEvents;
+                deliver();
+                break;
+            case JOIN:
+                if ((child & 1) == 1) {
+                    boundaries[parentLevel] = nrEvents;
+                    deliver();
+                }
+                break;
+            default:
+        }
+    }
+
+    private void add(final int kind, final int start, final int end)
+    {
+        int offset = STRIDE * (nrEvents - base);
+
+        if (offset == events.length) {
+            compact();
+            offset = STRIDE * (nrEvents - base);
+        }
+
+        events[offset] = kind;
+        events[offset + 1] = start;
+        events[offset + 2] = end;
+        nrEvents++;
+    }
+
+    private void compact()
+    {
+        final int delivered = nrDelivered - base;
+
+        if (delivered > 0) {
+            System.arraycopy(events, STRIDE * delivered, events, 0,
+                STRIDE * (nrEvents - nrDelivered));
+            base = nrDelivered;
+        }
+
+        if (STRIDE * (nrEvents - base) == events.length)
+            events = Arrays.copyOf(events, events.length << 1);
+    }
+
+    /*
+     * Events already delivered cannot be taken back; this only happens when
+     * the whole parse fails
+     */
+    private void truncate(final int eventNumber)
+    {
+        nrEvents = Math.max(eventNumber, nrDelivered);
+    }
+
+    /*
+     * A successful match may still have backtracked part of what its children
+     * matched: for instance, a join whose last joining rule matched but whose
+     * joined rule did not. Such children end after the match does, and come
+     * last; drop them.
+     */
+    private void dropStaleEvents(final int firstChildEvent, final int end)
+    {
+        final int limit = Math.max(firstChildEvent, nrDelivered);
+
+        int offset;
+
+        while (nrEvents > limit) {
+            offset = STRIDE * (nrEvents - 1 - base);
+            if (events[offset + 2] <= end)
+                return;
+            truncate(firstOfMatch(nrEvents - 1));
+        }
+    }
+
+    /*
+     * Find the enter event matching an exit event
+     */
+    private int firstOfMatch(final int exitEvent)
+    {
+        int depth = 0;
+        int event = exitEvent;
+
+        while (true) {
+            depth += (events[STRIDE * (event - base)] & EXIT) == 0 ? -1 : 1;
+            if (depth == 0)
+                return event;
+            event--;
+        }
+    }
+
+    private void deliver()
+    {
+        final int limit
+            = nrAbsorbing == 0 ? nrEvents : boundaries[absorbing[0]];
+
+        int offset;
+        int kind;
+
+        while (nrDelivered < limit) {
+            offset = STRIDE * (nrDelivered - base);
+            kind = events[offset];
+            if ((kind & EXIT) == 0)
+                handler.enterRule(labels.get(kind >>> 1), events[offset + 1]);
+            else
+                handler.exitRule(labels.get(kind >>> 1), events[offset + 1],
+                    events[offset + 2]);
+            nrDelivered++;
+        }
+
+        if (nrDelivered == nrEvents)
+            base = nrEvents;
+    }
+
+    private void growLevels()
+    {
+        final int length = kinds.length << 1;
+
+        kinds = Arrays.copyOf(kinds, length);
+        starts = Arrays.copyOf(starts, length);
+        boundaries = Arrays.copyOf(boundaries, length);
+        nrChildren = Arrays.copyOf(nrChildren, length);
+    }
+}
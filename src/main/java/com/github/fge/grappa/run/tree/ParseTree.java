@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.tree;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A concrete syntax tree, as recorded by a {@link TreeParseRunner}
+ *
+ * <p>Nodes are not objects: they are stored in a single {@code int} array,
+ * five {@code int}s per node (the rule id, the start and end index of the
+ * match, the first child and the next sibling). Nodes are laid out in
+ * document order, parents before their children. Use {@link #cursor()} to
+ * walk the tree.</p>
+ *
+ * <p>Node 0 is a synthetic root, which has no rule; its children are the
+ * outermost recorded matches.</p>
+ */
+@Immutable
+public final class ParseTree
+{
+    static final int STRIDE = 5;
+    static final int RULE = 0;
+    static final int START = 1;
+    static final int END = 2;
+    static final int FIRST_CHILD = 3;
+    static final int NEXT_SIBLING = 4;
+
+    static final int NONE = -1;
+
+    private final InputBuffer inputBuffer;
+    private final int[] nodes;
+    private final int nrNodes;
+    private final String[] labels;
+
+    ParseTree(final InputBuffer inputBuffer, final int[] nodes,
+        final int nrNodes, final String[] labels)
+    {
+        this.inputBuffer = inputBuffer;
+        this.nodes = nodes;
+        this.nrNodes = nrNodes;
+        this.labels = labels;
+    }
+
+    /**
+     * Return the input buffer this tree was built from
+     *
+     * @return the input buffer
+     */
+    @Nonnull
+    public InputBuffer getInputBuffer()
+    {
+        return inputBuffer;
+    }
+
+    /**
+     * Return the number of nodes in this tree, excluding the synthetic root
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount()
+    {
+        return nrNodes - 1;
+    }
+
+    /**
+     * Return a new cursor over this tree, positioned on the synthetic root
+     *
+     * @return a new cursor
+     */
+    @Nonnull
+    public ParseTreeCursor cursor()
+    {
+        return new ParseTreeCursor(this);
+    }
+
+    int get(final int node, final int field)
+    {
+        return nodes[STRIDE * node + field];
+    }
+
+    String getLabel(final int ruleId)
+    {
+        return ruleId == NONE ? null : labels[ruleId];
+    }
+}
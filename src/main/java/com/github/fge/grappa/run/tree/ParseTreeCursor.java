@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.tree;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+import static com.github.fge.grappa.run.tree.ParseTree.END;
+import static com.github.fge.grappa.run.tree.ParseTree.FIRST_CHILD;
+import static com.github.fge.grappa.run.tree.ParseTree.NEXT_SIBLING;
+import static com.github.fge.grappa.run.tree.ParseTree.NONE;
+import static com.github.fge.grappa.run.tree.ParseTree.RULE;
+import static com.github.fge.grappa.run.tree.ParseTree.START;
+
+/**
+ * A cursor over a {@link ParseTree}
+ *
+ * <p>A cursor is positioned on one node at a time; the {@code goto*()}
+ * methods move it, and return false (without moving) if there is no such
+ * node. Walking the tree this way does not allocate anything, save for the
+ * (rare) growth of the cursor's ancestor stack.</p>
+ *
+ * <p>Cursors are not thread safe.</p>
+ */
+public final class ParseTreeCursor
+{
+    private final ParseTree tree;
+
+    private int node = 0;
+    private int[] ancestors = new int[16];
+    private int depth = 0;
+
+    ParseTreeCursor(final ParseTree tree)
+    {
+        this.tree = tree;
+    }
+
+    /**
+     * Return the label of the rule which matched the current node
+     *
+     * @return the label; null for the synthetic root
+     */
+    @Nullable
+    public String getLabel()
+    {
+        return tree.getLabel(getRuleId());
+    }
+
+    /**
+     * Return the id of the rule which matched the current node
+     *
+     * <p>Ids are attributed to rules in the order they are first matched
+     * during a parsing run.</p>
+     *
+     * @return the rule id; -1 for the synthetic root
+     */
+    public int getRuleId()
+    {
+        return tree.get(node, RULE);
+    }
+
+    /**
+     * Return the start index of the current node's match
+     *
+     * @return the start index (inclusive)
+     */
+    public int getStart()
+    {
+        return tree.get(node, START);
+    }
+
+    /**
+     * Return the end index of the current node's match
+     *
+     * @return the end index (exclusive)
+     */
+    public int getEnd()
+    {
+        return tree.get(node, END);
+    }
+
+    /**
+     * Return the text matched by the current node
+     *
+     * @return the matched text
+     */
+    @Nonnull
+    public String getText()
+    {
+        return tree.getInputBuffer().extract(getStart(), getEnd());
+    }
+
+    /**
+     * Return the depth of the current node; the synthetic root has depth 0
+     *
+     * @return the depth
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Move to the first child of the current node
+     *
+     * @return true if the cursor was moved
+     */
+    public boolean gotoFirstChild()
+    {
+        final int child = tree.get(node, FIRST_CHILD);
+
+        if (child == NONE)
+            return false;
+
+        if (depth == ancestors.length)
+            ancestors = Arrays.copyOf(ancestors, depth << 1);
+        ancestors[depth++] = node;
+        node = child;
+        return true;
+    }
+
+    /**
+     * Move to the next sibling of the current node
+     *
+     * @return true if the cursor was moved
+     */
+    public boolean gotoNextSibling()
+    {
+        final int sibling = tree.get(node, NEXT_SIBLING);
+
+        if (sibling == NONE)
+            return false;
+
+        node = sibling;
+        return true;
+    }
+
+    /**
+     * Move to the parent of the current node
+     *
+     * @return true if the cursor was moved
+     */
+    public boolean gotoParent()
+    {
+        if (depth == 0)
+            return false;
+
+        node = ancestors[--depth];
+        return true;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.tree;
+
+import com.github.fge.grappa.matchers.MatcherType;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.matchers.delegate.TriviaMatcher;
+import com.github.fge.grappa.matchers.wrap.VarFramingMatcher;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.fge.grappa.run.tree.ParseTree.END;
+import static com.github.fge.grappa.run.tree.ParseTree.FIRST_CHILD;
+import static com.github.fge.grappa.run.tree.ParseTree.NEXT_SIBLING;
+import static com.github.fge.grappa.run.tree.ParseTree.NONE;
+import static com.github.fge.grappa.run.tree.ParseTree.RULE;
+import static com.github.fge.grappa.run.tree.ParseTree.START;
+import static com.github.fge.grappa.run.tree.ParseTree.STRIDE;
+
+/**
+ * A parse runner which also records a concrete syntax tree
+ *
+ * <p>By default, a node is recorded for each successful match of a labelled
+ * composite rule; typically, these are the rules defined by rule methods of
+ * a parser. Override {@link #isRecorded(Matcher)} to change this.</p>
+ *
+ * <p>The tree is stored in an arena of {@code int}s (see {@link ParseTree}).
+ * When matches are backtracked, their nodes are discarded by truncating the
+ * arena; nodes matched under a predicate or within {@link TriviaMatcher
+ * trivia} are also discarded. Once a parsing run is complete, the tree is
+ * available using {@link #getParseTree()}.</p>
+ *
+ * @param <V> type parameter of the parser's stack values
+ */
+public class TreeParseRunner<V>
+    extends ParseRunner<V>
+{
+    private static final int INITIAL_SIZE = 1024;
+    private static final int INITIAL_LEVELS = 64;
+
+    private final Map<Matcher, Integer> ruleIds = new IdentityHashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    private int[] nodes;
+    private int nrNodes;
+
+    /*
+     * Recorded nodes not yet matched, and the last child linked to each; the
+     * synthetic root is always the first one
+     */
+    private int[] openNodes = new int[INITIAL_LEVELS];
+    private int[] lastChildren = new int[INITIAL_LEVELS];
+    private int nrOpenNodes;
+
+    /*
+     * Per context level: the number of nodes, and the last child of the
+     * enclosing open node, before the match; the node recorded at this level,
+     * if any
+     */
+    private int[] levelNrNodes = new int[INITIAL_LEVELS];
+    private int[] levelLastChildren = new int[INITIAL_LEVELS];
+    private int[] levelNodes = new int[INITIAL_LEVELS];
+
+    private ParseTree tree = null;
+
+    /**
+     * Constructor
+     *
+     * @param rule the rule
+     */
+    public TreeParseRunner(@Nonnull final Rule rule)
+    {
+        super(rule);
+    }
+
+    /**
+     * Return the tree recorded by the last parsing run
+     *
+     * @return the parse tree
+     * @throws IllegalStateException no parsing run has completed yet
+     */
+    @Nonnull
+    public final ParseTree getParseTree()
+    {
+        Preconditions.checkState(tree != null, "no parse tree available");
+        return tree;
+    }
+
+    /**
+     * Tell whether a node is recorded for matches of a given matcher
+     *
+     * @param matcher the matcher
+     * @return true if the matcher has a custom label and is a composite
+     */
+    protected boolean isRecorded(@Nonnull final Matcher matcher)
+    {
+        return matcher.hasCustomLabel()
+            && matcher.getType() == MatcherType.COMPOSITE;
+    }
+
+    @Override
+    public <T> boolean match(final MatcherContext<T> context)
+    {
+        final int level = context.getLevel();
+        final Matcher matcher = context.getMatcher();
+
+        if (level == 0)
+            reset();
+        else if (level == levelNodes.length)
+            growLevels();
+
+        levelNrNodes[level] = nrNodes;
+        levelLastChildren[level] = lastChildren[nrOpenNodes - 1];
+
+        final int ruleId = getRuleId(matcher);
+        final int node = ruleId == NONE ? NONE
+            : open(ruleId, context.getCurrentIndex());
+        levelNodes[level] = node;
+
+        final boolean matched = super.match(context);
+        final int end = context.getCurrentIndex();
+
+        if (!matched || matcher.getType() == MatcherType.PREDICATE
+            || VarFramingMatcher.unwrap(matcher) instanceof TriviaMatcher) {
+            if (node != NONE)
+                nrOpenNodes--;
+            discard(level);
+        } else {
+            // The children of this match are those of the innermost open node
+            dropStaleChildren(node == NONE ? levelLastChildren[level] : NONE,
+                end);
+            if (node != NONE) {
+                nrOpenNodes--;
+                link(node, end);
+            }
+        }
+
+        if (level == 0) {
+            nodes[END] = end;
+            tree = new ParseTree(context.getInputBuffer(), nodes, nrNodes,
+                labels.toArray(new String[labels.size()]));
+            nodes = null;
+        }
+
+        return matched;
+    }
+
+    private void reset()
+    {
+        nodes = new int[STRIDE * INITIAL_SIZE];
+        nrNodes = 0;
+        nrOpenNodes = 0;
+        tree = null;
+        open(NONE, 0);
+    }
+
+    private int getRuleId(final Matcher matcher)
+    {
+        Integer id = ruleIds.get(matcher);
+
+        if (id == null) {
+            id = NONE;
+            if (isRecorded(matcher)) {
+                id = labels.size();
+                labels.add(matcher.getLabel());
+            }
+            ruleIds.put(matcher, id);
+        }
+
+        return id;
+    }
+
+    private int open(final int ruleId, final int start)
+    {
+        if (STRIDE * nrNodes == nodes.length)
+            nodes = Arrays.copyOf(nodes, nodes.length << 1);
+
+        final int node = nrNodes++;
+        final int offset = STRIDE * node;
+
+        nodes[offset + RULE] = ruleId;
+        nodes[offset + START] = start;
+        nodes[offset + END] = start;
+        nodes[offset + FIRST_CHILD] = NONE;
+        nodes[offset + NEXT_SIBLING] = NONE;
+
+        if (nrOpenNodes == openNodes.length) {
+            openNodes = Arrays.copyOf(openNodes, nrOpenNodes << 1);
+            lastChildren = Arrays.copyOf(lastChildren, nrOpenNodes << 1);
+        }
+        openNodes[nrOpenNodes] = node;
+        lastChildren[nrOpenNodes] = NONE;
+        nrOpenNodes++;
+
+        return node;
+    }
+
+    /*
+     * Drop all nodes recorded since the start of the match at this level, and
+     * unlink them from the enclosing open node
+     */
+    private void discard(final int level)
+    {
+        nrNodes = levelNrNodes[level];
+        unlinkAfter(levelLastChildren[level]);
+    }
+
+    private void link(final int node, final int end)
+    {
+        nodes[STRIDE * node + END] = end;
+
+        final int parentIndex = nrOpenNodes - 1;
+        final int previous = lastChildren[parentIndex];
+
+        if (previous == NONE)
+            nodes[STRIDE * openNodes[parentIndex] + FIRST_CHILD] = node;
+        else
+            nodes[STRIDE * previous + NEXT_SIBLING] = node;
+
+        lastChildren[parentIndex] = node;
+    }
+
+    /*
+     * A successful match may still have backtracked part of what its children
+     * matched: for instance, a join whose last joining rule matched but whose
+     * joined rule did not. Such children end after the match does, and are
+     * necessarily the last ones linked since the match started (that is,
+     * after the given child).
+     */
+    private void dropStaleChildren(final int before, final int end)
+    {
+        final int parentIndex = nrOpenNodes - 1;
+        final int last = lastChildren[parentIndex];
+
+        if (last == NONE || nodes[STRIDE * last + END] <= end)
+            return;
+
+        int child = before == NONE
+            ? nodes[STRIDE * openNodes[parentIndex] + FIRST_CHILD]
+            : nodes[STRIDE * before + NEXT_SIBLING];
+        int previous = before;
+
+        while (nodes[STRIDE * child + END] <= end) {
+            previous = child;
+            child = nodes[STRIDE * child + NEXT_SIBLING];
+        }
+
+        nrNodes = child;
+        unlinkAfter(previous);
+    }
+
+    private void unlinkAfter(final int child)
+    {
+        final int parentIndex = nrOpenNodes - 1;
+
+        lastChildren[parentIndex] = child;
+        if (child == NONE)
+            nodes[STRIDE * openNodes[parentIndex] + FIRST_CHILD] = NONE;
+        else
+            nodes[STRIDE * child + NEXT_SIBLING] = NONE;
+    }
+
+    private void growLevels()
+    {
+        final int length = levelNodes.length << 1;
+
+        levelNrNodes = Arrays.copyOf(levelNrNodes, length);
+        levelLastChildren = Arrays.copyOf(levelLastChildren, length);
+        levelNodes = Arrays.copyOf(levelNodes, length);
+    }
+}
@@ -11,7 +11,9 @@ import java.util.NoSuchElementException;
 /**
  * A {@link ValueStack} implementation using arrays
  *
- * <p>This is the default implementation currently used.</p>
+ * <p>The top of the stack is at index 0 of the array, which means every push
+ * and pop moves all other elements; see {@link ReverseArrayValueStack} for
+ * the default implementation.</p>
  *
  * @param <V> type parameter of the stack's element
  */
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.stack;
+
+/**
+ * A value stack with a second lane for primitive values
+ *
+ * <p>This lane is independent of the regular values of the stack: {@link
+ * ValueStack#size()}, {@link ValueStack#pop()} and others do not see
+ * primitive values, and the primitive methods of this interface do not see
+ * regular values. Snapshots, however, cover both.</p>
+ *
+ * <p>{@code int}, {@code long} and {@code double} values all share the same
+ * lane, and no type information is recorded: for instance, popping as a
+ * {@code double} a value pushed as a {@code long} returns a meaningless
+ * value.</p>
+ *
+ * <p>As for regular values, {@code down} is the number of values to skip
+ * from the top of the lane; 0 is the top value.</p>
+ */
+public interface PrimitiveValueStack
+{
+    /**
+     * Return the number of values in the primitive lane
+     *
+     * @return the number of values
+     */
+    int primitiveSize();
+
+    /**
+     * Push a long value onto the primitive lane
+     *
+     * @param value the value
+     */
+    void pushLong(long value);
+
+    /**
+     * Remove a long value from the primitive lane and return it
+     *
+     * @param down the depth of the value
+     * @return the value
+     *
+     * @throws IllegalArgumentException depth is negative
+     * @throws IllegalStateException not enough values in the lane
+     */
+    long popLong(int down);
+
+    /**
+     * Return a long value from the primitive lane, without removing it
+     *
+     * @param down the depth of the value
+     * @return the value
+     *
+     * @throws IllegalArgumentException depth is negative
+     * @throws IllegalStateException not enough values in the lane
+     */
+    long peekLong(int down);
+
+    default void pushInt(final int value)
+    {
+        pushLong(value);
+    }
+
+    default int popInt(final int down)
+    {
+        return (int) popLong(down);
+    }
+
+    default int peekInt(final int down)
+    {
+        return (int) peekLong(down);
+    }
+
+    default void pushDouble(final double value)
+    {
+        pushLong(Double.doubleToRawLongBits(value));
+    }
+
+    default double popDouble(final int down)
+    {
+        return Double.longBitsToDouble(popLong(down));
+    }
+
+    default double peekDouble(final int down)
+    {
+        return Double.longBitsToDouble(peekLong(down));
+    }
+}
@@ -0,0 +1,604 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.stack;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link ValueStack} implementation using an array, with the top of the
+ * stack at the end of the array
+ *
+ * <p>This is the default implementation currently used.</p>
+ *
+ * <p>Unlike {@link ArrayValueStack}, pushing, popping and peeking at the top
+ * of the stack do not move any other element: these operations are O(1)
+ * (amortized for push). Operations at depth {@code n} only move the {@code n}
+ * elements above it.</p>
+ *
+ * <p>The backing array grows geometrically and never shrinks.</p>
+ *
+ * <p>Snapshots are journaled: every modification of the stack is recorded in
+ * an undo log, a snapshot is merely a position in this log, and restoring a
+ * snapshot undoes the operations performed since, in reverse order. Taking a
+ * snapshot is therefore O(1), and restoring it is proportional to the number
+ * of operations to undo, not to the size of the stack.</p>
+ *
+ * <p>This relies on snapshots being restored in the reverse order they were
+ * taken, which is how matchers use them; restoring a snapshot invalidates all
+ * snapshots taken after it. Each snapshot is expected to be either restored
+ * or {@link #discardSnapshot(Object) discarded} exactly once, and the journal
+ * is emptied when no snapshot is outstanding anymore.</p>
+ *
+ * <p>A snapshot may however be outstanding for a whole parsing run (that of a
+ * root sequence, for instance). When the journal grows larger than a few
+ * copies of the stack would be, it is therefore compacted: the state of the
+ * stack at each outstanding snapshot is copied, and these checkpoints replace
+ * the whole journal. The journal is thus bounded by the number of outstanding
+ * snapshots times the size of the stack, not by the number of operations
+ * performed. {@link #clear()} also empties the journal, and invalidates all
+ * snapshots.</p>
+ *
+ * <p>This class also implements {@link PrimitiveValueStack}. Primitive values
+ * are stored unboxed, and their operations are journaled as well.</p>
+ *
+ * @param <V> type parameter of the stack's element
+ */
+@ParametersAreNonnullByDefault
+public final class ReverseArrayValueStack<V>
+    extends ValueStackBase<V>
+    implements PrimitiveValueStack
+{
+    @VisibleForTesting
+    static final int INITIAL_SIZE = 16;
+
+    /*
+     * The journal is never compacted below this size
+     */
+    @VisibleForTesting
+    static final int MIN_JOURNAL_LIMIT = 64;
+
+    /*
+     * Journal entries: the low three bits are the operation, the other bits
+     * its argument (the depth, or the number of values for a swap)
+     */
+    private static final int PUSH = 0;
+    private static final int POP = 1;
+    private static final int POKE = 2;
+    private static final int SWAP = 3;
+    private static final int PRIMITIVE_PUSH = 4;
+    private static final int PRIMITIVE_POP = 5;
+    private static final int CHECKPOINT = 6;
+    private static final int OPERATION_BITS = 3;
+    private static final int OPERATION_MASK = (1 << OPERATION_BITS) - 1;
+
+    private int size = 0;
+    private V[] array = (V[]) new Object[INITIAL_SIZE];
+
+    private int journalSize = 0;
+    private int[] journal = new int[INITIAL_SIZE];
+    /*
+     * The removed values for POP entries, the previous values for POKE
+     * entries, the stack state for CHECKPOINT entries
+     */
+    private Object[] journalValues = new Object[INITIAL_SIZE];
+
+    private int primitiveSize = 0;
+    private long[] primitives = null;
+    /*
+     * The removed values for PRIMITIVE_POP entries; only allocated once
+     * primitive values are used
+     */
+    private long[] journalPrimitives = null;
+
+    /*
+     * The journal is checked for compaction when it reaches this size
+     */
+    private int journalLimit = MIN_JOURNAL_LIMIT;
+
+    /*
+     * Snapshots taken and neither restored nor discarded yet, in the order
+     * they were taken; a snapshot may appear several times, since the last
+     * one is reused as long as the journal does not change
+     */
+    private Mark[] marks = new Mark[INITIAL_SIZE];
+    private int nrMarks = 0;
+    private Mark lastSnapshot = new Mark(0, 0);
+
+    /*
+     * Incremented on each compaction, which moves outstanding marks; other
+     * marks are invalid from then on
+     */
+    private int generation = 0;
+
+    public ReverseArrayValueStack()
+    {
+    }
+
+    /*
+     * As for other implementations, values[0] is the top of the stack
+     */
+    @VisibleForTesting
+    ReverseArrayValueStack(final V[] values)
+    {
+        ensureCapacity(values.length);
+        for (final V value: values)
+            array[size++] = value;
+        reverse(0, size);
+    }
+
+    @Override
+    protected void doPush(final int down, final V value)
+    {
+        record(PUSH, down, null);
+        insert(down, value);
+    }
+
+    @Override
+    protected V doPop(final int down)
+    {
+        record(POP, down, array[size - 1 - down]);
+        return remove(down);
+    }
+
+    @Override
+    protected V doPeek(final int down)
+    {
+        return array[size - 1 - down];
+    }
+
+    @Override
+    protected void doPoke(final int down, final V value)
+    {
+        final int index = size - 1 - down;
+        record(POKE, down, array[index]);
+        array[index] = value;
+    }
+
+    @Override
+    protected void doDup()
+    {
+        record(PUSH, 0, null);
+        ensureCapacity(size + 1);
+        array[size] = array[size - 1];
+        size++;
+    }
+
+    @Override
+    protected void doSwap(final int n)
+    {
+        record(SWAP, n, null);
+        reverse(size - n, size);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(array, 0, size, null);
+        size = 0;
+        Arrays.fill(journalValues, 0, journalSize, null);
+        journalSize = 0;
+        journalLimit = MIN_JOURNAL_LIMIT;
+        primitiveSize = 0;
+        Arrays.fill(marks, 0, nrMarks, null);
+        nrMarks = 0;
+        generation++;
+        lastSnapshot = new Mark(0, generation);
+    }
+
+    @Nonnull
+    @Override
+    public Object takeSnapshot()
+    {
+        if (lastSnapshot.position != journalSize
+            || lastSnapshot.generation != generation)
+            lastSnapshot = new Mark(journalSize, generation);
+
+        if (nrMarks == marks.length)
+            marks = Arrays.copyOf(marks, nrMarks << 1);
+        marks[nrMarks++] = lastSnapshot;
+
+        return lastSnapshot;
+    }
+
+    @Override
+    public void restoreSnapshot(final Object snapshot)
+    {
+        final Mark mark = (Mark) snapshot;
+
+        Preconditions.checkState(mark.generation == generation
+            && mark.position <= journalSize, "invalid snapshot");
+
+        undo(mark.position);
+
+        // Snapshots taken after this one are invalidated
+        final int index = lastIndexOf(mark);
+        if (index != -1) {
+            Arrays.fill(marks, index, nrMarks, null);
+            nrMarks = index;
+        }
+
+        if (nrMarks == 0)
+            truncate();
+    }
+
+    @Override
+    public void discardSnapshot(final Object snapshot)
+    {
+        final int index = lastIndexOf((Mark) snapshot);
+
+        if (index == -1)
+            return;
+
+        System.arraycopy(marks, index + 1, marks, index, nrMarks - index - 1);
+        marks[--nrMarks] = null;
+
+        if (nrMarks == 0)
+            truncate();
+    }
+
+    @VisibleForTesting
+    int journalCapacity()
+    {
+        return journal.length;
+    }
+
+    @Override
+    public int primitiveSize()
+    {
+        return primitiveSize;
+    }
+
+    @Override
+    public void pushLong(final long value)
+    {
+        record(PRIMITIVE_PUSH, 0, null);
+        insertPrimitive(0, value);
+    }
+
+    @Override
+    public long popLong(final int down)
+    {
+        checkPrimitiveIndex(down);
+
+        final int index = primitiveSize - 1 - down;
+        final long ret = primitives[index];
+
+        record(PRIMITIVE_POP, down, null);
+        if (journalPrimitives == null)
+            journalPrimitives = new long[journal.length];
+        journalPrimitives[journalSize - 1] = ret;
+
+        System.arraycopy(primitives, index + 1, primitives, index, down);
+        primitiveSize--;
+        return ret;
+    }
+
+    @Override
+    public long peekLong(final int down)
+    {
+        checkPrimitiveIndex(down);
+        return primitives[primitiveSize - 1 - down];
+    }
+
+    @Override
+    public Iterator<V> iterator()
+    {
+        return new ReverseArrayIterator<>(array, size);
+    }
+
+    @Nonnull
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("[");
+
+        for (int index = size - 1; index >= 0; index--) {
+            sb.append(array[index]);
+            if (index > 0)
+                sb.append(", ");
+        }
+
+        return sb.append(']').toString();
+    }
+
+    private void insert(final int down, final V value)
+    {
+        ensureCapacity(size + 1);
+        final int index = size - down;
+        System.arraycopy(array, index, array, index + 1, down);
+        array[index] = value;
+        size++;
+    }
+
+    private V remove(final int down)
+    {
+        final int index = size - 1 - down;
+        final V ret = array[index];
+        System.arraycopy(array, index + 1, array, index, down);
+        array[--size] = null;
+        return ret;
+    }
+
+    private void insertPrimitive(final int down, final long value)
+    {
+        if (primitives == null)
+            primitives = new long[INITIAL_SIZE];
+        else if (primitiveSize == primitives.length)
+            primitives = Arrays.copyOf(primitives, primitiveSize << 1);
+
+        final int index = primitiveSize - down;
+        System.arraycopy(primitives, index, primitives, index + 1, down);
+        primitives[index] = value;
+        primitiveSize++;
+    }
+
+    private void checkPrimitiveIndex(final int down)
+    {
+        if (down < 0)
+            throw new IllegalArgumentException(NEGATIVE_INDEX);
+        if (down >= primitiveSize)
+            throw new IllegalStateException(NOT_ENOUGH_ELEMENTS);
+    }
+
+    private void record(final int operation, final int arg,
+        @Nullable final Object value)
+    {
+        // Operations are recorded before being performed, so the journal
+        // matches the stack at this point
+        if (journalSize >= journalLimit)
+            checkJournal();
+
+        if (journalSize == journal.length) {
+            final int length = journalSize << 1;
+            journal = Arrays.copyOf(journal, length);
+            journalValues = Arrays.copyOf(journalValues, length);
+            if (journalPrimitives != null)
+                journalPrimitives = Arrays.copyOf(journalPrimitives, length);
+        }
+
+        journal[journalSize] = arg << OPERATION_BITS | operation;
+        journalValues[journalSize] = value;
+        journalSize++;
+    }
+
+    private void undo(final int position)
+    {
+        int entry;
+        int arg;
+
+        while (journalSize > position) {
+            journalSize--;
+            entry = journal[journalSize];
+            arg = entry >>> OPERATION_BITS;
+            switch (entry & OPERATION_MASK) {
+                case PUSH:
+                    remove(arg);
+                    break;
+                case POP:
+                    insert(arg, (V) journalValues[journalSize]);
+                    break;
+                case POKE:
+                    array[size - 1 - arg] = (V) journalValues[journalSize];
+                    break;
+                case SWAP:
+                    reverse(size - arg, size);
+                    break;
+                case PRIMITIVE_PUSH:
+                    primitiveSize--;
+                    break;
+                case PRIMITIVE_POP:
+                    insertPrimitive(arg, journalPrimitives[journalSize]);
+                    break;
+                default:
+                    ((Checkpoint) journalValues[journalSize]).restore(this);
+            }
+            journalValues[journalSize] = null;
+        }
+    }
+
+    private int lastIndexOf(final Mark mark)
+    {
+        for (int index = nrMarks - 1; index >= 0; index--)
+            if (marks[index] == mark)
+                return index;
+
+        return -1;
+    }
+
+    /*
+     * Forget the journal once no snapshot can refer to it anymore
+     */
+    private void truncate()
+    {
+        Arrays.fill(journalValues, 0, journalSize, null);
+        journalSize = 0;
+        journalLimit = MIN_JOURNAL_LIMIT;
+    }
+
+    /*
+     * Replace the journal with checkpoints, one per outstanding position, if
+     * copying the stack at these positions costs less than the journal
+     */
+    private void checkJournal()
+    {
+        final int cost = nrMarks * (size + primitiveSize + 1);
+
+        if (journalSize <= 2 * cost) {
+            journalLimit = Math.max(journalSize + MIN_JOURNAL_LIMIT,
+                2 * cost + MIN_JOURNAL_LIMIT);
+            return;
+        }
+
+        final Checkpoint current = new Checkpoint(this);
+        final Checkpoint[] checkpoints = new Checkpoint[nrMarks];
+        Mark mark;
+
+        // Walk back the journal to record the state at each position
+        for (int index = nrMarks - 1; index >= 0; index--) {
+            mark = marks[index];
+            if (index < nrMarks - 1 && marks[index + 1].position
+                == mark.position) {
+                checkpoints[index] = checkpoints[index + 1];
+                continue;
+            }
+            undo(mark.position);
+            checkpoints[index] = new Checkpoint(this);
+        }
+
+        current.restore(this);
+        Arrays.fill(journalValues, 0, journalSize, null);
+        journalSize = 0;
+        generation++;
+
+        for (int index = 0; index < nrMarks; index++) {
+            mark = marks[index];
+            if (index == 0 || checkpoints[index] != checkpoints[index - 1]) {
+                journal[journalSize] = CHECKPOINT;
+                journalValues[journalSize] = checkpoints[index];
+                journalSize++;
+            }
+            // The checkpoint is undone last when restoring this mark
+            mark.position = journalSize - 1;
+            mark.generation = generation;
+        }
+
+        journalLimit = journalSize + Math.max(MIN_JOURNAL_LIMIT, 2 * cost);
+    }
+
+    private void ensureCapacity(final int needed)
+    {
+        final int length = array.length;
+
+        if (needed > length)
+            array = Arrays.copyOf(array, Math.max(needed, length << 1));
+    }
+
+    private void reverse(final int start, final int end)
+    {
+        V tmp;
+
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+            tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /*
+     * A position in the journal
+     */
+    private static final class Mark
+    {
+        private int position;
+        private int generation;
+
+        private Mark(final int position, final int generation)
+        {
+            this.position = position;
+            this.generation = generation;
+        }
+    }
+
+    /*
+     * A copy of the state of a stack
+     */
+    private static final class Checkpoint
+    {
+        private final Object[] values;
+        private final long[] primitives;
+
+        private Checkpoint(final ReverseArrayValueStack<?> stack)
+        {
+            values = Arrays.copyOf(stack.array, stack.size);
+            primitives = stack.primitives == null ? null
+                : Arrays.copyOf(stack.primitives, stack.primitiveSize);
+        }
+
+        private <T> void restore(final ReverseArrayValueStack<T> stack)
+        {
+            final int newSize = values.length;
+
+            stack.ensureCapacity(newSize);
+            System.arraycopy(values, 0, stack.array, 0, newSize);
+            if (stack.size > newSize)
+                Arrays.fill(stack.array, newSize, stack.size, null);
+            stack.size = newSize;
+
+            if (primitives == null) {
+                stack.primitiveSize = 0;
+                return;
+            }
+
+            if (stack.primitives.length < primitives.length)
+                stack.primitives = Arrays.copyOf(primitives, Math.max(
+                    primitives.length, stack.primitives.length << 1));
+            else
+                System.arraycopy(primitives, 0, stack.primitives, 0,
+                    primitives.length);
+            stack.primitiveSize = primitives.length;
+        }
+    }
+
+    private static final class ReverseArrayIterator<T>
+        implements Iterator<T>
+    {
+        private final T[] array;
+
+        private int index;
+
+        private ReverseArrayIterator(final T[] array, final int size)
+        {
+            this.array = array;
+            index = size;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return index > 0;
+        }
+
+        @Override
+        public T next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return array[--index];
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -23,7 +23,9 @@ import javax.annotation.ParametersAreNonnullByDefault;
  * Stack implementation for use in parsers
  *
  * <p>A stack state can be saved and restored using {@link #takeSnapshot()} and
- * {@link #restoreSnapshot(Object)}.</p>
+ * {@link #restoreSnapshot(Object)}. A snapshot which will not be restored
+ * should be handed back using {@link #discardSnapshot(Object)}, so that
+ * implementations may release the resources associated with it.</p>
  *
  * <p>Stacks do not accept null values; if a null value is inserted, a {@link
  * NullPointerException} will be thrown.</p>
@@ -76,6 +78,19 @@ public interface ValueStack<V>
      */
     void restoreSnapshot(Object snapshot);
 
+    /**
+     * Tells the stack that a snapshot returned by {@link #takeSnapshot()}
+     * will not be restored
+     *
+     * <p>The default implementation does nothing.</p>
+     *
+     * @param snapshot a snapshot object previously returned by {@link
+     * #takeSnapshot()}
+     */
+    default void discardSnapshot(final Object snapshot)
+    {
+    }
+
     /**
      * Pushes the given value onto the stack. Equivalent to push(0, value).
      *
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.support;
+
+import java.util.Arrays;
+
+/**
+ * A rule local variable holding an unboxed {@code boolean}
+ *
+ * <p>This is the primitive counterpart of a {@link Var}: each execution frame
+ * of the rule starts with the initial value given at construction time.
+ * Neither the value nor the values of outer frames are ever boxed.</p>
+ *
+ * @see FramedVar
+ */
+public class BooleanVar
+    extends PrimitiveVar
+{
+    private final boolean initialValue;
+
+    private boolean value;
+    private boolean[] frames = new boolean[INITIAL_FRAMES];
+
+    /**
+     * Initializes a new BooleanVar with false as an initial value
+     */
+    public BooleanVar()
+    {
+        this(false);
+    }
+
+    /**
+     * Initializes a new BooleanVar with the given initial value
+     *
+     * @param initialValue the initial value of each frame
+     */
+    public BooleanVar(final boolean initialValue)
+    {
+        this.initialValue = initialValue;
+        value = initialValue;
+    }
+
+    /**
+     * Gets the value of the current frame
+     *
+     * @return the value
+     */
+    public final boolean get()
+    {
+        return value;
+    }
+
+    /**
+     * Sets the value of the current frame
+     *
+     * @param value the value
+     * @return true
+     */
+    public final boolean set(final boolean value)
+    {
+        this.value = value;
+        return true;
+    }
+
+    /**
+     * Negates the value of the current frame
+     *
+     * @return true
+     */
+    public final boolean toggle()
+    {
+        value = !value;
+        return true;
+    }
+
+    @Override
+    public final boolean resetFrame()
+    {
+        value = initialValue;
+        return true;
+    }
+
+    @Override
+    final void saveFrame(final int index)
+    {
+        if (index == frames.length)
+            frames = Arrays.copyOf(frames, index << 1);
+        frames[index] = value;
+    }
+
+    @Override
+    final void restoreFrame(final int index)
+    {
+        value = frames[index];
+    }
+
+    @Override
+    final String valueString()
+    {
+        return Boolean.toString(value);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.support;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Utility methods to parse numbers from a range of a {@link CharSequence}
+ *
+ * <p>Unlike {@link Integer#parseInt(String)} and friends, these methods do not
+ * require the text to be extracted first; when used over an input buffer, they
+ * therefore allocate nothing.</p>
+ *
+ * <p>Only ASCII digits are recognized.</p>
+ */
+@ParametersAreNonnullByDefault
+public final class CharSequences
+{
+    /*
+     * Powers of ten which are exactly representable as doubles
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /*
+     * Number of decimal digits which always fit in the 53 bits of a double's
+     * mantissa
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /*
+     * Above that, we let the JDK compute the exponent
+     */
+    private static final int MAX_EXPONENT_DIGITS = 5;
+
+    private CharSequences()
+    {
+    }
+
+    /**
+     * Parse a range of a char sequence as a signed decimal int
+     *
+     * <p>The accepted syntax is the same as {@link Integer#parseInt(String)}:
+     * an optional sign followed by one or more digits.</p>
+     *
+     * @param seq the char sequence
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the value
+     *
+     * @throws NumberFormatException invalid syntax, or value out of range
+     */
+    public static int parseInt(final CharSequence seq, final int start,
+        final int end)
+    {
+        return (int) parse(seq, start, end, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parse a range of a char sequence as a signed decimal long
+     *
+     * @param seq the char sequence
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the value
+     *
+     * @throws NumberFormatException invalid syntax, or value out of range
+     *
+     * @see #parseInt(CharSequence, int, int)
+     */
+    public static long parseLong(final CharSequence seq, final int start,
+        final int end)
+    {
+        return parse(seq, start, end, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parse a range of a char sequence as a double
+     *
+     * <p>The result is always the same as what {@link
+     * Double#parseDouble(String)} returns for the same text. Plain decimal
+     * notations with at most 15 significant digits, and a small enough
+     * exponent, are computed directly (and exactly); other inputs are handed
+     * over to the JDK.</p>
+     *
+     * @param seq the char sequence
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the value
+     *
+     * @throws NumberFormatException invalid syntax
+     */
+    public static double parseDouble(final CharSequence seq, final int start,
+        final int end)
+    {
+        int index = start;
+        boolean negative = false;
+        char c;
+
+        if (index < end) {
+            c = seq.charAt(index);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                index++;
+            }
+        }
+
+        long mantissa = 0L;
+        int nrDigits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+
+        // Integral part
+        while (index < end) {
+            c = seq.charAt(index);
+            if (c < '0' || c > '9')
+                break;
+            index++;
+            sawDigit = true;
+            if (mantissa == 0L && c == '0')
+                continue;
+            if (++nrDigits > MAX_EXACT_DIGITS)
+                return slowParseDouble(seq, start, end);
+            mantissa = mantissa * 10L + c - '0';
+        }
+
+        // Fractional part
+        if (index < end && seq.charAt(index) == '.') {
+            index++;
+            while (index < end) {
+                c = seq.charAt(index);
+                if (c < '0' || c > '9')
+                    break;
+                index++;
+                sawDigit = true;
+                exponent--;
+                if (mantissa == 0L && c == '0')
+                    continue;
+                if (++nrDigits > MAX_EXACT_DIGITS)
+                    return slowParseDouble(seq, start, end);
+                mantissa = mantissa * 10L + c - '0';
+            }
+        }
+
+        if (!sawDigit)
+            return slowParseDouble(seq, start, end);
+
+        // Exponent
+        if (index < end && (seq.charAt(index) | 0x20) == 'e') {
+            index++;
+            boolean negativeExponent = false;
+            if (index < end) {
+                c = seq.charAt(index);
+                if (c == '-' || c == '+') {
+                    negativeExponent = c == '-';
+                    index++;
+                }
+            }
+            final int expStart = index;
+            int exp = 0;
+            while (index < end) {
+                c = seq.charAt(index);
+                if (c < '0' || c > '9')
+                    break;
+                index++;
+                exp = exp * 10 + c - '0';
+                if (index - expStart > MAX_EXPONENT_DIGITS)
+                    return slowParseDouble(seq, start, end);
+            }
+            if (index == expStart)
+                return slowParseDouble(seq, start, end);
+            exponent += negativeExponent ? -exp : exp;
+        }
+
+        if (index != end)
+            return slowParseDouble(seq, start, end);
+
+        if (mantissa == 0L)
+            return negative ? -0.0 : 0.0;
+
+        if (exponent < -22 || exponent > 22)
+            return slowParseDouble(seq, start, end);
+
+        final double value = exponent >= 0
+            ? mantissa * POWERS_OF_TEN[exponent]
+            : mantissa / POWERS_OF_TEN[-exponent];
+
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(final CharSequence seq,
+        final int start, final int end)
+    {
+        return Double.parseDouble(seq.subSequence(start, end).toString());
+    }
+
+    private static long parse(final CharSequence seq, final int start,
+        final int end, final long max)
+    {
+        if (start >= end)
+            throw numberFormatException(seq, start, end);
+
+        int index = start;
+        boolean negative = false;
+        final char first = seq.charAt(index);
+
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++index == end)
+                throw numberFormatException(seq, start, end);
+        }
+
+        // Accumulate negatively, as the negative range is the largest
+        final long limit = negative ? -max - 1L : -max;
+        final long multiplyLimit = limit / 10L;
+        long result = 0L;
+        int digit;
+
+        while (index < end) {
+            digit = seq.charAt(index++) - '0';
+            if (digit < 0 || digit > 9)
+                throw numberFormatException(seq, start, end);
+            if (result < multiplyLimit)
+                throw numberFormatException(seq, start, end);
+            result *= 10L;
+            if (result < limit + digit)
+                throw numberFormatException(seq, start, end);
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    @Nonnull
+    private static NumberFormatException numberFormatException(
+        final CharSequence seq, final int start, final int end)
+    {
+        return new NumberFormatException("For input string: \""
+            + seq.subSequence(start, end) + '"');
+    }
+}
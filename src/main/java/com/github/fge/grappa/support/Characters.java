@@ -16,31 +16,62 @@
 
 package com.github.fge.grappa.support;
 
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import java.util.Arrays;
 import java.util.Objects;
 
 /**
- * An immutable, set-like aggregation of (relatively few) characters that allows
- * for an inverted semantic ("all chars except these few").
+ * An immutable set of characters
+ *
+ * <p>Sets are stored as sorted ranges of characters, and support union,
+ * intersection and complement; they can also be built from Unicode general
+ * categories (see {@link #ofCategory(String)}).</p>
+ *
+ * <p>Membership tests are done in constant time for ASCII characters (using
+ * a 128-bit mask) and for sets with many ranges (using a bitset of all
+ * {@code char}s); other sets, which have few ranges, use a binary search over
+ * these ranges.</p>
+ *
+ * <p>A set whose complement is smaller than itself is said to be
+ * <em>subtractive</em> ("all chars except these few"); see {@link
+ * #getChars()}.</p>
  */
+@Immutable
 public final class Characters
 {
-    private static final char[] NO_CHARS = new char[0];
+    private static final int NR_CHARS = Character.MAX_VALUE + 1;
+    private static final int MAX_RANGES = 16;
+    private static final int MAX_DISPLAYED = 32;
+
+    private static final char[] NO_RANGES = new char[0];
 
     /**
      * The empty Characters set
      */
-    public static final Characters NONE = new Characters(false, NO_CHARS);
+    public static final Characters NONE = new Characters(NO_RANGES);
 
     /**
      * The Characters set including all character.
      */
-    public static final Characters ALL = new Characters(true, NO_CHARS);
+    public static final Characters ALL
+        = new Characters(new char[] { 0, Character.MAX_VALUE });
 
-    // if the set is subtractive its semantics change from "includes all
-    // characters in the set" to "includes all characters not in the set"
+    /*
+     * Inclusive ranges: ranges[2n] is the lower bound of range n, ranges[2n+1]
+     * its upper bound. Ranges are sorted, and neither overlap nor touch.
+     */
+    private final char[] ranges;
+    private final int size;
     private final boolean subtractive;
-    private final char[] chars;
+
+    private final long asciiLow;
+    private final long asciiHigh;
+    @Nullable
+    private final long[] bits;
 
     /**
      * Creates a new Characters instance containing only the given char.
@@ -50,7 +81,7 @@ public final class Characters
      */
     public static Characters of(final char c)
     {
-        return new Characters(false, new char[]{ c });
+        return new Characters(new char[] { c, c });
     }
 
     /**
@@ -66,7 +97,7 @@ public final class Characters
             return NONE;
         final char[] array = Arrays.copyOf(chars, length);
         Arrays.sort(array);
-        return new Characters(false, array);
+        return fromSortedChars(array);
     }
 
     /**
@@ -81,25 +112,96 @@ public final class Characters
     }
 
     /**
-     * Creates a new Characters instance containing all characters minus the given ones.
+     * Creates a new Characters instance containing all characters minus the
+     * given ones.
      *
      * @param chars the chars to NOT include
      * @return a new Characters object
      */
     public static Characters allBut(final char... chars)
     {
-        final int length = chars.length;
-        if (length == 0)
-            return ALL;
-        final char[] array = Arrays.copyOf(chars, length);
-        Arrays.sort(array);
-        return new Characters(true, array);
+        return of(chars).complement();
     }
 
-    private Characters(final boolean subtractive, final char[] chars)
+    /**
+     * Creates a new Characters instance containing an inclusive range of
+     * characters
+     *
+     * @param low the lower bound
+     * @param high the upper bound
+     * @return a new Characters object
+     * @throws IllegalArgumentException upper bound is lower than lower bound
+     */
+    public static Characters range(final char low, final char high)
     {
-        this.subtractive = subtractive;
-        this.chars = Objects.requireNonNull(chars, "chars");
+        Preconditions.checkArgument(low <= high,
+            "upper bound is lower than lower bound");
+        return new Characters(new char[] { low, high });
+    }
+
+    /**
+     * Creates a new Characters instance containing all characters of a
+     * Unicode general category
+     *
+     * <p>The name is either a category ({@code "Lu"}, {@code "Nd"}, etc) or a
+     * category group ({@code "L"}, {@code "N"}, etc), as in the {@code
+     * \p{...}} construct of regular expressions. Since a Characters set is a
+     * set of {@code char}s, only characters of the Basic Multilingual Plane
+     * are taken into account.</p>
+     *
+     * @param name the name of the category
+     * @return a Characters object
+     * @throws IllegalArgumentException unknown category
+     *
+     * @see Character#getType(char)
+     */
+    public static Characters ofCategory(@Nonnull final String name)
+    {
+        Objects.requireNonNull(name);
+        return Categories.get(name);
+    }
+
+    private static Characters fromSortedChars(final char[] chars)
+    {
+        final char[] ret = new char[2 * chars.length];
+        int count = 0;
+
+        for (final char c: chars) {
+            if (count > 0 && c <= ret[count - 1] + 1) {
+                ret[count - 1] = c;
+                continue;
+            }
+            ret[count++] = c;
+            ret[count++] = c;
+        }
+
+        return new Characters(Arrays.copyOf(ret, count));
+    }
+
+    private Characters(final char[] ranges)
+    {
+        this.ranges = ranges;
+
+        int count = 0;
+        for (int i = 0; i < ranges.length; i += 2)
+            count += ranges[i + 1] - ranges[i] + 1;
+        size = count;
+        subtractive = size > NR_CHARS - size;
+
+        long low = 0L;
+        long high = 0L;
+        for (char c = 0; c < 128; c++) {
+            if (!inRanges(c))
+                continue;
+            if (c < 64)
+                low |= 1L << c;
+            else
+                high |= 1L << c;
+        }
+        asciiLow = low;
+        asciiHigh = high;
+
+        bits = ranges.length / 2 > MAX_RANGES ? toBits(ranges) : null;
     }
 
     /**
@@ -112,13 +214,32 @@ public final class Characters
 
     /**
      * Returns the characters in this set, if it is additive.
-     * If the set is subtractive the method returns the characters <b>not</b> in the set.
+     * If the set is subtractive the method returns the characters <b>not</b>
+     * in the set.
      *
      * @return the characters
      */
     public char[] getChars()
     {
-        return chars;
+        final char[] source = subtractive ? complementRanges(ranges) : ranges;
+        final char[] ret = new char[subtractive ? NR_CHARS - size : size];
+        int index = 0;
+
+        for (int i = 0; i < source.length; i += 2)
+            for (int c = source[i]; c <= source[i + 1]; c++)
+                ret[index++] = (char) c;
+
+        return ret;
+    }
+
+    /**
+     * Returns the number of characters in this set
+     *
+     * @return the number of characters
+     */
+    public int size()
+    {
+        return size;
     }
 
     /**
@@ -129,17 +250,117 @@ public final class Characters
      */
     public boolean contains(final char c)
     {
-        final int index = Arrays.binarySearch(chars, c);
-        return index < 0 == subtractive;
+        if (c < 64)
+            return (asciiLow & 1L << c) != 0L;
+        if (c < 128)
+            return (asciiHigh & 1L << c) != 0L;
+        if (bits != null)
+            return (bits[c >>> 6] & 1L << c) != 0L;
+        return inRanges(c);
+    }
+
+    /**
+     * Returns the union of this set and another set
+     *
+     * @param other the other set
+     * @return a new set
+     */
+    public Characters union(@Nonnull final Characters other)
+    {
+        Objects.requireNonNull(other);
+
+        final char[] a = ranges;
+        final char[] b = other.ranges;
+        final char[] ret = new char[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        char low, high;
+
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] <= b[j]) {
+                low = a[i];
+                high = a[i + 1];
+                i += 2;
+            } else {
+                low = b[j];
+                high = b[j + 1];
+                j += 2;
+            }
+            if (count > 0 && low <= ret[count - 1] + 1) {
+                if (high > ret[count - 1])
+                    ret[count - 1] = high;
+                continue;
+            }
+            ret[count++] = low;
+            ret[count++] = high;
+        }
+
+        return new Characters(Arrays.copyOf(ret, count));
+    }
+
+    /**
+     * Returns the intersection of this set and another set
+     *
+     * @param other the other set
+     * @return a new set
+     */
+    public Characters intersection(@Nonnull final Characters other)
+    {
+        Objects.requireNonNull(other);
+
+        final char[] a = ranges;
+        final char[] b = other.ranges;
+        final char[] ret = new char[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        char low, high;
+
+        while (i < a.length && j < b.length) {
+            low = (char) Math.max(a[i], b[j]);
+            high = (char) Math.min(a[i + 1], b[j + 1]);
+            if (low <= high) {
+                ret[count++] = low;
+                ret[count++] = high;
+            }
+            if (a[i + 1] < b[j + 1])
+                i += 2;
+            else
+                j += 2;
+        }
+
+        return new Characters(Arrays.copyOf(ret, count));
+    }
+
+    /**
+     * Returns the complement of this set
+     *
+     * @return a new set
+     */
+    public Characters complement()
+    {
+        return new Characters(complementRanges(ranges));
     }
 
     @Override
     public String toString()
     {
         final StringBuilder sb = new StringBuilder();
+        final char[] displayed = subtractive ? complementRanges(ranges)
+            : ranges;
+        final int count = subtractive ? NR_CHARS - size : size;
+
         sb.append(subtractive ? "![" : "[");
-        for (final char c : chars) {
-            sb.append(Chars.escape(c));
+        for (int i = 0; i < displayed.length; i += 2) {
+            if (count <= MAX_DISPLAYED) {
+                for (int c = displayed[i]; c <= displayed[i + 1]; c++)
+                    sb.append(Chars.escape((char) c));
+                continue;
+            }
+            sb.append(Chars.escape(displayed[i]));
+            if (displayed[i + 1] != displayed[i])
+                sb.append("..").append(Chars.escape(displayed[i + 1]));
         }
         sb.append(']');
         return sb.toString();
@@ -153,13 +374,154 @@ public final class Characters
         if (!(obj instanceof Characters))
             return false;
         final Characters other = (Characters) obj;
-        return subtractive == other.subtractive
-            && Arrays.equals(chars, other.chars);
+        return Arrays.equals(ranges, other.ranges);
     }
 
     @Override
     public int hashCode()
     {
-        return Arrays.hashCode(chars) + (subtractive ? 31 : 0);
+        return Arrays.hashCode(ranges);
+    }
+
+    private boolean inRanges(final char c)
+    {
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        int middle;
+
+        while (low <= high) {
+            middle = (low + high) >>> 1;
+            if (c < ranges[2 * middle])
+                high = middle - 1;
+            else if (c > ranges[2 * middle + 1])
+                low = middle + 1;
+            else
+                return true;
+        }
+
+        return false;
+    }
+
+    private static char[] complementRanges(final char[] ranges)
+    {
+        final char[] ret = new char[ranges.length + 2];
+        int count = 0;
+        int next = 0;
+
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                ret[count++] = (char) next;
+                ret[count++] = (char) (ranges[i] - 1);
+            }
+            next = ranges[i + 1] + 1;
+        }
+
+        if (next < NR_CHARS) {
+            ret[count++] = (char) next;
+            ret[count++] = Character.MAX_VALUE;
+        }
+
+        return Arrays.copyOf(ret, count);
+    }
+
+    private static long[] toBits(final char[] ranges)
+    {
+        final long[] ret = new long[NR_CHARS / 64];
+
+        for (int i = 0; i < ranges.length; i += 2)
+            for (int c = ranges[i]; c <= ranges[i + 1]; c++)
+                ret[c >>> 6] |= 1L << c;
+
+        return ret;
+    }
+
+    /*
+     * Unicode general categories, computed once for all chars on first use
+     */
+    private static final class Categories
+    {
+        private static final String[] NAMES = new String[31];
+        private static final Characters[] CATEGORIES = new Characters[31];
+
+        static {
+            NAMES[Character.UNASSIGNED] = "Cn";
+            NAMES[Character.UPPERCASE_LETTER] = "Lu";
+            NAMES[Character.LOWERCASE_LETTER] = "Ll";
+            NAMES[Character.TITLECASE_LETTER] = "Lt";
+            NAMES[Character.MODIFIER_LETTER] = "Lm";
+            NAMES[Character.OTHER_LETTER] = "Lo";
+            NAMES[Character.NON_SPACING_MARK] = "Mn";
+            NAMES[Character.ENCLOSING_MARK] = "Me";
+            NAMES[Character.COMBINING_SPACING_MARK] = "Mc";
+            NAMES[Character.DECIMAL_DIGIT_NUMBER] = "Nd";
+            NAMES[Character.LETTER_NUMBER] = "Nl";
+            NAMES[Character.OTHER_NUMBER] = "No";
+            NAMES[Character.SPACE_SEPARATOR] = "Zs";
+            NAMES[Character.LINE_SEPARATOR] = "Zl";
+            NAMES[Character.PARAGRAPH_SEPARATOR] = "Zp";
+            NAMES[Character.CONTROL] = "Cc";
+            NAMES[Character.FORMAT] = "Cf";
+            NAMES[Character.PRIVATE_USE] = "Co";
+            NAMES[Character.SURROGATE] = "Cs";
+            NAMES[Character.DASH_PUNCTUATION] = "Pd";
+            NAMES[Character.START_PUNCTUATION] = "Ps";
+            NAMES[Character.END_PUNCTUATION] = "Pe";
+            NAMES[Character.CONNECTOR_PUNCTUATION] = "Pc";
+            NAMES[Character.OTHER_PUNCTUATION] = "Po";
+            NAMES[Character.MATH_SYMBOL] = "Sm";
+            NAMES[Character.CURRENCY_SYMBOL] = "Sc";
+            NAMES[Character.MODIFIER_SYMBOL] = "Sk";
+            NAMES[Character.OTHER_SYMBOL] = "So";
+            NAMES[Character.INITIAL_QUOTE_PUNCTUATION] = "Pi";
+            NAMES[Character.FINAL_QUOTE_PUNCTUATION] = "Pf";
+
+            final char[][] ranges = new char[NAMES.length][];
+            final int[] counts = new int[NAMES.length];
+            int type;
+            int count;
+
+            for (int c = 0; c < NR_CHARS; c++) {
+                type = Character.getType(c);
+                count = counts[type];
+                if (ranges[type] == null)
+                    ranges[type] = new char[64];
+                if (count > 0 && ranges[type][count - 1] == c - 1) {
+                    ranges[type][count - 1] = (char) c;
+                    continue;
+                }
+                if (count == ranges[type].length)
+                    ranges[type] = Arrays.copyOf(ranges[type], 2 * count);
+                ranges[type][count] = (char) c;
+                ranges[type][count + 1] = (char) c;
+                counts[type] = count + 2;
+            }
+
+            for (int i = 0; i < NAMES.length; i++)
+                CATEGORIES[i] = ranges[i] == null ? NONE
+                    : new Characters(Arrays.copyOf(ranges[i], counts[i]));
+        }
+
+        private Categories()
+        {
+        }
+
+        private static Characters get(final String name)
+        {
+            final int length = name.length();
+            Characters ret = NONE;
+            boolean found = false;
+
+            for (int i = 0; i < NAMES.length; i++) {
+                if (length == 0 || length > 2 || NAMES[i] == null
+                    || !NAMES[i].startsWith(name))
+                    continue;
+                ret = ret.union(CATEGORIES[i]);
+                found = true;
+            }
+
+            Preconditions.checkArgument(found, "unknown Unicode category %s",
+                name);
+            return ret;
+        }
     }
 }
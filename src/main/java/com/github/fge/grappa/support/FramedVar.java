@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.support;
+
+import com.github.fge.grappa.matchers.wrap.VarFramingMatcher;
+
+/**
+ * A rule local variable with one value per execution frame of its rule
+ *
+ * <p>When a rule method declares local variables of a type implementing this
+ * interface, the rule is wrapped into a {@link VarFramingMatcher}, which
+ * enters a new frame for each variable before the rule is run, and exits it
+ * afterwards.</p>
+ *
+ * <p>Implementations store the values of outer frames in plain arrays indexed
+ * by level, so that entering and exiting frames does not allocate once the
+ * deepest level has been reached. See {@link Var} for object values, and
+ * {@link IntVar}, {@link LongVar} and {@link BooleanVar} for unboxed primitive
+ * values.</p>
+ */
+public interface FramedVar
+{
+    /**
+     * Gets the name of this variable
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Sets the name of this variable
+     *
+     * @param name the name
+     */
+    void setName(String name);
+
+    /**
+     * Returns the current frame level of this variable, the very first level
+     * corresponding to zero.
+     *
+     * @return the current level
+     */
+    int getLevel();
+
+    /**
+     * Provides a new frame for the variable.
+     *
+     * <p>Do not use manually!</p>
+     *
+     * @return true
+     */
+    boolean enterFrame();
+
+    /**
+     * Exits a frame previously entered with {@link #enterFrame()}.
+     *
+     * <p>Do not use manually!</p>
+     *
+     * @return true
+     */
+    boolean exitFrame();
+
+    /**
+     * Reinitializes the value of the variable without entering a new frame
+     *
+     * <p>This is used instead of {@link #enterFrame()} and {@link #exitFrame()}
+     * for rules which cannot be reentered while they run (that is, rules which
+     * are not recursive): there is then never an outer value to save.</p>
+     *
+     * <p>Do not use manually!</p>
+     *
+     * @return true
+     */
+    boolean resetFrame();
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.support;
+
+import java.util.Arrays;
+
+/**
+ * A rule local variable holding an unboxed {@code int}
+ *
+ * <p>This is the primitive counterpart of a {@link Var}: each execution frame
+ * of the rule starts with the initial value given at construction time.
+ * Neither the value nor the values of outer frames are ever boxed.</p>
+ *
+ * @see FramedVar
+ */
+public class IntVar
+    extends PrimitiveVar
+{
+    private final int initialValue;
+
+    private int value;
+    private int[] frames = new int[INITIAL_FRAMES];
+
+    /**
+     * Initializes a new IntVar with 0 as an initial value
+     */
+    public IntVar()
+    {
+        this(0);
+    }
+
+    /**
+     * Initializes a new IntVar with the given initial value
+     *
+     * @param initialValue the initial value of each frame
+     */
+    public IntVar(final int initialValue)
+    {
+        this.initialValue = initialValue;
+        value = initialValue;
+    }
+
+    /**
+     * Gets the value of the current frame
+     *
+     * @return the value
+     */
+    public final int get()
+    {
+        return value;
+    }
+
+    /**
+     * Sets the value of the current frame
+     *
+     * @param value the value
+     * @return true
+     */
+    public final boolean set(final int value)
+    {
+        this.value = value;
+        return true;
+    }
+
+    /**
+     * Adds a value to the value of the current frame
+     *
+     * @param delta the value to add
+     * @return true
+     */
+    public final boolean add(final int delta)
+    {
+        value += delta;
+        return true;
+    }
+
+    /**
+     * Increments the value of the current frame
+     *
+     * @return true
+     */
+    public final boolean increment()
+    {
+        value++;
+        return true;
+    }
+
+    /**
+     * Decrements the value of the current frame
+     *
+     * @return true
+     */
+    public final boolean decrement()
+    {
+        value--;
+        return true;
+    }
+
+    @Override
+    public final boolean resetFrame()
+    {
+        value = initialValue;
+        return true;
+    }
+
+    @Override
+    final void saveFrame(final int index)
+    {
+        if (index == frames.length)
+            frames = Arrays.copyOf(frames, index << 1);
+        frames[index] = value;
+    }
+
+    @Override
+    final void restoreFrame(final int index)
+    {
+        value = frames[index];
+    }
+
+    @Override
+    final String valueString()
+    {
+        return Integer.toString(value);
+    }
+}
@@ -20,12 +20,63 @@ import com.google.common.base.MoreObjects;
 
 /**
  * Simple container class for a line/column position in the input text.
+ *
+ * <p>When positions are computed often (for instance, in actions), the
+ * allocation of one instance per position can be avoided by using the packed
+ * form: a {@code long} with the line in the upper 32 bits and the column in
+ * the lower 32 bits. See {@link #pack(int, int)}, {@link #lineOf(long)} and
+ * {@link #columnOf(long)}.</p>
  */
 public final class Position
 {
     private final int line;
     private final int column;
 
+    /**
+     * Pack a line and column into a single {@code long}
+     *
+     * @param line the line
+     * @param column the column
+     * @return the packed position
+     */
+    public static long pack(final int line, final int column)
+    {
+        return (long) line << 32 | column & 0xffffffffL;
+    }
+
+    /**
+     * Return the line of a packed position
+     *
+     * @param packed the packed position
+     * @return the line
+     */
+    public static int lineOf(final long packed)
+    {
+        return (int) (packed >>> 32);
+    }
+
+    /**
+     * Return the column of a packed position
+     *
+     * @param packed the packed position
+     * @return the column
+     */
+    public static int columnOf(final long packed)
+    {
+        return (int) packed;
+    }
+
+    /**
+     * Create a position from its packed form
+     *
+     * @param packed the packed position
+     * @return a new position
+     */
+    public static Position unpack(final long packed)
+    {
+        return new Position(lineOf(packed), columnOf(packed));
+    }
+
     public Position(final int line, final int column)
     {
         this.line = line;
@@ -42,6 +93,17 @@ public final class Position
         return column;
     }
 
+    /**
+     * Return the packed form of this position
+     *
+     * @return the packed position
+     * @see #pack(int, int)
+     */
+    public long toPacked()
+    {
+        return pack(line, column);
+    }
+
     @Override
     public boolean equals(final Object obj)
     {
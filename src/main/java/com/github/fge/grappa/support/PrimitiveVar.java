@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.support;
+
+import java.util.Optional;
+
+/**
+ * Frame bookkeeping common to primitive variables
+ *
+ * <p>Implementations save the value of the frame being left at a given index
+ * of an array of their primitive type, and restore it from there.</p>
+ */
+abstract class PrimitiveVar
+    implements FramedVar
+{
+    static final int INITIAL_FRAMES = 8;
+
+    private int level;
+    private String name;
+
+    @Override
+    public final String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public final void setName(final String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public final int getLevel()
+    {
+        return level;
+    }
+
+    @Override
+    public final boolean enterFrame()
+    {
+        if (level > 0)
+            saveFrame(level - 1);
+        level++;
+        return resetFrame();
+    }
+
+    @Override
+    public final boolean exitFrame()
+    {
+        if (--level > 0)
+            restoreFrame(level - 1);
+        return true;
+    }
+
+    /**
+     * Save the current value at a given index
+     *
+     * @param index the index
+     */
+    abstract void saveFrame(int index);
+
+    /**
+     * Restore the current value from a given index
+     *
+     * @param index the index
+     */
+    abstract void restoreFrame(int index);
+
+    /**
+     * Return the current value as a string
+     *
+     * @return the current value
+     */
+    abstract String valueString();
+
+    @Override
+    public final String toString()
+    {
+        return Optional.ofNullable(name).orElse(valueString());
+    }
+}
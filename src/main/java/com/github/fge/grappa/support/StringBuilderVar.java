@@ -16,9 +16,21 @@
 
 package com.github.fge.grappa.support;
 
+import com.github.fge.grappa.buffers.InputBuffer;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
 /**
  * Simple specialization of a {@link Var} for StringBuilders.
  * Provides a few convenience helper methods.
+ *
+ * <p>Instances created using {@link #pooled()} recycle their builders: each
+ * frame starts with an empty builder, which is the same instance for all
+ * frames at the same level. Only as many builders as the maximum recursion
+ * depth of the rule are ever allocated, and none is lost on backtracking.
+ * This also means that a reference to the builder of a frame must not be
+ * kept after the frame exits; use {@link #getString()} instead.</p>
  */
 // TODO: value can be null, replace with empty StringBuilder
 public class StringBuilderVar
@@ -31,6 +43,22 @@ public class StringBuilderVar
     {
     }
 
+    private StringBuilderVar(final BuilderPool pool)
+    {
+        super(pool);
+        pool.var = this;
+    }
+
+    /**
+     * Create a new variable recycling its builders
+     *
+     * @return a new variable
+     */
+    public static StringBuilderVar pooled()
+    {
+        return new StringBuilderVar(new BuilderPool());
+    }
+
     /**
      * Initializes a new StringBuilderVar with the given initial StringBuilder instance.
      *
@@ -128,6 +156,28 @@ public class StringBuilderVar
         return this;
     }
 
+    /**
+     * Appends a range of characters of an input buffer
+     *
+     * <p>Characters are copied directly from the buffer, without creating an
+     * intermediate {@link String}.</p>
+     *
+     * @param buffer the buffer
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return true
+     *
+     * @see InputBuffer#appendTo(StringBuilder, int, int)
+     */
+    public boolean append(final InputBuffer buffer, final int start,
+        final int end)
+    {
+        if (get() == null)
+            set(new StringBuilder(end - start));
+        buffer.appendTo(get(), start, end);
+        return true;
+    }
+
     /**
      * Clears the contents of the wrapped StringBuilder.
      * If the instance is currently unintialized this method does nothing.
@@ -153,5 +203,30 @@ public class StringBuilderVar
             get().setLength(0);
         return this;
     }
-}
 
+    private static final class BuilderPool
+        implements Supplier<StringBuilder>
+    {
+        private StringBuilderVar var;
+        private StringBuilder[] builders = new StringBuilder[4];
+
+        @Override
+        public StringBuilder get()
+        {
+            final int level = var.getLevel();
+
+            if (level >= builders.length)
+                builders = Arrays.copyOf(builders, level << 1);
+
+            StringBuilder builder = builders[level];
+
+            if (builder == null) {
+                builder = new StringBuilder();
+                builders[level] = builder;
+            } else
+                builder.setLength(0);
+
+            return builder;
+        }
+    }
+}
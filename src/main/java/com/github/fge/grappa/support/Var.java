@@ -20,8 +20,7 @@ import com.github.fge.grappa.misc.Reference;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -45,13 +44,20 @@ import java.util.function.Supplier;
  * rule1()} running after {@code rule2()} will "see" this newly written value
  * (since values in Var objects are passed by reference).</p>
  *
+ * <p>For primitive values, prefer {@link IntVar}, {@link LongVar} or {@link
+ * BooleanVar}, which do not box.</p>
+ *
  * @param <T> the type wrapped by this Var
  */
 public class Var<T>
     extends Reference<T>
+    implements FramedVar
 {
+    private static final int INITIAL_FRAMES = 8;
+
     private final Supplier<T> supplier;
-    private final Deque<T> stack = new ArrayDeque<>();
+    // Values of outer frames, indexed by level
+    private Object[] frames = new Object[INITIAL_FRAMES];
     private int level;
     private String name;
 
@@ -92,6 +98,7 @@ public class Var<T>
      *
      * @return the name
      */
+    @Override
     public final String getName()
     {
         return name;
@@ -102,6 +109,7 @@ public class Var<T>
      *
      * @param name the name
      */
+    @Override
     public final void setName(final String name)
     {
         this.name = name;
@@ -113,6 +121,7 @@ public class Var<T>
      *
      * @return the current level
      */
+    @Override
     public final int getLevel()
     {
         return level;
@@ -125,11 +134,16 @@ public class Var<T>
      *
      * @return true
      */
+    @Override
     public final boolean enterFrame()
     {
-        if (level++ > 0)
-            stack.add(get());
-        return set(supplier.get());
+        if (level > 0) {
+            if (level > frames.length)
+                frames = Arrays.copyOf(frames, frames.length << 1);
+            frames[level - 1] = get();
+        }
+        level++;
+        return resetFrame();
     }
 
     /**
@@ -139,13 +153,23 @@ public class Var<T>
      *
      * @return true
      */
+    @SuppressWarnings("unchecked")
+    @Override
     public final boolean exitFrame()
     {
-        if (--level > 0)
-            set(stack.removeLast());
+        if (--level > 0) {
+            set((T) frames[level - 1]);
+            frames[level - 1] = null;
+        }
         return true;
     }
 
+    @Override
+    public final boolean resetFrame()
+    {
+        return set(supplier.get());
+    }
+
     @Override
     public final String toString()
     {
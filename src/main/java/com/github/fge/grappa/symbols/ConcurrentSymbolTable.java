@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.symbols;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link SymbolTable} which can be shared among threads
+ *
+ * <p>Symbols are spread over a fixed number of {@link HashSymbolTable}
+ * segments according to their hash code, and each segment is guarded by its
+ * own lock; threads looking up symbols of different segments do not contend.
+ * </p>
+ *
+ * <p>Ids are unique across the table, but since each segment allocates its
+ * own, they are not contiguous. The low bits of an id are the index of its
+ * segment, which leaves room for 2<sup>31</sup> divided by the number of
+ * segments symbols per segment; adding a symbol to a full segment throws an
+ * {@link IllegalStateException}.</p>
+ */
+@ThreadSafe
+public final class ConcurrentSymbolTable
+    implements SymbolTable
+{
+    private static final int DEFAULT_CONCURRENCY = 16;
+    private static final int MAX_CONCURRENCY = 1 << 16;
+
+    private final HashSymbolTable[] segments;
+    private final int bits;
+    private final int mask;
+
+    /**
+     * Constructor with a default concurrency level of 16
+     */
+    public ConcurrentSymbolTable()
+    {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param concurrency the expected number of threads using this table
+     * concurrently; rounded up to the next power of two
+     *
+     * @throws IllegalArgumentException concurrency level is not strictly
+     * positive, or greater than 65536
+     */
+    public ConcurrentSymbolTable(final int concurrency)
+    {
+        Preconditions.checkArgument(concurrency > 0,
+            "concurrency level must be strictly positive");
+        Preconditions.checkArgument(concurrency <= MAX_CONCURRENCY,
+            "concurrency level must not be greater than " + MAX_CONCURRENCY);
+
+        bits = 32 - Integer.numberOfLeadingZeros(concurrency - 1);
+        mask = (1 << bits) - 1;
+        segments = new HashSymbolTable[1 << bits];
+
+        // Local ids must leave room for the segment index in a positive int
+        final int segmentSize = (Integer.MAX_VALUE >>> bits) + 1;
+
+        for (int i = 0; i < segments.length; i++)
+            segments[i] = new HashSymbolTable(segmentSize);
+    }
+
+    @Override
+    public int symbolId(final CharSequence seq, final int start,
+        final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, seq.length());
+
+        final int hash = HashSymbolTable.hash(seq, start, end);
+        // Slots within a segment use the low bits of the hash; use high ones
+        final int index = hash * 0x9E3779B9 >>> 16 & mask;
+        final HashSymbolTable segment = segments[index];
+
+        final int localId;
+
+        synchronized (segment) {
+            localId = segment.symbolId(seq, start, end, hash);
+        }
+
+        return localId << bits | index;
+    }
+
+    @Nonnull
+    @Override
+    public String getSymbol(final int id)
+    {
+        if (id < 0)
+            throw new IndexOutOfBoundsException("invalid symbol id " + id);
+
+        final HashSymbolTable segment = segments[id & mask];
+
+        synchronized (segment) {
+            return segment.getSymbol(id >>> bits);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 0;
+
+        for (final HashSymbolTable segment: segments)
+            synchronized (segment) {
+                size += segment.size();
+            }
+
+        return size;
+    }
+}
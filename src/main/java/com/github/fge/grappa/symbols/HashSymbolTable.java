@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.symbols;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * A {@link SymbolTable} using open addressing
+ *
+ * <p>This implementation is not thread safe; use one instance per parse
+ * runner, or see {@link ConcurrentSymbolTable} for a table shared among
+ * threads.</p>
+ *
+ * <p>Ids are allocated sequentially, starting from 0. Slots only hold symbol
+ * ids; hash codes and strings are held in arrays indexed by id. A lookup of a symbol already in the table does not
+ * allocate.</p>
+ */
+@NotThreadSafe
+public final class HashSymbolTable
+    implements SymbolTable
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    /*
+     * Symbol ids plus one; 0 marks an empty slot. The length is a power of two
+     * and the table is kept at most half full.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+    private String[] symbols = new String[INITIAL_CAPACITY / 2];
+    private int size;
+
+    private final int maxSize;
+
+    public HashSymbolTable()
+    {
+        this(Integer.MAX_VALUE);
+    }
+
+    /*
+     * Used by ConcurrentSymbolTable, whose ids only have room for a limited
+     * number of symbols per segment
+     */
+    HashSymbolTable(final int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int symbolId(final CharSequence seq, final int start,
+        final int end)
+    {
+        Preconditions.checkPositionIndexes(start, end, seq.length());
+        return symbolId(seq, start, end, hash(seq, start, end));
+    }
+
+    @Nonnull
+    @Override
+    public String getSymbol(final int id)
+    {
+        Preconditions.checkElementIndex(id, size);
+        return symbols[id];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /*
+     * Same as String.hashCode(), over a range
+     */
+    static int hash(final CharSequence seq, final int start, final int end)
+    {
+        int hash = 0;
+
+        for (int index = start; index < end; index++)
+            hash = 31 * hash + seq.charAt(index);
+
+        return hash;
+    }
+
+    int symbolId(final CharSequence seq, final int start, final int end,
+        final int hash)
+    {
+        final int mask = slots.length - 1;
+
+        int slot = spread(hash) & mask;
+        int entry;
+        int id;
+
+        while ((entry = slots[slot]) != 0) {
+            id = entry - 1;
+            if (hashes[id] == hash && contentEquals(symbols[id], seq, start,
+                end))
+                return id;
+            slot = slot + 1 & mask;
+        }
+
+        if (size == maxSize)
+            throw new IllegalStateException("symbol table is full ("
+                + maxSize + " symbols)");
+
+        id = size++;
+
+        if (id == symbols.length) {
+            hashes = Arrays.copyOf(hashes, id << 1);
+            symbols = Arrays.copyOf(symbols, id << 1);
+        }
+
+        hashes[id] = hash;
+        /*
+         * Copy the characters which were hashed; subSequence() need not return
+         * these (see TokenInputBuffer)
+         */
+        symbols[id] = new StringBuilder(end - start).append(seq, start, end)
+            .toString();
+        slots[slot] = id + 1;
+
+        if (size << 1 > slots.length)
+            rehash();
+
+        return id;
+    }
+
+    private static int spread(final int hash)
+    {
+        return hash ^ hash >>> 16;
+    }
+
+    private static boolean contentEquals(final String symbol,
+        final CharSequence seq, final int start, final int end)
+    {
+        final int length = symbol.length();
+
+        if (length != end - start)
+            return false;
+
+        for (int i = 0; i < length; i++)
+            if (symbol.charAt(i) != seq.charAt(start + i))
+                return false;
+
+        return true;
+    }
+
+    private void rehash()
+    {
+        slots = new int[slots.length << 1];
+
+        final int mask = slots.length - 1;
+
+        int slot;
+
+        for (int id = 0; id < size; id++) {
+            slot = spread(hashes[id]) & mask;
+            while (slots[slot] != 0)
+                slot = slot + 1 & mask;
+            slots[slot] = id + 1;
+        }
+    }
+}
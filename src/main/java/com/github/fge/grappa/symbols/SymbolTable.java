@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.symbols;
+
+import com.github.fge.grappa.buffers.InputBuffer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A table of canonical strings (symbols)
+ *
+ * <p>A symbol table maps character sequences with the same contents to one
+ * canonical {@link String} instance, and to an int id, which is unique within
+ * the table. Symbols are never removed.</p>
+ *
+ * <p>Lookups are done over a range of a {@link CharSequence}, typically an
+ * {@link InputBuffer}: the hash code and the comparison with candidate
+ * symbols are computed directly over the characters of that range, and a new
+ * {@link String} is only created when the symbol is not in the table yet.
+ * Many occurrences of the same identifier in the input therefore end up as
+ * the same instance, which can be compared by identity.</p>
+ *
+ * @see HashSymbolTable
+ * @see ConcurrentSymbolTable
+ */
+@ParametersAreNonnullByDefault
+public interface SymbolTable
+{
+    /**
+     * Return the id of the symbol for a range of a character sequence
+     *
+     * <p>If the symbol is not in the table, it is added.</p>
+     *
+     * @param seq the sequence
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the id
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     * @throws IllegalStateException the symbol is not in the table, and the
+     * table cannot hold any more symbols
+     */
+    int symbolId(CharSequence seq, int start, int end);
+
+    /**
+     * Return the id of the symbol for a character sequence
+     *
+     * @param seq the sequence
+     * @return the id
+     *
+     * @see #symbolId(CharSequence, int, int)
+     */
+    default int symbolId(final CharSequence seq)
+    {
+        return symbolId(seq, 0, seq.length());
+    }
+
+    /**
+     * Return the canonical string for a range of a character sequence
+     *
+     * <p>If the symbol is not in the table, it is added.</p>
+     *
+     * @param seq the sequence
+     * @param start the start index (inclusive)
+     * @param end the end index (exclusive)
+     * @return the canonical string
+     *
+     * @throws IndexOutOfBoundsException indices are out of bounds
+     */
+    @Nonnull
+    default String symbol(final CharSequence seq, final int start,
+        final int end)
+    {
+        return getSymbol(symbolId(seq, start, end));
+    }
+
+    /**
+     * Return the canonical string for a character sequence
+     *
+     * @param seq the sequence
+     * @return the canonical string
+     *
+     * @see #symbol(CharSequence, int, int)
+     */
+    @Nonnull
+    default String symbol(final CharSequence seq)
+    {
+        return symbol(seq, 0, seq.length());
+    }
+
+    /**
+     * Return the symbol with a given id
+     *
+     * @param id the id
+     * @return the canonical string
+     *
+     * @throws IndexOutOfBoundsException no symbol has this id
+     */
+    @Nonnull
+    String getSymbol(int id);
+
+    /**
+     * Return the number of symbols in this table
+     *
+     * @return the number of symbols
+     */
+    int size();
+}
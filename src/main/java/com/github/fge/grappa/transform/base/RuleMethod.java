@@ -35,7 +35,7 @@ import org.objectweb.asm.tree.LabelNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.analysis.BasicValue;
-import com.github.fge.grappa.support.Var;
+import com.github.fge.grappa.support.FramedVar;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -328,10 +328,10 @@ public class RuleMethod
         final String signature, final Label start, final Label end,
         final int index)
     {
-        // only remember the local variables of Type com.github.fge.grappa.support.Var that are not parameters
+        // only remember the local variables of Type com.github.fge.grappa.support.FramedVar that are not parameters
         final Type type = Type.getType(desc);
         if (index > parameterCount
-            && Var.class.isAssignableFrom(getClassForType(type)))
+            && FramedVar.class.isAssignableFrom(getClassForType(type)))
             localVarVariables.add(new LocalVariableNode(name, desc, null, null,
                 null, index));
     }
@@ -16,6 +16,8 @@
 
 package com.github.fge.grappa.transform.generate;
 
+import com.github.fge.grappa.annotations.PureAction;
+import com.github.fge.grappa.misc.AsmUtils;
 import com.github.fge.grappa.transform.base.InstructionGraphNode;
 import com.github.fge.grappa.transform.base.InstructionGroup;
 import com.github.fge.grappa.transform.base.ParserClassNode;
@@ -24,6 +26,7 @@ import me.qmx.jitescript.util.CodegenUtils;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodInsnNode;
 import com.github.fge.grappa.run.context.Context;
 import com.github.fge.grappa.transform.runtime.BaseAction;
 import com.github.fge.grappa.transform.process.GroupClassGenerator;
@@ -63,6 +66,35 @@ public final class ActionClassGenerator
         return Type.getType(BaseAction.class);
     }
 
+    /*
+     * An action is pure if all the methods it calls on ContextAware instances
+     * (that is, the only way it has to reach the value stack) are
+     */
+    @Override
+    protected void generateAnnotations(final InstructionGroup group,
+        final ClassWriter cw)
+    {
+        if (isPure(group))
+            cw.visitAnnotation(Type.getDescriptor(PureAction.class), true)
+                .visitEnd();
+    }
+
+    private static boolean isPure(final InstructionGroup group)
+    {
+        MethodInsnNode insn;
+
+        for (final InstructionGraphNode node: group.getNodes()) {
+            if (!node.isCallOnContextAware())
+                continue;
+            insn = (MethodInsnNode) node.getInstruction();
+            if (!AsmUtils.getClassMethod(insn.owner, insn.name, insn.desc)
+                .isAnnotationPresent(PureAction.class))
+                return false;
+        }
+
+        return true;
+    }
+
     @Override
     protected void generateMethod(final InstructionGroup group,
         final ClassWriter cw)
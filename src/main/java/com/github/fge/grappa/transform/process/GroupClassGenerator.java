@@ -16,6 +16,7 @@
 
 package com.github.fge.grappa.transform.process;
 
+import com.github.fge.grappa.misc.AsmUtils;
 import com.github.fge.grappa.run.context.Context;
 import com.github.fge.grappa.run.context.ContextAware;
 import com.github.fge.grappa.transform.CodeBlock;
@@ -34,6 +35,7 @@ import org.objectweb.asm.tree.FieldInsnNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.VarInsnNode;
 
 import javax.annotation.Nonnull;
@@ -116,6 +118,7 @@ public abstract class GroupClassGenerator
         final ClassWriter classWriter
             = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
         generateClassBasics(group, classWriter);
+        generateAnnotations(group, classWriter);
         generateFields(group, classWriter);
         generateConstructor(classWriter);
         generateMethod(group, classWriter);
@@ -133,6 +136,11 @@ public abstract class GroupClassGenerator
 
     protected abstract Type getBaseType();
 
+    protected void generateAnnotations(final InstructionGroup group,
+        final ClassWriter cw)
+    {
+    }
+
     private static void generateFields(final InstructionGroup group,
         final ClassWriter cw)
     {
@@ -193,15 +201,29 @@ public abstract class GroupClassGenerator
                 instructions.insertBefore(insn, new InsnNode(DUP));
             }
 
-            block.clear()
-                .aload(1)
-                .invokeinterface(CodegenUtils.p(ContextAware.class),
-                    "setContext", CodegenUtils.sig(void.class, Context.class));
+            block.clear().aload(1);
+            insertSetContextCall(block, ((MethodInsnNode) insn).owner);
 
             instructions.insertBefore(insn, block.getInstructionList());
         }
     }
 
+    /*
+     * Call setContext() directly on the class of the call target if it is a
+     * class (typically, the parser), through ContextAware otherwise
+     */
+    private static void insertSetContextCall(final CodeBlock block,
+        final String owner)
+    {
+        final String desc = CodegenUtils.sig(void.class, Context.class);
+
+        if (AsmUtils.getClassForType(Type.getObjectType(owner)).isInterface())
+            block.invokeinterface(CodegenUtils.p(ContextAware.class),
+                "setContext", desc);
+        else
+            block.invokevirtual(owner, "setContext", desc);
+    }
+
     protected static void convertXLoads(final InstructionGroup group)
     {
         final String owner = group.getGroupClassType().getInternalName();
@@ -23,7 +23,7 @@ import me.qmx.jitescript.util.CodegenUtils;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.LocalVariableNode;
-import com.github.fge.grappa.support.Var;
+import com.github.fge.grappa.support.FramedVar;
 import com.github.fge.grappa.transform.base.ParserClassNode;
 import com.github.fge.grappa.transform.base.RuleMethod;
 
@@ -34,7 +34,7 @@ import static org.objectweb.asm.Opcodes.ARETURN;
 
 /**
  * Inserts code for wrapping the created rule into a VarFramingMatcher if the
- * method contains local variables assignable to {@link Var}.
+ * method contains local variables assignable to {@link FramedVar}.
  */
 public final class VarFramingGenerator
     implements RuleMethodProcessor
@@ -70,7 +70,7 @@ public final class VarFramingGenerator
         createVarFieldArray(block, method);
 
         block.invokespecial(CodegenUtils.p(VarFramingMatcher.class), "<init>",
-            CodegenUtils.sig(void.class, Rule.class, Var[].class));
+            CodegenUtils.sig(void.class, Rule.class, FramedVar[].class));
 
         instructions.insertBefore(ret, block.getInstructionList());
 
@@ -82,7 +82,7 @@ public final class VarFramingGenerator
     {
         final int count = method.getLocalVarVariables().size();
 
-        block.bipush(count).anewarray(CodegenUtils.p(Var.class));
+        block.bipush(count).anewarray(CodegenUtils.p(FramedVar.class));
 
         LocalVariableNode var;
         String varName;
@@ -96,7 +96,7 @@ public final class VarFramingGenerator
                 .aload(var.index)
                 .dup()
                 .ldc(varName)
-                .invokevirtual(CodegenUtils.p(Var.class), "setName",
+                .invokeinterface(CodegenUtils.p(FramedVar.class), "setName",
                     CodegenUtils.sig(void.class, String.class))
                 .aastore();
         }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.action;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.CharSequenceInputBuffer;
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import com.github.fge.grappa.stack.ValueStack;
+import com.github.fge.grappa.support.StringBuilderVar;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class PooledStringBuilderVarTest
+{
+    private static final int WORD = 1;
+
+    static class Parser
+        extends BaseParser<Object>
+    {
+        public Rule string()
+        {
+            final StringBuilderVar sb = StringBuilderVar.pooled();
+            return sequence('"',
+                zeroOrMore(firstOf(
+                    sequence('\\', ANY, sb.append(match().charAt(0))),
+                    sequence(oneOrMore(noneOf("\"\\")), appendMatch(sb))
+                )),
+                '"', push(sb.getString()));
+        }
+
+        public Rule strings()
+        {
+            return sequence(string(), zeroOrMore(',', string()), EOI);
+        }
+
+        public Rule nested()
+        {
+            final StringBuilderVar sb = StringBuilderVar.pooled();
+            return sequence('(',
+                zeroOrMore(firstOf(
+                    sequence(nested(), sb.append(pop().toString())),
+                    sequence(alpha(), appendMatch(sb))
+                )),
+                ')', push('[' + sb.getString() + ']'));
+        }
+
+        public Rule nestedAll()
+        {
+            return sequence(nested(), EOI);
+        }
+
+        public Rule words()
+        {
+            final StringBuilderVar sb = StringBuilderVar.pooled();
+            return sequence(oneOrMore(token(WORD), appendMatch(sb)), EOI,
+                push(sb.getString()));
+        }
+    }
+
+    private final Parser parser = Grappa.createParser(Parser.class);
+
+    @Test
+    public void eachRunStartsWithAnEmptyBuilder()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.strings()).run("\"a\\\"b\",\"\",\"cd\"");
+
+        assertThat(result.isSuccess()).isTrue();
+
+        final ValueStack<Object> stack = result.getValueStack();
+
+        assertThat(stack.size()).isEqualTo(3);
+        assertThat(stack.peek(0)).isEqualTo("cd");
+        assertThat(stack.peek(1)).isEqualTo("");
+        assertThat(stack.peek(2)).isEqualTo("a\"b");
+    }
+
+    @Test
+    public void recursiveFramesUseDistinctBuilders()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.nestedAll()).run("(a(b(c)d)e)");
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTopStackValue()).isEqualTo("[a[b[c]d]e]");
+    }
+
+    @Test
+    public void matchesOverTokensAppendTheirSourceText()
+    {
+        final TokenInputBuffer tokens = new TokenInputBuffer(
+            new CharSequenceInputBuffer("ab  cd"),
+            new int[] { WORD, 0, 2, WORD, 4, 6 }, 2);
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.words()).run(tokens);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTopStackValue()).isEqualTo("abcd");
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.action;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import com.github.fge.grappa.stack.ValueStack;
+import com.github.fge.grappa.support.BooleanVar;
+import com.github.fge.grappa.support.IntVar;
+import com.github.fge.grappa.support.LongVar;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class PrimitiveVarTest
+{
+    static class Parser
+        extends BaseParser<Object>
+    {
+        public Rule list()
+        {
+            final IntVar count = new IntVar();
+            return sequence('(',
+                zeroOrMore(firstOf(list(), 'x'), count.increment()),
+                ')', push(count.get()));
+        }
+
+        public Rule lists()
+        {
+            return sequence(list(), EOI);
+        }
+
+        public Rule number()
+        {
+            final LongVar value = new LongVar();
+            final BooleanVar negative = new BooleanVar();
+            return sequence(
+                optional('-', negative.set(true)),
+                oneOrMore(digit(),
+                    value.set(10 * value.get() + matchAsLong())),
+                push(negative.get() ? -value.get() : value.get())
+            );
+        }
+
+        public Rule numbers()
+        {
+            return sequence(number(), zeroOrMore(',', number()), EOI);
+        }
+    }
+
+    private final Parser parser = Grappa.createParser(Parser.class);
+
+    @Test
+    public void recursiveRulesHaveOneValuePerFrame()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.lists()).run("(x(xx)(x)x)");
+
+        assertThat(result.isSuccess()).isTrue();
+
+        final ValueStack<Object> stack = result.getValueStack();
+
+        assertThat(stack.size()).isEqualTo(3);
+        assertThat(stack.peek(0)).isEqualTo(4);
+        assertThat(stack.peek(1)).isEqualTo(1);
+        assertThat(stack.peek(2)).isEqualTo(2);
+    }
+
+    @Test
+    public void nonRecursiveRulesResetTheirValues()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.numbers()).run("-12,34,-5");
+
+        assertThat(result.isSuccess()).isTrue();
+
+        final ValueStack<Object> stack = result.getValueStack();
+
+        assertThat(stack.size()).isEqualTo(3);
+        assertThat(stack.peek(0)).isEqualTo(-5L);
+        assertThat(stack.peek(1)).isEqualTo(34L);
+        assertThat(stack.peek(2)).isEqualTo(-12L);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.actions;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import com.github.fge.grappa.stack.PrimitiveValueStack;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class PrimitiveActionsTest
+{
+    static class PrimitiveParser
+        extends BaseParser<Object>
+    {
+        public Rule number()
+        {
+            return sequence(oneOrMore(digit()), pushLong(matchAsLong()));
+        }
+
+        public Rule difference()
+        {
+            return sequence(number(),
+                zeroOrMore('-', number(), pushLong(popLong(1) - popLong())));
+        }
+
+        public Rule backtracking()
+        {
+            return firstOf(sequence(difference(), '!'),
+                sequence(difference(), EOI));
+        }
+
+        public Rule half()
+        {
+            return sequence(oneOrMore(digit()),
+                pushDouble(matchAsDouble() / 2), EOI);
+        }
+    }
+
+    private final PrimitiveParser parser
+        = Grappa.createParser(PrimitiveParser.class);
+
+    @Test
+    public void primitiveValuesAreRolledBackOnBacktracking()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.backtracking()).run("10-3-2");
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getValueStack().isEmpty()).isTrue();
+
+        final PrimitiveValueStack stack
+            = (PrimitiveValueStack) result.getValueStack();
+
+        assertThat(stack.primitiveSize()).isEqualTo(1);
+        assertThat(stack.peekLong(0)).isEqualTo(5L);
+    }
+
+    @Test
+    public void doubleValuesArePushed()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.half()).run("5");
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(((PrimitiveValueStack) result.getValueStack())
+            .peekDouble(0)).isEqualTo(2.5);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.buffers;
+
+import com.google.common.collect.ImmutableList;
+import org.assertj.core.api.SoftAssertions;
+import org.testng.annotations.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ChunkedInputBufferTest
+{
+    @Test
+    public void emptyInputIsCorrectlyHandled()
+    {
+        final InputBuffer buffer
+            = new ChunkedInputBuffer(Collections.<CharSequence>emptyList());
+
+        assertThat(buffer.length()).isEqualTo(0);
+        assertThat(buffer.codePointAt(0)).isEqualTo(-1);
+        assertThat(buffer.extract(0, 10)).isEmpty();
+        assertThat(buffer.getLineCount()).isEqualTo(1);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void outOfBoundsReadsAreRejected()
+    {
+        final InputBuffer buffer = ChunkedInputBuffer.fromArrays(
+            ImmutableList.of("ab".toCharArray(), "cd".toCharArray()));
+
+        buffer.charAt(4);
+    }
+
+    @Test
+    public void rangesWithinOneChunkAreNotCopied()
+    {
+        final CharBuffer chunk = CharBuffer.wrap("world".toCharArray());
+        final InputBuffer buffer
+            = new ChunkedInputBuffer(ImmutableList.of("hello ", chunk));
+
+        final CharSequence seq = buffer.subSequence(7, 10);
+
+        assertThat(seq).isInstanceOf(CharBuffer.class);
+        assertThat(seq.toString()).isEqualTo("orl");
+        assertThat(buffer.subSequence(4, 8).toString()).isEqualTo("o wo");
+    }
+
+    @Test
+    public void randomChunkingBehavesLikeTheConcatenatedInput()
+    {
+        final Random random = new Random(7L);
+        final StringBuilder sb = new StringBuilder();
+        final List<char[]> chunks = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            final int len = random.nextInt(12);
+            final char[] chunk = new char[len];
+            for (int j = 0; j < len; j++)
+                chunk[j] = "ab\n\r\uD83D\uDCA9".charAt(random.nextInt(6));
+            chunks.add(chunk);
+            sb.append(chunk);
+        }
+
+        final String expected = sb.toString();
+        final int len = expected.length();
+        final InputBuffer reference = new CharSequenceInputBuffer(expected);
+        final InputBuffer buffer = ChunkedInputBuffer.fromArrays(chunks);
+
+        final SoftAssertions soft = new SoftAssertions();
+
+        soft.assertThat(buffer.length()).isEqualTo(len);
+        soft.assertThat(buffer.toString()).isEqualTo(expected);
+
+        // Sequential, then random, accesses
+        for (int i = 0; i < len; i++)
+            soft.assertThat(buffer.codePointAt(i)).as("index " + i)
+                .isEqualTo(reference.codePointAt(i));
+        for (int i = 0; i < 500; i++) {
+            final int index = random.nextInt(len);
+            soft.assertThat(buffer.charAt(index)).as("index " + index)
+                .isEqualTo(expected.charAt(index));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            final int start = random.nextInt(len + 1);
+            final int end = start + random.nextInt(len - start + 1);
+            soft.assertThat(buffer.extract(start, end))
+                .isEqualTo(expected.substring(start, end));
+            final StringBuilder appended = new StringBuilder("x");
+            buffer.appendTo(appended, start, end);
+            soft.assertThat(appended.toString())
+                .isEqualTo('x' + expected.substring(start, end));
+            soft.assertThat(buffer.getPosition(start))
+                .isEqualTo(reference.getPosition(start));
+        }
+
+        soft.assertThat(buffer.getLineCount())
+            .isEqualTo(reference.getLineCount());
+
+        soft.assertAll();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.buffers;
+
+import com.github.fge.grappa.support.Position;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ColumnModeTest
+{
+    // "a<U+1F600>b\tc\n\td"
+    private static final String INPUT = "a\uD83D\uDE00b\tc\n\td";
+
+    @DataProvider
+    public Iterator<Object[]> getColumns()
+    {
+        final Collection<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { ColumnMode.UTF16_UNITS,
+            new int[] { 1, 2, 3, 4, 5, 6, 7, 1, 2, 3 } });
+        list.add(new Object[] { ColumnMode.CODE_POINTS,
+            new int[] { 1, 2, 2, 3, 4, 5, 6, 1, 2, 3 } });
+        list.add(new Object[] { ColumnMode.tabExpanded(4),
+            new int[] { 1, 2, 2, 3, 4, 5, 6, 1, 5, 6 } });
+        list.add(new Object[] { ColumnMode.tabExpanded(8),
+            new int[] { 1, 2, 2, 3, 4, 9, 10, 1, 9, 10 } });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "getColumns")
+    public void columnsAreCorrectlyComputed(final ColumnMode mode,
+        final int[] columns)
+    {
+        final InputBuffer buffer = new CharSequenceInputBuffer(INPUT, mode);
+
+        int line;
+        for (int i = 0; i <= INPUT.length(); i++) {
+            line = i < 7 ? 1 : 2;
+            assertThat(buffer.getPosition(i)).as("index " + i)
+                .isEqualTo(new Position(line, columns[i]));
+            assertThat(buffer.getPackedPosition(i)).as("index " + i)
+                .isEqualTo(Position.pack(line, columns[i]));
+        }
+    }
+
+    @Test
+    public void chunkedBufferHonorsColumnMode()
+    {
+        final InputBuffer buffer = new ChunkedInputBuffer(
+            Collections.singletonList(INPUT), ColumnMode.tabExpanded(4));
+
+        assertThat(buffer.getPosition(5)).isEqualTo(new Position(1, 5));
+        assertThat(buffer.getPosition(8)).isEqualTo(new Position(2, 5));
+    }
+
+    @Test
+    public void packedPositionsRoundTrip()
+    {
+        final long packed = Position.pack(123456, 789);
+
+        assertThat(Position.lineOf(packed)).isEqualTo(123456);
+        assertThat(Position.columnOf(packed)).isEqualTo(789);
+        assertThat(new Position(123456, 789).toPacked()).isEqualTo(packed);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.buffers;
+
+import org.assertj.core.api.SoftAssertions;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class InputBufferViewTest
+{
+    private final InputBuffer buffer
+        = new CharSequenceInputBuffer("let Foo = foo;");
+
+    @Test
+    public void viewsReadFromTheUnderlyingBuffer()
+    {
+        final InputBufferView view = buffer.view(4, 7);
+
+        final SoftAssertions soft = new SoftAssertions();
+
+        soft.assertThat(view.length()).isEqualTo(3);
+        soft.assertThat(view.charAt(0)).isEqualTo('F');
+        soft.assertThat(view.toString()).isEqualTo("Foo");
+        soft.assertThat(view.subSequence(1, 3).toString()).isEqualTo("oo");
+        soft.assertThat(view.getStartIndex()).isEqualTo(4);
+        soft.assertThat(view.getEndIndex()).isEqualTo(7);
+
+        soft.assertAll();
+    }
+
+    @Test
+    public void comparisonsBehaveLikeStrings()
+    {
+        final InputBufferView upper = buffer.view(4, 7);
+        final InputBufferView lower = buffer.view(10, 13);
+
+        final SoftAssertions soft = new SoftAssertions();
+
+        soft.assertThat(upper.contentEquals("Foo")).isTrue();
+        soft.assertThat(upper.contentEquals("Fo")).isFalse();
+        soft.assertThat(upper.contentEqualsIgnoreCase("fOO")).isTrue();
+        soft.assertThat(upper.equals(lower)).isFalse();
+        soft.assertThat(upper.equals(buffer.view(4, 7))).isTrue();
+        soft.assertThat(upper.hashCode()).isEqualTo("Foo".hashCode());
+        soft.assertThat(Integer.signum(upper.compareTo(lower)))
+            .isEqualTo(Integer.signum("Foo".compareTo("foo")));
+        soft.assertThat(Integer.signum(lower.compareTo("fo")))
+            .isEqualTo(Integer.signum("foo".compareTo("fo")));
+        soft.assertThat(lower.compareTo("foo")).isEqualTo(0);
+
+        soft.assertAll();
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void viewsOutOfBoundsAreRejected()
+    {
+        buffer.view(10, 20);
+    }
+
+    @Test
+    public void emptyViewsAreAllowed()
+    {
+        assertThat(buffer.view(3, 3).toString()).isEmpty();
+    }
+}
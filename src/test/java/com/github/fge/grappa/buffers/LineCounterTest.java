@@ -82,4 +82,34 @@ public final class LineCounterTest
 
         assertThat(lineCounter.binarySearch(18)).isEqualTo(expected);
     }
+
+    @Test
+    public void positionsAreCorrectInAnyOrder()
+    {
+        final String input = "ab\ncde\n\nf";
+        final LineCounter lineCounter = new LineCounter(input);
+        final Position[] expected = new Position[input.length() + 1];
+
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i <= input.length(); i++) {
+            expected[i] = new Position(line, column++);
+            if (i < input.length() && input.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            }
+        }
+
+        for (int i = 0; i < expected.length; i++)
+            assertThat(lineCounter.toPosition(i)).as("index " + i)
+                .isEqualTo(expected[i]);
+
+        for (int i = expected.length - 1; i >= 0; i--)
+            assertThat(lineCounter.toPosition(i)).as("index " + i)
+                .isEqualTo(expected[i]);
+
+        for (final int i: new int[] { 9, 0, 5, 2, 8, 3 })
+            assertThat(Position.unpack(lineCounter.toPackedPosition(i)))
+                .as("index " + i).isEqualTo(expected[i]);
+    }
 }
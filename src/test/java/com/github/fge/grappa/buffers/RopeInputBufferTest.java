@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.buffers;
+
+import com.google.common.base.Strings;
+import org.assertj.core.api.SoftAssertions;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static com.github.fge.grappa.util.CustomAssertions.shouldHaveThrown;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class RopeInputBufferTest
+{
+    private static final String ALPHABET = "abc\n\r\n xyz\uD83D\uDCA9";
+
+    @Test
+    public void emptyBufferIsCorrectlyHandled()
+    {
+        final InputBuffer buffer = new RopeInputBuffer();
+
+        final SoftAssertions soft = new SoftAssertions();
+
+        soft.assertThat(buffer.length()).isEqualTo(0);
+        soft.assertThat(buffer.getLineCount()).isEqualTo(1);
+        soft.assertThat(buffer.extractLine(1)).isEmpty();
+        soft.assertThat(buffer.codePointAt(0)).isEqualTo(-1);
+        soft.assertThat(buffer.getPosition(0).getLine()).isEqualTo(1);
+        soft.assertThat(buffer.getPosition(0).getColumn()).isEqualTo(1);
+
+        soft.assertAll();
+    }
+
+    @Test
+    public void largeInsertsAreSplitIntoPieces()
+    {
+        final String text = Strings.repeat("x", 10 * 1024 + 1);
+        final RopeInputBuffer buffer = new RopeInputBuffer(text);
+
+        assertThat(buffer.getNodeCount()).isEqualTo(11);
+        assertThat(buffer.toString()).isEqualTo(text);
+    }
+
+    @Test
+    public void smallEditsDoNotFragmentTheBuffer()
+    {
+        final RopeInputBuffer rope = new RopeInputBuffer();
+        final StringBuilder sb = new StringBuilder();
+        final int nrEdits = 100 * RopeInputBuffer.MIN_PIECE_LENGTH;
+        final int maxPieces = nrEdits / RopeInputBuffer.MIN_PIECE_LENGTH;
+
+        for (int i = 0; i < nrEdits; i++) {
+            rope.insert(i / 2, "x\n");
+            sb.insert(i / 2, "x\n");
+        }
+
+        assertThat(rope.toString()).isEqualTo(sb.toString());
+        assertThat(rope.getNodeCount()).isLessThanOrEqualTo(2 * maxPieces);
+
+        for (int i = 0; i < nrEdits; i++) {
+            rope.delete(i, i + 1);
+            sb.delete(i, i + 1);
+        }
+
+        assertThat(rope.toString()).isEqualTo(sb.toString());
+        assertThat(rope.getLineCount()).isEqualTo(nrEdits / 2 + 1);
+        assertThat(rope.getNodeCount()).isLessThanOrEqualTo(maxPieces);
+    }
+
+    @Test
+    public void lineNumbersLessThanOneAreRejected()
+    {
+        final InputBuffer buffer = new RopeInputBuffer("a\nb");
+
+        for (final int lineNumber: new int[] { 0, -1 })
+            try {
+                buffer.getLineRange(lineNumber);
+                shouldHaveThrown(IndexOutOfBoundsException.class);
+            } catch (IndexOutOfBoundsException ignored) {
+            }
+    }
+
+    @Test
+    public void randomEditsBehaveLikeAStringBuilder()
+    {
+        final Random random = new Random(42L);
+        final StringBuilder sb = new StringBuilder();
+        final RopeInputBuffer rope = new RopeInputBuffer();
+
+        for (int i = 0; i < 500; i++) {
+            final int len = sb.length();
+            if (len > 0 && random.nextInt(3) == 0) {
+                final int start = random.nextInt(len);
+                final int end = start + random.nextInt(
+                    Math.min(len - start, 3000) + 1);
+                sb.delete(start, end);
+                rope.delete(start, end);
+            } else {
+                final int index = random.nextInt(len + 1);
+                final String text = randomText(random);
+                sb.insert(index, text);
+                rope.insert(index, text);
+            }
+            if (i % 50 == 0)
+                checkContents(rope, sb.toString(), random);
+        }
+
+        checkContents(rope, sb.toString(), random);
+    }
+
+    private static String randomText(final Random random)
+    {
+        final int len = random.nextInt(10) == 0 ? random.nextInt(5000)
+            : random.nextInt(20);
+        final StringBuilder sb = new StringBuilder(len);
+
+        for (int i = 0; i < len; i++)
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+
+        return sb.toString();
+    }
+
+    private static void checkContents(final RopeInputBuffer rope,
+        final String expected, final Random random)
+    {
+        final InputBuffer reference = new CharSequenceInputBuffer(expected);
+        final int len = expected.length();
+
+        final SoftAssertions soft = new SoftAssertions();
+
+        soft.assertThat(rope.length()).isEqualTo(len);
+        soft.assertThat(rope.toString()).isEqualTo(expected);
+
+        for (int i = 0; i < len; i++)
+            if (rope.charAt(i) != expected.charAt(i))
+                soft.assertThat(rope.charAt(i)).as("index " + i)
+                    .isEqualTo(expected.charAt(i));
+
+        soft.assertThat(rope.getLineCount())
+            .isEqualTo(reference.getLineCount());
+
+        int index;
+        for (int i = 0; i < 50; i++) {
+            index = random.nextInt(len + 1);
+            soft.assertThat(rope.getPosition(index)).as("position " + index)
+                .isEqualTo(reference.getPosition(index));
+            soft.assertThat(rope.codePointAt(index))
+                .isEqualTo(reference.codePointAt(index));
+        }
+
+        for (int line = 1; line <= reference.getLineCount(); line++) {
+            soft.assertThat(rope.getLineRange(line).toString())
+                .isEqualTo(reference.getLineRange(line).toString());
+            soft.assertThat(rope.extractLine(line))
+                .isEqualTo(reference.extractLine(line));
+        }
+
+        final int start = random.nextInt(len + 1);
+        final int end = start + random.nextInt(len - start + 1);
+        soft.assertThat(rope.extract(start, end))
+            .isEqualTo(expected.substring(start, end));
+
+        soft.assertAll();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.matchers;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.annotations.PureAction;
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Action;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import com.github.fge.grappa.run.context.Context;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ActionMatcherTest
+{
+    @PureAction
+    static final class AlwaysTrue
+        implements Action<Object>
+    {
+        @Override
+        public boolean run(final Context<Object> context)
+        {
+            return true;
+        }
+    }
+
+    static class ActionParser
+        extends BaseParser<Object>
+    {
+        @PureAction
+        public boolean isShort()
+        {
+            return match().length() < 3;
+        }
+
+        public boolean isLong()
+        {
+            return match().length() >= 3;
+        }
+
+        public Rule readOnly()
+        {
+            return sequence(oneOrMore(digit()), match().length() < 3);
+        }
+
+        public Rule pureMethod()
+        {
+            return sequence(oneOrMore(digit()), isShort());
+        }
+
+        public Rule otherMethod()
+        {
+            return sequence(oneOrMore(digit()), isLong());
+        }
+
+        public Rule pushing()
+        {
+            return sequence(oneOrMore(digit()), push(match()));
+        }
+
+        public Rule pureClass()
+        {
+            return sequence(oneOrMore(digit()), new AlwaysTrue());
+        }
+
+        public Rule failing()
+        {
+            return sequence(
+                firstOf(
+                    sequence(oneOrMore(digit()), push(match()) && isLong()),
+                    oneOrMore(digit())
+                ),
+                EOI
+            );
+        }
+    }
+
+    private final ActionParser parser = Grappa.createParser(ActionParser.class);
+
+    @DataProvider
+    public Iterator<Object[]> actions()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { parser.readOnly(), true });
+        list.add(new Object[] { parser.pureMethod(), true });
+        list.add(new Object[] { parser.otherMethod(), false });
+        list.add(new Object[] { parser.pushing(), false });
+        list.add(new Object[] { parser.pureClass(), true });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "actions")
+    public void actionPurityIsDetected(final Rule rule, final boolean pure)
+    {
+        final Matcher matcher = ((Matcher) rule).getChildren().get(1);
+
+        assertThat(matcher).isInstanceOf(ActionMatcher.class);
+        assertThat(((ActionMatcher) matcher).isPure()).isEqualTo(pure);
+    }
+
+    @Test
+    public void failingActionsDoNotModifyTheValueStack()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.failing()).run("12");
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getValueStack().isEmpty()).isTrue();
+    }
+}
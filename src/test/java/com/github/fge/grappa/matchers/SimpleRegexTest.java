@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class SimpleRegexTest
+{
+    private static final List<String> SUPPORTED = Arrays.asList(
+        "", "a", "abc", "a*", "a+b", "a?a?aa", "[a-z]+", "[^a-z]*x",
+        "\\d{2,4}", "\\d{3}", "\\w+\\s*=", "[\\w.-]+@", ".*b", ".+\\.",
+        "[^\\s]+", "\\S*\\W", "a{2,}", "[a-c0-3_]*c", "\\D+", "[\\-a]+",
+        "x*.y", ".{0,3}", "[^\\d\\s]{2}", "[-a]+", "[a-]+", "[^-a]+"
+    );
+
+    private static final List<String> UNSUPPORTED = Arrays.asList(
+        "(a)", "a|b", "^a", "a$", "a*?", "a++", "\\bfoo", "[a[b]]",
+        "[a-z&&[^c]]", "[a-c-e]", "\\p{L}", "\\u0041", "\\1", "(?i)a",
+        "[]a]", "a{1, 2}"
+    );
+
+    private static final String ALPHABET = "ab\n.x-=@ 12_\u00e9"
+        + "\ud83d\ude00\ud83d\udc00\ud800";
+
+    @DataProvider
+    public Iterator<Object[]> getUnsupported()
+    {
+        return UNSUPPORTED.stream().map(s -> new Object[] { s })
+            .collect(Collectors.toList()).iterator();
+    }
+
+    @Test(dataProvider = "getUnsupported")
+    public void unsupportedRegexesAreNotCompiled(final String regex)
+    {
+        assertThat(SimpleRegex.compile(regex)).isNull();
+    }
+
+    @DataProvider
+    public Iterator<Object[]> getSupported()
+    {
+        return SUPPORTED.stream().map(s -> new Object[] { s })
+            .collect(Collectors.toList()).iterator();
+    }
+
+    @Test(dataProvider = "getSupported")
+    public void simpleRegexesBehaveLikePatterns(final String regex)
+    {
+        final SimpleRegex simpleRegex = SimpleRegex.compile(regex);
+        final Matcher matcher = Pattern.compile(regex).matcher("")
+            .useTransparentBounds(true);
+        final Random random = new Random(regex.hashCode());
+        final StringBuilder sb = new StringBuilder();
+
+        assertThat(simpleRegex).isNotNull();
+
+        String input;
+        int expected;
+
+        for (int i = 0; i < 500; i++) {
+            sb.setLength(0);
+            for (int j = random.nextInt(12); j >= 0; j--)
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            input = sb.toString();
+            for (int start = 0; start <= input.length(); start++) {
+                matcher.reset(input).region(start, input.length());
+                expected = matcher.lookingAt() ? matcher.end() : -1;
+                assertThat(simpleRegex.match(input, start))
+                    .as("regex %s, input %s, start %d", regex, input, start)
+                    .isEqualTo(expected);
+            }
+        }
+    }
+}
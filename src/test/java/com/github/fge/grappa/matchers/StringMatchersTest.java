@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.matchers;
+
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.util.MatcherContextBuilder;
+import com.google.common.collect.Lists;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class StringMatchersTest
+{
+    @DataProvider
+    public Iterator<Object[]> getInputs()
+    {
+        final List<Object[]> list = Lists.newArrayList();
+
+        list.add(new Object[] { "while", "while (x)", 0 });
+        list.add(new Object[] { "while", "While (x)", 0 });
+        list.add(new Object[] { "while", "whil", 0 });
+        list.add(new Object[] { "while", " WHILE", 1 });
+        list.add(new Object[] { "while", "whilf", 0 });
+        list.add(new Object[] { "", "", 0 });
+        list.add(new Object[] { "", "abc", 2 });
+        // Kelvin sign, long s, dotted capital I
+        list.add(new Object[] { "kiss", "\u212Aiss", 0 });
+        list.add(new Object[] { "kiss", "ki\u017FS", 0 });
+        list.add(new Object[] { "kiss", "k\u0130ss", 0 });
+        list.add(new Object[] { "\u212A", "k", 0 });
+        list.add(new Object[] { "\u00E9t\u00E9", "\u00C9T\u00C9", 0 });
+        list.add(new Object[] { "\u00E9t\u00E9", "\u00E9t\u00E9", 0 });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "getInputs")
+    public void stringMatcherBehavesLikeEquals(final String s,
+        final String input, final int index)
+    {
+        final boolean expected = input.startsWith(s, index);
+
+        checkMatch(new StringMatcher(s), s.length(), input, index, expected);
+    }
+
+    @Test(dataProvider = "getInputs")
+    public void ignoreCaseMatcherBehavesLikeEqualsIgnoreCase(final String s,
+        final String input, final int index)
+    {
+        final boolean expected
+            = input.regionMatches(true, index, s, 0, s.length());
+
+        checkMatch(new StringIgnoreCaseMatcher(s), s.length(), input, index,
+            expected);
+    }
+
+    private static void checkMatch(final Matcher matcher, final int length,
+        final String input, final int index, final boolean expected)
+    {
+        final MatcherContext<Object> context = new MatcherContextBuilder()
+            .withMatcher(matcher).withInput(input).withIndex(index).build();
+
+        assertThat(matcher.match(context)).as("match/no match")
+            .isEqualTo(expected);
+        assertThat(context.getCurrentIndex()).as("post match run index")
+            .isEqualTo(expected ? index + length : index);
+    }
+}
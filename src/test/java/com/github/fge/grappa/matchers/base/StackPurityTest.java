@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.matchers.base;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class StackPurityTest
+{
+    static class PurityParser
+        extends BaseParser<Object>
+    {
+        public Rule lexical()
+        {
+            return sequence(oneOrMore(alpha()), optional(digit()),
+                test(','), ',', join(integer()).using('.').min(1));
+        }
+
+        public Rule withAction()
+        {
+            return sequence(oneOrMore(alpha()), ACTION(push(match())));
+        }
+
+        public Rule withPureAction()
+        {
+            return sequence(oneOrMore(alpha()), currentIndex() > 1,
+                test(ACTION(currentIndex() > 2)));
+        }
+
+        public Rule withPushingTerminal()
+        {
+            return sequence('[', pushInteger(), ']');
+        }
+
+        public Rule withTakeFromStack()
+        {
+            return sequence(take(), EOI);
+        }
+
+        public Rule recursive()
+        {
+            return firstOf(sequence('(', recursive(), ')'), withAction());
+        }
+
+        public Rule pureRecursive()
+        {
+            return firstOf(sequence('(', pureRecursive(), ')'), alpha());
+        }
+
+        public Rule actionInPredicate()
+        {
+            return sequence(testNot(withAction()), digit());
+        }
+
+        public Rule backtracking()
+        {
+            return firstOf(sequence(withAction(), '!'),
+                sequence(lexical(), ACTION(push("lexical"))));
+        }
+    }
+
+    private final PurityParser parser
+        = Grappa.createParser(PurityParser.class);
+
+    @DataProvider
+    public Iterator<Object[]> rules()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { parser.lexical(), true });
+        list.add(new Object[] { parser.withAction(), false });
+        list.add(new Object[] { parser.withPureAction(), true });
+        list.add(new Object[] { parser.withPushingTerminal(), false });
+        list.add(new Object[] { parser.withTakeFromStack(), false });
+        list.add(new Object[] { parser.recursive(), false });
+        list.add(new Object[] { parser.pureRecursive(), true });
+        list.add(new Object[] { parser.actionInPredicate(), false });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "rules")
+    public void stackPurityIsCorrectlyComputed(final Rule rule,
+        final boolean pure)
+    {
+        assertThat(StackPurity.isPure((Matcher) rule)).isEqualTo(pure);
+    }
+
+    @Test
+    public void impureAlternativesAreStillRolledBack()
+    {
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.backtracking()).run("ab,1.2");
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getValueStack()).containsExactly("lexical");
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.matchers.bytes;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.ByteInputBuffer;
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import org.assertj.core.api.SoftAssertions;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class BinaryRulesTest
+{
+    static class BinaryParser
+        extends BaseParser<Object>
+    {
+        // magic, 16-bit big endian length, payload, 32-bit little endian crc
+        public Rule frame()
+        {
+            return sequence(bytes((byte) 0xca, (byte) 0xfe), u16be(), take(),
+                u32le(), EOI);
+        }
+
+        public Rule header()
+        {
+            return sequence(singleByte(0xff), byteRange(0x00, 0x1f), "GET",
+                u16le(), u8());
+        }
+    }
+
+    private final BinaryParser parser = Grappa.createParser(BinaryParser.class);
+
+    @Test
+    public void bytesAreSeenAsUnsignedChars()
+    {
+        final byte[] bytes = { (byte) 0xff, 0x41, 0x0a, (byte) 0x80 };
+        final InputBuffer buffer = new ByteInputBuffer(bytes);
+
+        final SoftAssertions soft = new SoftAssertions();
+
+        soft.assertThat(buffer.length()).isEqualTo(4);
+        soft.assertThat(buffer.charAt(0)).isEqualTo('\u00ff');
+        soft.assertThat(buffer.codePointAt(3)).isEqualTo(0x80);
+        soft.assertThat(buffer.codePointAt(4)).isEqualTo(-1);
+        soft.assertThat(buffer.extract(1, 3)).isEqualTo("A\n");
+        soft.assertThat(buffer.getLineCount()).isEqualTo(2);
+        soft.assertThat(buffer.extractLine(1)).isEqualTo("\u00ffA");
+
+        soft.assertAll();
+    }
+
+    @Test
+    public void offsetAndLengthAreHonored()
+    {
+        final byte[] bytes = { 0x00, 0x01, 0x02, 0x03, 0x04 };
+        final ByteInputBuffer buffer = new ByteInputBuffer(bytes, 1, 3);
+
+        assertThat(buffer.length()).isEqualTo(3);
+        assertThat(buffer.getByte(0)).isEqualTo((byte) 1);
+        assertThat(buffer.extractBytes(1, 10))
+            .containsExactly((byte) 2, (byte) 3);
+    }
+
+    @DataProvider
+    public Iterator<Object[]> frames()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] {
+            new byte[] { (byte) 0xca, (byte) 0xfe, 0, 3, 1, 2, 3,
+                (byte) 0xef, (byte) 0xbe, (byte) 0xad, (byte) 0xde },
+            true, 0xdeadbeefL
+        });
+        list.add(new Object[] {
+            new byte[] { (byte) 0xca, (byte) 0xfe, 0, 0,
+                1, 0, 0, 0 },
+            true, 1L
+        });
+        // Payload too short
+        list.add(new Object[] {
+            new byte[] { (byte) 0xca, (byte) 0xfe, 0, 10, 1, 2, 3 },
+            false, null
+        });
+        // Bad magic
+        list.add(new Object[] {
+            new byte[] { (byte) 0xca, (byte) 0xff, 0, 0, 0, 0, 0, 0 },
+            false, null
+        });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "frames")
+    public void lengthPrefixedFramesAreCorrectlyParsed(final byte[] input,
+        final boolean success, final Long crc)
+    {
+        final ParseRunner<Object> runner = new ParseRunner<>(parser.frame());
+        final ParsingResult<Object> result
+            = runner.run(new ByteInputBuffer(input));
+
+        assertThat(result.isSuccess()).as("match/no match")
+            .isEqualTo(success);
+
+        if (!success)
+            return;
+
+        assertThat(result.getValueStack().size()).as("stack size")
+            .isEqualTo(1);
+        assertThat(result.getTopStackValue()).as("decoded crc")
+            .isEqualTo(crc);
+    }
+
+    @Test
+    public void binaryAndTextRulesMix()
+    {
+        final byte[] input = {
+            (byte) 0xff, 0x10, 'G', 'E', 'T', 0x34, 0x12, (byte) 0x99
+        };
+
+        final ParseRunner<Object> runner = new ParseRunner<>(parser.header());
+        final ParsingResult<Object> result
+            = runner.run(new ByteInputBuffer(input));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getValueStack()).containsExactly(0x99, 0x1234);
+    }
+}
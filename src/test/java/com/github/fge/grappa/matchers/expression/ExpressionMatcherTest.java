@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.expression;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ExpressionMatcherTest
+{
+    static class CalculatorParser
+        extends BaseParser<Long>
+    {
+        public Rule expr()
+        {
+            return expression(firstOf(pushInteger(),
+                    sequence('(', expr(), ')')))
+                .prefix('-', 30, ACTION(push(-pop())))
+                .infix('+', 10, Associativity.LEFT,
+                    ACTION(push(pop(1) + pop())))
+                .infix('-', 10, Associativity.LEFT,
+                    ACTION(push(pop(1) - pop())))
+                .infix("**", 40, Associativity.RIGHT,
+                    ACTION(push(power(pop(1), pop()))))
+                .infix('*', 20, Associativity.LEFT,
+                    ACTION(push(pop(1) * pop())))
+                .postfix('!', 50, ACTION(push(factorial(pop()))))
+                .build();
+        }
+
+        public Rule fullExpr()
+        {
+            return sequence(expr(), EOI);
+        }
+
+        public Rule exprThenStar()
+        {
+            return sequence(expr(), '*', EOI);
+        }
+
+        /*
+         * Multiplication by zero is rejected by its reduction
+         */
+        public Rule nonZeroProduct()
+        {
+            return expression(pushInteger())
+                .infix('+', 10, Associativity.LEFT,
+                    ACTION(push(pop(1) + pop())))
+                .infix('*', 20, Associativity.LEFT,
+                    ACTION(peek() != 0L && push(pop(1) * pop())))
+                .build();
+        }
+
+        public Rule nonZeroProductThenAnything()
+        {
+            return sequence(nonZeroProduct(), zeroOrMore(ANY));
+        }
+
+        public long power(final long base, final long exponent)
+        {
+            long ret = 1L;
+            for (long i = 0L; i < exponent; i++)
+                ret *= base;
+            return ret;
+        }
+
+        public long factorial(final long n)
+        {
+            return n <= 1L ? 1L : n * factorial(n - 1L);
+        }
+    }
+
+    private final CalculatorParser parser
+        = Grappa.createParser(CalculatorParser.class);
+
+    @DataProvider
+    public Iterator<Object[]> expressions()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { "42", 42L });
+        list.add(new Object[] { "1+2*3", 7L });
+        list.add(new Object[] { "(1+2)*3", 9L });
+        list.add(new Object[] { "10-3-2", 5L });
+        list.add(new Object[] { "2**3**2", 512L });
+        list.add(new Object[] { "-2**2", -4L });
+        list.add(new Object[] { "-2*3", -6L });
+        list.add(new Object[] { "--3", 3L });
+        list.add(new Object[] { "3!*2", 12L });
+        list.add(new Object[] { "(1+2)!!", 720L });
+        list.add(new Object[] { "2*3!", 12L });
+        list.add(new Object[] { "((((((1))))))+((2))", 3L });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "expressions")
+    public void expressionsAreCorrectlyEvaluated(final String input,
+        final long value)
+    {
+        final ParsingResult<Long> result
+            = new ParseRunner<Long>(parser.fullExpr()).run(input);
+
+        assertThat(result.isSuccess()).as("input is matched").isTrue();
+        assertThat(result.getValueStack().size()).isEqualTo(1);
+        assertThat(result.getTopStackValue()).isEqualTo(value);
+    }
+
+    @Test
+    public void trailingOperatorsAreNotConsumed()
+    {
+        final ParsingResult<Long> result
+            = new ParseRunner<Long>(parser.exprThenStar()).run("1+2*");
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTopStackValue()).isEqualTo(3L);
+        assertThat(new ParseRunner<Long>(parser.fullExpr()).run("1+2*")
+            .isSuccess()).isFalse();
+        assertThat(new ParseRunner<Long>(parser.fullExpr()).run("*1")
+            .isSuccess()).isFalse();
+    }
+
+    @Test
+    public void failedReductionFailsTheWholeExpression()
+    {
+        final ParseRunner<Long> runner
+            = new ParseRunner<>(parser.nonZeroProductThenAnything());
+        ParsingResult<Long> result;
+
+        result = runner.run("1+2*3");
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getValueStack().size()).isEqualTo(1);
+        assertThat(result.getTopStackValue()).isEqualTo(7L);
+
+        result = runner.run("1+2*0");
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getValueStack().isEmpty()).isTrue();
+    }
+}
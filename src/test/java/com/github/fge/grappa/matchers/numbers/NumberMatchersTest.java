@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.numbers;
+
+import com.github.fge.grappa.matchers.base.Matcher;
+import com.github.fge.grappa.run.context.MatcherContext;
+import com.github.fge.grappa.stack.ValueStack;
+import com.github.fge.grappa.util.MatcherContextBuilder;
+import com.github.fge.grappa.util.SimpleMatchHandler;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class NumberMatchersTest
+{
+    private final MatcherContextBuilder builder = new MatcherContextBuilder();
+
+    @DataProvider
+    public Iterator<Object[]> numbers()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        final Matcher integer = new IntegerMatcher(true);
+        list.add(new Object[] { integer, "0", 1, 0L });
+        list.add(new Object[] { integer, "-42x", 3, -42L });
+        list.add(new Object[] { integer, "007.5", 3, 7L });
+        list.add(new Object[] { integer, "9223372036854775807", 19,
+            Long.MAX_VALUE });
+        list.add(new Object[] { integer, "-9223372036854775808", 20,
+            Long.MIN_VALUE });
+        list.add(new Object[] { integer, "9223372036854775808", -1, null });
+        list.add(new Object[] { integer, "-", -1, null });
+        list.add(new Object[] { integer, "+1", -1, null });
+        list.add(new Object[] { integer, "٣", -1, null });
+
+        final Matcher hexInteger = new HexIntegerMatcher(true);
+        list.add(new Object[] { hexInteger, "0xff", 4, 255L });
+        list.add(new Object[] { hexInteger, "0XCafe;", 6, 0xcafeL });
+        list.add(new Object[] { hexInteger, "0x0000ffffffffffffffff", 22,
+            -1L });
+        list.add(new Object[] { hexInteger, "0x1ffffffffffffffff", -1, null });
+        list.add(new Object[] { hexInteger, "0xg", -1, null });
+        list.add(new Object[] { hexInteger, "ff", -1, null });
+
+        final Matcher decimal = new DecimalMatcher(true);
+        list.add(new Object[] { decimal, "12", 2, new BigDecimal("12") });
+        list.add(new Object[] { decimal, "-0.50", 5,
+            new BigDecimal("-0.50") });
+        list.add(new Object[] { decimal, "3.", 1, new BigDecimal("3") });
+        list.add(new Object[] { decimal, "1.2.3", 3, new BigDecimal("1.2") });
+        list.add(new Object[] { decimal, "123456789012345678901234.5", 26,
+            new BigDecimal("123456789012345678901234.5") });
+        list.add(new Object[] { decimal, ".5", -1, null });
+
+        final Matcher floatingPoint = new FloatingPointMatcher(true);
+        list.add(new Object[] { floatingPoint, "1", 1, 1.0 });
+        list.add(new Object[] { floatingPoint, "-2.5e3", 6, -2500.0 });
+        list.add(new Object[] { floatingPoint, "1E-2x", 4, 0.01 });
+        list.add(new Object[] { floatingPoint, "1e", 1, 1.0 });
+        list.add(new Object[] { floatingPoint, "1.e5", 1, 1.0 });
+        list.add(new Object[] { floatingPoint, "0.1234567890123456789", 21,
+            0.1234567890123456789 });
+        list.add(new Object[] { floatingPoint, "1e309", -1, null });
+        list.add(new Object[] { floatingPoint, "-e1", -1, null });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "numbers")
+    public void numbersAreMatchedAndPushed(final Matcher matcher,
+        final String input, final int end, final Object value)
+    {
+        final MatcherContext<Object> context = builder.withInput(input)
+            .withMatcher(matcher).build();
+        final ValueStack<Object> stack = context.getValueStack();
+
+        stack.clear();
+
+        final boolean match = SimpleMatchHandler.INSTANCE.match(context);
+
+        assertThat(match).as("match/no match is correct").isEqualTo(end != -1);
+
+        if (end == -1) {
+            assertThat(context.getCurrentIndex()).as("index is unchanged")
+                .isEqualTo(0);
+            assertThat(stack.isEmpty()).as("nothing is pushed").isTrue();
+            return;
+        }
+
+        assertThat(context.getCurrentIndex()).as("index is correct after match")
+            .isEqualTo(end);
+        assertThat(stack.size()).as("one value is pushed").isEqualTo(1);
+        assertThat(stack.pop()).as("value is correct").isEqualTo(value);
+    }
+
+    @Test
+    public void valuesAreOnlyPushedOnDemand()
+    {
+        final MatcherContext<Object> context = builder.withInput("12")
+            .withMatcher(new IntegerMatcher(false)).build();
+        final ValueStack<Object> stack = context.getValueStack();
+
+        stack.clear();
+
+        assertThat(SimpleMatchHandler.INSTANCE.match(context)).isTrue();
+        assertThat(stack.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void nonPushingDecimalsAreMatched()
+    {
+        final String input = "-123456789012345678901234.5";
+        final MatcherContext<Object> context = builder.withInput(input)
+            .withMatcher(new DecimalMatcher(false)).build();
+        final ValueStack<Object> stack = context.getValueStack();
+
+        stack.clear();
+
+        assertThat(SimpleMatchHandler.INSTANCE.match(context)).isTrue();
+        assertThat(context.getCurrentIndex()).isEqualTo(input.length());
+        assertThat(stack.isEmpty()).isTrue();
+    }
+
+    @DataProvider
+    public Iterator<Object[]> floatingPoints()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { "1e308" });
+        list.add(new Object[] { "-1.7976931348623157e308" });
+        list.add(new Object[] { "1.8e308" });
+        list.add(new Object[] { "179.7e306" });
+        list.add(new Object[] { "0.000179e312" });
+        list.add(new Object[] { "99999e304" });
+        list.add(new Object[] { "0.00e400" });
+        list.add(new Object[] { "1e-400" });
+        list.add(new Object[] { "1e99999999999" });
+        list.add(new Object[] { "1e-99999999999" });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "floatingPoints")
+    public void nonPushingFloatingPointsOverflowLikePushingOnes(
+        final String input)
+    {
+        final MatcherContext<Object> pushing = builder.withInput(input)
+            .withMatcher(new FloatingPointMatcher(true)).build();
+        final boolean expected = SimpleMatchHandler.INSTANCE.match(pushing);
+        final MatcherContext<Object> context = builder.withInput(input)
+            .withMatcher(new FloatingPointMatcher(false)).build();
+        final ValueStack<Object> stack = context.getValueStack();
+
+        stack.clear();
+
+        assertThat(SimpleMatchHandler.INSTANCE.match(context))
+            .isEqualTo(expected);
+        assertThat(context.getCurrentIndex())
+            .isEqualTo(pushing.getCurrentIndex());
+        assertThat(stack.isEmpty()).isTrue();
+    }
+}
@@ -41,6 +41,10 @@ public final class RepeatMatcherMatchTest
         extends EventBusParser<Object>
     {
         protected final RepeatMatcherBuilder<Object> builder = repeat("ab");
+        protected final RepeatMatcherBuilder<Object> rangeBuilder
+            = repeat(charRange('a', 'b'));
+        protected final RepeatMatcherBuilder<Object> noneOfBuilder
+            = repeat(noneOf("c"));
     }
 
     private final TestJoinParser parser
@@ -106,4 +110,43 @@ public final class RepeatMatcherMatchTest
         assertThat(context.getCurrentIndex()).as("index is correct after match")
             .isEqualTo(index);
     }
+
+    @DataProvider
+    public Iterator<Object[]> getSingleCharMatchData()
+    {
+        final List<Object[]> list = Lists.newArrayList();
+
+        list.add(new Object[] { Range.singleton(3), 3, true });
+        list.add(new Object[] { Range.singleton(12), 10, false });
+        list.add(new Object[] { Range.atMost(4), 4, true });
+        list.add(new Object[] { Range.atLeast(0), 10, true });
+        list.add(new Object[] { Range.closed(2, 20), 10, true });
+        list.add(new Object[] { Range.closed(11, 20), 10, false });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "getSingleCharMatchData")
+    public void singleCharRepeatMatcherTest(final Range<Integer> range,
+        final int index, final boolean match)
+    {
+        checkSingleCharMatch(parser.rangeBuilder, range, index, match);
+        checkSingleCharMatch(parser.noneOfBuilder, range, index, match);
+    }
+
+    private void checkSingleCharMatch(
+        final RepeatMatcherBuilder<Object> repeat, final Range<Integer> range,
+        final int index, final boolean match)
+    {
+        final Matcher matcher = (Matcher) repeat.range(range);
+        final MatcherContext<Object> context = builder.withInput(INPUT1)
+            .withMatcher(matcher).build();
+
+        final boolean actualMatch = SimpleMatchHandler.INSTANCE.match(context);
+
+        assertThat(actualMatch).as("match/no match is correct")
+            .isEqualTo(match);
+        assertThat(context.getCurrentIndex())
+            .as("index is correct after match").isEqualTo(index);
+    }
 }
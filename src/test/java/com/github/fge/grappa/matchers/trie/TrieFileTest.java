@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.trie;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.exceptions.GrappaException;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+public final class TrieFileTest
+{
+    private static final List<String> WORDS = Arrays.asList("do", "double",
+        "doubly", "Exception", "\u00e9t\u00e9", "\ud83d\ude00");
+
+    private static final List<String> INPUTS = Arrays.asList("do", "doubles",
+        "doubling", "DOUBLE", "exceptional", "\u00c9T\u00c9", "\ud83d\ude00",
+        "", "x");
+
+    static class TrieFileParser
+        extends BaseParser<Object>
+    {
+        final Path path;
+
+        TrieFileParser(final Path path)
+        {
+            this.path = path;
+        }
+
+        public Rule word()
+        {
+            return sequence(trie(path), EOI);
+        }
+
+        public Rule wordIgnoreCase()
+        {
+            return sequence(trieIgnoreCase(path), EOI);
+        }
+    }
+
+    private Path file;
+
+    @BeforeClass
+    public void writeTrie()
+        throws IOException
+    {
+        file = Files.createTempFile("trie", ".bin");
+        Trie.newBuilder().addWords(WORDS).build().writeTo(file);
+    }
+
+    @AfterClass
+    public void deleteTrie()
+        throws IOException
+    {
+        Files.delete(file);
+    }
+
+    @Test
+    public void loadedTrieBehavesLikeBuiltTrie()
+        throws IOException
+    {
+        final Trie built = Trie.newBuilder().addWords(WORDS).build();
+        final Trie loaded = Trie.load(file);
+
+        assertThat(loaded.getNrWords()).isEqualTo(built.getNrWords());
+        assertThat(loaded.getMaxLength()).isEqualTo(built.getMaxLength());
+        assertThat(loaded.getNrStates()).isEqualTo(built.getNrStates());
+
+        for (final String input: INPUTS) {
+            assertThat(loaded.search(input, false)).as(input)
+                .isEqualTo(built.search(input, false));
+            assertThat(loaded.search(input, true)).as(input)
+                .isEqualTo(built.search(input, true));
+        }
+    }
+
+    @Test
+    public void trieFileRulesWork()
+    {
+        final TrieFileParser parser
+            = Grappa.createParser(TrieFileParser.class, file);
+
+        assertThat(new ParseRunner<>(parser.word()).run("double").isSuccess())
+            .isTrue();
+        assertThat(new ParseRunner<>(parser.word()).run("DOUBLE").isSuccess())
+            .isFalse();
+        assertThat(new ParseRunner<>(parser.wordIgnoreCase()).run("DOUBLE")
+            .isSuccess()).isTrue();
+    }
+
+    @Test
+    public void invalidFilesAreRejected()
+        throws IOException
+    {
+        final Path path = Files.createTempFile("trie", ".bin");
+
+        try {
+            Files.write(path, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+            Trie.load(path);
+            failBecauseExceptionWasNotThrown(IOException.class);
+        } catch (IOException e) {
+            assertThat(e).hasMessageContaining("not a trie file");
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void missingFileThrowsGrappaException()
+    {
+        final TrieFileParser parser = Grappa.createParser(
+            TrieFileParser.class, file.resolveSibling("nonexistent.trie"));
+
+        try {
+            parser.word();
+            failBecauseExceptionWasNotThrown(GrappaException.class);
+        } catch (GrappaException e) {
+            assertThat(e).hasMessage("failed to load trie");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.matchers.trie;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class TrieTest
+{
+    private static final String ALPHABET = "abcABC\u00e9\u00c9\u0101x";
+
+    @Test
+    public void emptyTrieNeverMatches()
+    {
+        final Trie trie = Trie.newBuilder().build();
+
+        assertThat(trie.search("abc", false)).isEqualTo(-1);
+        assertThat(trie.search("", true)).isEqualTo(-1);
+    }
+
+    @Test
+    public void trieBehavesLikeASetOfWords()
+    {
+        final Random random = new Random(0L);
+        final TrieBuilder builder = Trie.newBuilder();
+        final Set<String> words = new HashSet<>();
+        final Set<String> prefixes = new HashSet<>();
+        final List<String> inputs = new ArrayList<>();
+
+        String word;
+        for (int i = 0; i < 2000; i++) {
+            word = randomWord(random);
+            builder.addWord(word);
+            words.add(word);
+            for (int end = 0; end <= word.length(); end++)
+                prefixes.add(word.substring(0, end));
+            inputs.add(word);
+            inputs.add(randomWord(random));
+            inputs.add(word + randomWord(random));
+        }
+
+        final Trie trie = builder.build();
+
+        for (final String input: inputs) {
+            assertThat(trie.search(input, false)).as(input)
+                .isEqualTo(search(words, prefixes, input, false));
+            assertThat(trie.search(input, true)).as(input)
+                .isEqualTo(search(words, prefixes, input, true));
+        }
+    }
+
+    @Test
+    public void searchAtIndexDoesNotLookBeforeIndex()
+    {
+        final Trie trie = Trie.newBuilder().addWord("do").addWord("double")
+            .build();
+
+        assertThat(trie.search("x doubles", 2, false)).isEqualTo(6);
+        assertThat(trie.search("x doubling", 2, false)).isEqualTo(2);
+        assertThat(trie.search("xdouble", 0, false)).isEqualTo(-1);
+        assertThat(trie.search("x DOUBLE", 2, true)).isEqualTo(6);
+    }
+
+    /*
+     * Reference search: walk the input as long as it is a prefix of a word,
+     * trying the other case of a character when ignoring case and the
+     * character itself does not match
+     */
+    private static int search(final Set<String> words,
+        final Set<String> prefixes, final String input,
+        final boolean ignoreCase)
+    {
+        final StringBuilder sb = new StringBuilder();
+        int ret = words.contains("") ? 0 : -1;
+        char c;
+
+        for (int index = 0; index < input.length(); index++) {
+            c = input.charAt(index);
+            if (!prefixes.contains(sb.toString() + c)) {
+                if (!ignoreCase || Character.isUpperCase(c)
+                    == Character.isLowerCase(c))
+                    break;
+                c = Character.isUpperCase(c) ? Character.toLowerCase(c)
+                    : Character.toUpperCase(c);
+                if (!prefixes.contains(sb.toString() + c))
+                    break;
+            }
+            sb.append(c);
+            if (words.contains(sb.toString()))
+                ret = sb.length();
+        }
+
+        return ret;
+    }
+
+    private static String randomWord(final Random random)
+    {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = random.nextInt(6); i >= 0; i--)
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+
+        return sb.toString();
+    }
+}
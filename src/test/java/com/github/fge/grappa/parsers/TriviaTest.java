@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.parsers;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.RopeInputBuffer;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import com.github.fge.grappa.run.stream.MatchEventHandler;
+import com.github.fge.grappa.run.stream.StreamingParseRunner;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class TriviaTest
+{
+    static class TestParser
+        extends BaseParser<Object>
+    {
+        int nrTriviaRuns = 0;
+
+        @Override
+        public Rule trivia()
+        {
+            return sequence(countTriviaRun(), zeroOrMore(firstOf(
+                anyOf(" \n"),
+                comment()
+            )));
+        }
+
+        public Rule comment()
+        {
+            return sequence("/*", zeroOrMore(testNot("*/"), ANY), "*/");
+        }
+
+        public Rule rule()
+        {
+            return sequence(skipTrivia(), firstOf(
+                sequence(lexeme("a"), lexeme("b")),
+                sequence(lexeme("a"), lexeme("c"))
+            ), EOI);
+        }
+
+        boolean countTriviaRun()
+        {
+            nrTriviaRuns++;
+            return true;
+        }
+    }
+
+    static class NoTriviaParser
+        extends BaseParser<Object>
+    {
+        public Rule rule()
+        {
+            return sequence(lexeme("a"), lexeme("b"), EOI);
+        }
+    }
+
+    @Test
+    public void triviaIsSkippedOnlyOncePerPosition()
+    {
+        final TestParser parser = Grappa.createParser(TestParser.class);
+        final ParseRunner<Object> runner = new ParseRunner<>(parser.rule());
+
+        final ParsingResult<Object> result = runner.run(" a /* b */\n c ");
+
+        assertThat(result.isSuccess()).isTrue();
+        // Once at the start, once after "a", once after "c"
+        assertThat(parser.nrTriviaRuns).isEqualTo(3);
+
+        parser.nrTriviaRuns = 0;
+        assertThat(runner.run("a b").isSuccess()).isTrue();
+        assertThat(parser.nrTriviaRuns).isEqualTo(3);
+    }
+
+    @Test
+    public void triviaCacheDoesNotOutliveParsingRuns()
+    {
+        final TestParser parser = Grappa.createParser(TestParser.class);
+        final ParseRunner<Object> runner = new ParseRunner<>(parser.rule());
+        final RopeInputBuffer buffer = new RopeInputBuffer("a b");
+
+        assertThat(runner.run(buffer).isSuccess()).isTrue();
+
+        buffer.insert(2, "/* c */");
+        assertThat(runner.run(buffer).isSuccess()).isTrue();
+    }
+
+    @Test
+    public void matchesWithinTriviaAreNotReported()
+    {
+        final TestParser parser = Grappa.createParser(TestParser.class);
+        final List<String> labels = new ArrayList<>();
+        final MatchEventHandler handler = new MatchEventHandler()
+        {
+            @Override
+            public void enterRule(final String label, final int start)
+            {
+                labels.add(label);
+            }
+        };
+        final ParseRunner<Object> runner
+            = new StreamingParseRunner<>(parser.rule(), handler);
+
+        assertThat(runner.run("/* x */ a /* y */ c").isSuccess()).isTrue();
+        assertThat(labels).doesNotContain("comment").contains("rule");
+    }
+
+    @Test
+    public void noTriviaByDefault()
+    {
+        final NoTriviaParser parser = Grappa.createParser(NoTriviaParser.class);
+        final ParseRunner<Object> runner = new ParseRunner<>(parser.rule());
+
+        assertThat(runner.run("ab").isSuccess()).isTrue();
+        assertThat(runner.run("a b").isSuccess()).isFalse();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.run;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.support.Position;
+import com.github.fge.grappa.support.StringBuilderVar;
+import com.github.fge.grappa.symbols.HashSymbolTable;
+import com.github.fge.grappa.symbols.SymbolTable;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class LexerTest
+{
+    private static final int IF = 1;
+    private static final int IDENTIFIER = 2;
+    private static final int NUMBER = 3;
+    private static final int EQUALS = 4;
+    private static final int ASSIGN = 5;
+
+    static class TestParser
+        extends BaseParser<Object>
+    {
+        final SymbolTable table = new HashSymbolTable();
+
+        public Rule whitespace()
+        {
+            return oneOrMore(anyOf(" \t\r\n"));
+        }
+
+        public Rule comment()
+        {
+            return sequence("//", zeroOrMore(noneOf("\n")));
+        }
+
+        public Rule identifier()
+        {
+            return sequence(alpha(), zeroOrMore(firstOf(alpha(), digit())));
+        }
+
+        // if a == 1 x = 2
+        public Rule statement()
+        {
+            return sequence(token(IF), token(IDENTIFIER), token(EQUALS),
+                token(NUMBER), push(match()), token(IDENTIFIER),
+                token(ASSIGN), token(NUMBER), EOI);
+        }
+
+        // a = 1 bb = 23
+        public Rule assignments()
+        {
+            final StringBuilderVar sb = new StringBuilderVar();
+            return sequence(
+                oneOrMore(
+                    token(IDENTIFIER), push(matchSymbol(table)),
+                    appendMatch(sb),
+                    token(ASSIGN),
+                    token(NUMBER), push(matchAsInt())
+                ),
+                EOI, push(sb.getString())
+            );
+        }
+    }
+
+    private final TestParser parser = Grappa.createParser(TestParser.class);
+
+    private final Lexer lexer = Lexer.newBuilder()
+        .skip(parser.whitespace())
+        .skip(parser.comment())
+        .token(IF, parser.string("if"))
+        .token(IDENTIFIER, parser.identifier())
+        .token(NUMBER, parser.integer())
+        .token(EQUALS, parser.string("=="))
+        .token(ASSIGN, parser.ch('='))
+        .build();
+
+    @Test
+    public void tokensAreProducedWithLongestMatchFirst()
+    {
+        final TokenInputBuffer tokens
+            = lexer.tokenize("if iffy==12 // comment\n  x = 2");
+
+        assertThat(tokens.length()).isEqualTo(7);
+        assertThat(tokens.getKind(0)).isEqualTo(IF);
+        assertThat(tokens.getKind(1)).isEqualTo(IDENTIFIER);
+        assertThat(tokens.getText(1)).isEqualTo("iffy");
+        assertThat(tokens.getKind(2)).isEqualTo(EQUALS);
+        assertThat(tokens.getKind(3)).isEqualTo(NUMBER);
+        assertThat(tokens.getKind(6)).isEqualTo(NUMBER);
+        assertThat(tokens.getTokenStart(4)).isEqualTo(25);
+        assertThat(tokens.getPosition(4)).isEqualTo(new Position(2, 3));
+        assertThat(tokens.extract(1, 4)).isEqualTo("iffy==12");
+    }
+
+    @Test
+    public void unknownCharactersProduceUnknownTokens()
+    {
+        final TokenInputBuffer tokens = lexer.tokenize("a $ 1");
+
+        assertThat(tokens.length()).isEqualTo(3);
+        assertThat(tokens.getKind(1)).isEqualTo(TokenInputBuffer.UNKNOWN);
+        assertThat(tokens.getText(1)).isEqualTo("$");
+    }
+
+    @Test
+    public void parsersCanRunOverTokens()
+    {
+        final TokenInputBuffer tokens = lexer.tokenize("if a == 1 x = 2");
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.statement()).run(tokens);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getTopStackValue()).isEqualTo("1");
+
+        final ParsingResult<Object> failure = new ParseRunner<>(
+            parser.statement()).run(lexer.tokenize("if a = 1 x = 2"));
+
+        assertThat(failure.isSuccess()).isFalse();
+    }
+
+    @Test
+    public void textHelpersReadTheSourceTextOfTokens()
+    {
+        final ParsingResult<Object> result = new ParseRunner<>(
+            parser.assignments()).run(lexer.tokenize("a = 1 bb = 23 a = 4"));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getValueStack()).containsExactly("abba", 4, "a", 23,
+            "bb", 1, "a");
+        assertThat(result.getValueStack().peek(2))
+            .isSameAs(result.getValueStack().peek(6));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.stream;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.support.Var;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class StreamingParseRunnerTest
+{
+    static class StreamingParser
+        extends BaseParser<Object>
+    {
+        final List<String> events = new ArrayList<>();
+
+        public boolean mark()
+        {
+            events.add("|");
+            return true;
+        }
+
+        public Rule number()
+        {
+            return oneOrMore(digit());
+        }
+
+        public Rule comma()
+        {
+            return sequence(',', zeroOrMore(' '));
+        }
+
+        public Rule list()
+        {
+            return sequence(number(), zeroOrMore(',', number(), mark()), EOI);
+        }
+
+        public Rule countedList()
+        {
+            final Var<Integer> count = new Var<>(1);
+            return sequence(number(),
+                zeroOrMore(',', number(), count.set(count.get() + 1), mark()),
+                EOI, push(count.get()));
+        }
+
+        public Rule trailing()
+        {
+            return sequence(join(number()).using(comma()).min(1), comma(),
+                'x', EOI);
+        }
+
+        public Rule choice()
+        {
+            return firstOf(sequence(number(), '!'), sequence(number(), '?'));
+        }
+
+        public Rule lookahead()
+        {
+            return sequence(test(number()), number(), EOI);
+        }
+    }
+
+    private static final class Recorder
+        implements MatchEventHandler
+    {
+        private final List<String> events;
+
+        private Recorder(final List<String> events)
+        {
+            this.events = events;
+        }
+
+        @Override
+        public void enterRule(final String label, final int start)
+        {
+            events.add('>' + label + ' ' + start);
+        }
+
+        @Override
+        public void exitRule(final String label, final int start,
+            final int end)
+        {
+            events.add('<' + label + ' ' + start + ' ' + end);
+        }
+    }
+
+    private final StreamingParser parser
+        = Grappa.createParser(StreamingParser.class);
+
+    @DataProvider
+    public Iterator<Object[]> streams()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { parser.trailing(), "1, 2, x", Arrays.asList(
+            ">trailing 0", ">number 0", "<number 0 1", ">comma 1",
+            "<comma 1 3", ">number 3", "<number 3 4", ">comma 4",
+            "<comma 4 6", "<trailing 0 7"
+        ) });
+        list.add(new Object[] { parser.choice(), "12?", Arrays.asList(
+            ">choice 0", ">number 0", "<number 0 2", "<choice 0 3"
+        ) });
+        list.add(new Object[] { parser.lookahead(), "12", Arrays.asList(
+            ">lookahead 0", ">number 0", "<number 0 2", "<lookahead 0 2"
+        ) });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "streams")
+    public void onlyCommittedMatchesAreReported(final Rule rule,
+        final String input, final List<String> expected)
+    {
+        final List<String> events = new ArrayList<>();
+        final StreamingParseRunner<Object> runner
+            = new StreamingParseRunner<>(rule, new Recorder(events));
+
+        assertThat(runner.run(input).isSuccess()).isTrue();
+        assertThat(events).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void eventsAreDeliveredBeforeTheParseEnds()
+    {
+        final StreamingParser streamingParser
+            = Grappa.createParser(StreamingParser.class);
+        final StreamingParseRunner<Object> runner = new StreamingParseRunner<>(
+            streamingParser.list(), new Recorder(streamingParser.events));
+
+        assertThat(runner.run("1,2,3").isSuccess()).isTrue();
+        assertThat(streamingParser.events).containsExactly(
+            ">list 0", ">number 0", "<number 0 1",
+            "|",
+            ">number 2", "<number 2 3",
+            "|",
+            ">number 4", "<number 4 5",
+            "<list 0 5"
+        );
+    }
+
+    @Test
+    public void eventsOfRulesDeclaringVarsAreDeliveredBeforeTheParseEnds()
+    {
+        final StreamingParser streamingParser
+            = Grappa.createParser(StreamingParser.class);
+        final StreamingParseRunner<Object> runner = new StreamingParseRunner<>(
+            streamingParser.countedList(),
+            new Recorder(streamingParser.events));
+
+        assertThat(runner.run("1,2,3").getTopStackValue()).isEqualTo(3);
+        assertThat(streamingParser.events).containsExactly(
+            ">countedList 0", ">number 0", "<number 0 1",
+            "|",
+            ">number 2", "<number 2 3",
+            "|",
+            ">number 4", "<number 4 5",
+            "<countedList 0 5"
+        );
+    }
+
+    @Test
+    public void runnerCanBeReused()
+    {
+        final List<String> events = new ArrayList<>();
+        final StreamingParseRunner<Object> runner
+            = new StreamingParseRunner<>(parser.choice(), new Recorder(events));
+
+        assertThat(runner.run("1!").isSuccess()).isTrue();
+        events.clear();
+        assertThat(runner.run("23?").isSuccess()).isTrue();
+        assertThat(events).containsExactly(">choice 0", ">number 0",
+            "<number 0 2", "<choice 0 3");
+    }
+}
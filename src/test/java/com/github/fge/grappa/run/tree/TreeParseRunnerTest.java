@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.run.tree;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class TreeParseRunnerTest
+{
+    static class TreeParser
+        extends BaseParser<Object>
+    {
+        public Rule number()
+        {
+            return oneOrMore(digit());
+        }
+
+        public Rule comma()
+        {
+            return sequence(',', zeroOrMore(' '));
+        }
+
+        public Rule items()
+        {
+            return join(number()).using(comma()).min(1);
+        }
+
+        public Rule trailing()
+        {
+            return sequence(items(), comma(), 'x', EOI);
+        }
+
+        public Rule choice()
+        {
+            return firstOf(sequence(number(), '!'), sequence(number(), '?'));
+        }
+
+        public Rule lookahead()
+        {
+            return sequence(test(number()), number(), EOI);
+        }
+
+        public Rule nested()
+        {
+            return firstOf(sequence('(', nested(), ')'), number());
+        }
+    }
+
+    private final TreeParser parser = Grappa.createParser(TreeParser.class);
+
+    @DataProvider
+    public Iterator<Object[]> trees()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { parser.trailing(), "1, 2, x",
+            "(trailing[0,7] (items[0,4] number[0,1] comma[1,3] number[3,4])"
+            + " comma[4,6])" });
+        list.add(new Object[] { parser.choice(), "12?",
+            "(choice[0,3] number[0,2])" });
+        list.add(new Object[] { parser.lookahead(), "42",
+            "(lookahead[0,2] number[0,2])" });
+        list.add(new Object[] { parser.nested(), "((3))",
+            "(nested[0,5] (nested[1,4] (nested[2,3] number[2,3])))" });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "trees")
+    public void treeIsCorrectlyRecorded(final Rule rule, final String input,
+        final String expected)
+    {
+        final TreeParseRunner<Object> runner = new TreeParseRunner<>(rule);
+
+        assertThat(runner.run(input).isSuccess()).isTrue();
+
+        final ParseTree tree = runner.getParseTree();
+        final ParseTreeCursor cursor = tree.cursor();
+
+        assertThat(cursor.getLabel()).isNull();
+        assertThat(cursor.getEnd()).isEqualTo(input.length());
+        assertThat(cursor.gotoFirstChild()).isTrue();
+        assertThat(dump(cursor)).isEqualTo(expected);
+        assertThat(cursor.gotoNextSibling()).isFalse();
+        assertThat(cursor.gotoParent()).isTrue();
+        assertThat(cursor.gotoParent()).isFalse();
+    }
+
+    @Test
+    public void failedParseLeavesOnlyTheRoot()
+    {
+        final TreeParseRunner<Object> runner
+            = new TreeParseRunner<>(parser.choice());
+
+        assertThat(runner.run("12").isSuccess()).isFalse();
+        assertThat(runner.getParseTree().getNodeCount()).isZero();
+    }
+
+    private static String dump(final ParseTreeCursor cursor)
+    {
+        final String node = cursor.getLabel() + '[' + cursor.getStart() + ','
+            + cursor.getEnd() + ']';
+
+        if (!cursor.gotoFirstChild())
+            return node;
+
+        final StringBuilder sb = new StringBuilder("(").append(node);
+
+        do {
+            sb.append(' ').append(dump(cursor));
+        } while (cursor.gotoNextSibling());
+
+        cursor.gotoParent();
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.fge.grappa.stack;
+
+import org.assertj.core.api.AutoCloseableSoftAssertions;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.fge.grappa.util.CustomAssertions.shouldHaveThrown;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class ReverseArrayValueStackTest
+    extends ValueStackTest
+{
+    @Override
+    protected ValueStack<Object> newStack()
+    {
+        final Object[] elements = { o1, o2, o3, o4, o5, o6 };
+
+        return new ReverseArrayValueStack<>(elements);
+    }
+
+    @Override
+    protected void checkNoContents()
+    {
+        assertThat(stack.isEmpty()).isTrue();
+        assertThat(stack.iterator().hasNext()).isFalse();
+    }
+
+    @Override
+    protected void checkContents(final Object first, final Object... others)
+    {
+        final List<Object> expected = new ArrayList<>();
+        expected.add(first);
+        Collections.addAll(expected, others);
+
+        final int size = expected.size();
+
+        assertThat(stack.size()).isEqualTo(size);
+        assertThat(stack.iterator()).containsExactlyElementsOf(expected);
+
+        try (
+            final AutoCloseableSoftAssertions soft
+                = new AutoCloseableSoftAssertions();
+        ) {
+            for (int index = 0; index < size; index++)
+                soft.assertThat(stack.peek(index))
+                    .as("element at index %d", index)
+                    .isEqualTo(expected.get(index));
+        }
+    }
+
+    @Test
+    public void stackGrowsAndSnapshotsCanBeRestoredTwice()
+    {
+        final int nrElements = 10 * ReverseArrayValueStack.INITIAL_SIZE;
+        final Object snapshot = stack.takeSnapshot();
+
+        for (int i = 0; i < nrElements; i++)
+            stack.push(i);
+
+        assertThat(stack.size()).isEqualTo(nrElements + 6);
+
+        for (int i = nrElements - 1; i >= 0; i--)
+            assertThat(stack.pop()).isEqualTo(i);
+
+        stack.restoreSnapshot(snapshot);
+        stack.push(3, new Object());
+        stack.restoreSnapshot(snapshot);
+        checkContents(o1, o2, o3, o4, o5, o6);
+    }
+
+    @Test
+    public void nestedSnapshotsAreRestoredInReverseOrder()
+    {
+        final Object o7 = new Object();
+        final Object o8 = new Object();
+
+        final Object outer = stack.takeSnapshot();
+        stack.poke(2, o7);
+        stack.swap(4);
+
+        final Object inner = stack.takeSnapshot();
+        assertThat(stack.takeSnapshot()).isSameAs(inner);
+        stack.pop(1);
+        stack.push(5, o8);
+        stack.dup();
+
+        stack.restoreSnapshot(inner);
+        checkContents(o4, o7, o2, o1, o5, o6);
+
+        stack.restoreSnapshot(outer);
+        checkContents(o1, o2, o3, o4, o5, o6);
+
+        try {
+            stack.restoreSnapshot(inner);
+            shouldHaveThrown(IllegalStateException.class);
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("invalid snapshot");
+        }
+    }
+
+    @Test
+    public void journalIsEmptiedWhenNoSnapshotIsOutstanding()
+    {
+        final ReverseArrayValueStack<Object> journaled
+            = (ReverseArrayValueStack<Object>) stack;
+        final int nrLoops = 100 * ReverseArrayValueStack.INITIAL_SIZE;
+        Object outer;
+        Object inner;
+
+        for (int i = 0; i < nrLoops; i++) {
+            outer = stack.takeSnapshot();
+            stack.push(i);
+            inner = stack.takeSnapshot();
+            stack.push(i);
+            stack.push(stack.pop() + ", " + stack.pop());
+            stack.discardSnapshot(inner);
+            stack.discardSnapshot(outer);
+            if (i % 2 == 0) {
+                inner = stack.takeSnapshot();
+                stack.push(stack.pop() + "!");
+                stack.restoreSnapshot(inner);
+            }
+            stack.pop();
+        }
+
+        assertThat(journaled.journalCapacity())
+            .isEqualTo(ReverseArrayValueStack.INITIAL_SIZE);
+        checkContents(o1, o2, o3, o4, o5, o6);
+    }
+
+    @Test
+    public void journalIsBoundedUnderAnOuterSnapshot()
+    {
+        final ReverseArrayValueStack<Object> journaled
+            = (ReverseArrayValueStack<Object>) stack;
+        final int nrLoops = 100000;
+        final Object o7 = new Object();
+        final Object outer = stack.takeSnapshot();
+        Object inner = null;
+
+        for (int i = 0; i < nrLoops; i++) {
+            stack.push(i);
+            journaled.pushLong(i);
+            if (i == nrLoops / 2) {
+                stack.poke(6, o7);
+                inner = stack.takeSnapshot();
+            }
+            stack.pop();
+            journaled.popLong(0);
+        }
+
+        assertThat(journaled.journalCapacity())
+            .isLessThanOrEqualTo(4 * ReverseArrayValueStack.MIN_JOURNAL_LIMIT);
+
+        stack.restoreSnapshot(inner);
+        assertThat(journaled.primitiveSize()).isEqualTo(1);
+        assertThat(journaled.popLong(0)).isEqualTo(nrLoops / 2);
+        assertThat(stack.pop()).isEqualTo(nrLoops / 2);
+        checkContents(o1, o2, o3, o4, o5, o7);
+
+        stack.restoreSnapshot(outer);
+        assertThat(journaled.primitiveSize()).isEqualTo(0);
+        checkContents(o1, o2, o3, o4, o5, o6);
+    }
+
+    @Test
+    public void primitiveValuesAreJournaled()
+    {
+        final ReverseArrayValueStack<Object> primitives
+            = (ReverseArrayValueStack<Object>) stack;
+
+        primitives.pushLong(1L);
+        primitives.pushDouble(2.5);
+        primitives.pushInt(3);
+
+        final Object snapshot = stack.takeSnapshot();
+
+        assertThat(primitives.popLong(1)).isEqualTo(
+            Double.doubleToRawLongBits(2.5));
+        primitives.pushInt(-1);
+        stack.pop();
+        assertThat(primitives.peekInt(0)).isEqualTo(-1);
+
+        stack.restoreSnapshot(snapshot);
+
+        assertThat(primitives.primitiveSize()).isEqualTo(3);
+        assertThat(primitives.popInt(0)).isEqualTo(3);
+        assertThat(primitives.popDouble(0)).isEqualTo(2.5);
+        assertThat(primitives.popLong(0)).isEqualTo(1L);
+        checkContents(o1, o2, o3, o4, o5, o6);
+
+        try {
+            primitives.popLong(0);
+            shouldHaveThrown(IllegalStateException.class);
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage(ValueStackBase.NOT_ENOUGH_ELEMENTS);
+        }
+    }
+}
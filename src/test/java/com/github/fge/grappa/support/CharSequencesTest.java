@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fge.grappa.support;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public final class CharSequencesTest
+{
+    private static final String PREFIX = "xx";
+    private static final String SUFFIX = "yy";
+
+    @DataProvider
+    public Iterator<Object[]> longInputs()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        for (final String s: new String[] { "0", "-0", "+12", "-12",
+            "2147483647", "-2147483648", "2147483648", "-2147483649",
+            "9223372036854775807", "-9223372036854775808",
+            "9223372036854775808", "", "-", "+", "1a", "--1", "1 " })
+            list.add(new Object[] { s });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "longInputs")
+    public void integralParsingBehavesLikeTheJdk(final String input)
+    {
+        final String seq = PREFIX + input + SUFFIX;
+        final int start = PREFIX.length();
+        final int end = start + input.length();
+
+        Object expected, actual;
+
+        try {
+            expected = Integer.parseInt(input);
+        } catch (NumberFormatException ignored) {
+            expected = null;
+        }
+        try {
+            actual = CharSequences.parseInt(seq, start, end);
+        } catch (NumberFormatException ignored) {
+            actual = null;
+        }
+        assertThat(actual).as("int value").isEqualTo(expected);
+
+        try {
+            expected = Long.parseLong(input);
+        } catch (NumberFormatException ignored) {
+            expected = null;
+        }
+        try {
+            actual = CharSequences.parseLong(seq, start, end);
+        } catch (NumberFormatException ignored) {
+            actual = null;
+        }
+        assertThat(actual).as("long value").isEqualTo(expected);
+    }
+
+    @DataProvider
+    public Iterator<Object[]> doubleInputs()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        for (final String s: new String[] { "0", "-0", "0.0", "1.", ".5",
+            "1e10", "1E-10", "-3.14159", "123456789012345",
+            "1234567890123456789", "0.1", "0.30000000000000004", "1e22",
+            "1e23", "4.9e-324", "1.7976931348623157e308", "1e400",
+            "NaN", "-Infinity", "1f", "0x1p3", "", ".", "-", "1e", "e5",
+            "1.2.3", " 1" })
+            list.add(new Object[] { s });
+
+        final Random random = new Random(0L);
+        for (int i = 0; i < 200; i++) {
+            list.add(new Object[] {
+                Double.toString(random.nextDouble() * 1e6)
+            });
+            list.add(new Object[] {
+                String.format("%.4f", random.nextGaussian() * 1e3)
+            });
+            list.add(new Object[] {
+                Long.toString(random.nextInt(1000000)) + 'e'
+                    + (random.nextInt(60) - 30)
+            });
+        }
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "doubleInputs")
+    public void doubleParsingBehavesLikeTheJdk(final String input)
+    {
+        final String seq = PREFIX + input + SUFFIX;
+        final int start = PREFIX.length();
+        final int end = start + input.length();
+
+        final double expected;
+
+        try {
+            expected = Double.parseDouble(input);
+        } catch (NumberFormatException ignored) {
+            try {
+                CharSequences.parseDouble(seq, start, end);
+                fail("no exception thrown");
+            } catch (NumberFormatException ignored2) {
+                // OK
+            }
+            return;
+        }
+
+        final double actual = CharSequences.parseDouble(seq, start, end);
+        assertThat(Double.doubleToRawLongBits(actual))
+            .as("bit pattern of " + input)
+            .isEqualTo(Double.doubleToRawLongBits(expected));
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.fge.grappa.support;
+
+import com.github.fge.grappa.matchers.AnyOfMatcher;
+import com.github.fge.grappa.matchers.CharMatcher;
+import com.github.fge.grappa.matchers.CharRangeMatcher;
+import com.github.fge.grappa.rules.Rule;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public final class CharactersTest
+{
+    private static final int NR_CHARS = Character.MAX_VALUE + 1;
+    private static final int NR_SETS = 20;
+
+    private final Random random = new Random(42L);
+
+    @DataProvider
+    public Iterator<Object[]> randomSets()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        for (int i = 0; i < NR_SETS; i++)
+            list.add(new Object[] { randomBits(), randomBits() });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "randomSets")
+    public void setOperationsBehaveLikeBitSets(final BitSet bits1,
+        final BitSet bits2)
+    {
+        final Characters chars1 = fromBits(bits1);
+        final Characters chars2 = fromBits(bits2);
+
+        final BitSet union = (BitSet) bits1.clone();
+        union.or(bits2);
+        final BitSet intersection = (BitSet) bits1.clone();
+        intersection.and(bits2);
+        final BitSet complement = (BitSet) bits1.clone();
+        complement.flip(0, NR_CHARS);
+
+        assertSameSet(chars1, bits1);
+        assertSameSet(chars1.union(chars2), union);
+        assertSameSet(chars1.intersection(chars2), intersection);
+        assertSameSet(chars1.complement(), complement);
+        assertThat(chars1.complement().complement()).isEqualTo(chars1);
+    }
+
+    @Test
+    public void legacyBehaviorIsPreserved()
+    {
+        assertThat(Characters.of("cab").toString()).isEqualTo("[abc]");
+        assertThat(Characters.allBut('x', 'y').toString())
+            .isEqualTo("![xy]");
+        assertThat(Characters.allBut('x').isSubtractive()).isTrue();
+        assertThat(Characters.allBut('x').getChars()).containsExactly('x');
+        assertThat(Characters.ALL.isSubtractive()).isTrue();
+        assertThat(Characters.ALL.getChars()).isEmpty();
+        assertThat(Characters.NONE.isSubtractive()).isFalse();
+        assertThat(Characters.of('a', 'b')).isEqualTo(Characters.of("ba"));
+        assertThat(Characters.of("")).isEqualTo(Characters.NONE);
+        assertThat(Characters.ALL.complement()).isEqualTo(Characters.NONE);
+    }
+
+    @Test
+    public void largeSetsAreDisplayedAsRanges()
+    {
+        final Characters chars = Characters.range('a', 'z')
+            .union(Characters.range('0', '9')).union(Characters.of('_'));
+
+        assertThat(chars.size()).isEqualTo(37);
+        assertThat(chars.toString()).isEqualTo("[0..9_a..z]");
+    }
+
+    @DataProvider
+    public Iterator<Object[]> categories()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { "Lu", new int[] {
+            Character.UPPERCASE_LETTER } });
+        list.add(new Object[] { "Nd", new int[] {
+            Character.DECIMAL_DIGIT_NUMBER } });
+        list.add(new Object[] { "L", new int[] {
+            Character.UPPERCASE_LETTER, Character.LOWERCASE_LETTER,
+            Character.TITLECASE_LETTER, Character.MODIFIER_LETTER,
+            Character.OTHER_LETTER } });
+        list.add(new Object[] { "Z", new int[] {
+            Character.SPACE_SEPARATOR, Character.LINE_SEPARATOR,
+            Character.PARAGRAPH_SEPARATOR } });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "categories")
+    public void unicodeCategoriesAreCorrect(final String name,
+        final int[] types)
+    {
+        final BitSet bits = new BitSet(NR_CHARS);
+
+        for (int c = 0; c < NR_CHARS; c++)
+            for (final int type: types)
+                if (Character.getType(c) == type)
+                    bits.set(c);
+
+        assertSameSet(Characters.ofCategory(name), bits);
+    }
+
+    @Test
+    public void unknownCategoriesAreRejected()
+    {
+        for (final String name: new String[] { "", "X", "Lx", "Lul" }) {
+            try {
+                Characters.ofCategory(name);
+                fail("category " + name + " should have been rejected");
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void singleCharRulesCanBeCollapsed()
+    {
+        final Rule[] rules = {
+            new CharMatcher('_'),
+            new CharRangeMatcher('a', 'z'),
+            new AnyOfMatcher(Characters.of("$@"))
+        };
+
+        assertThat(AnyOfMatcher.unionOf(rules))
+            .isEqualTo(Characters.of("_$@").union(Characters.range('a', 'z')));
+
+        rules[1] = new CharRangeMatcher('a', 'z').label("lower");
+        assertThat(AnyOfMatcher.unionOf(rules)).isNull();
+    }
+
+    private BitSet randomBits()
+    {
+        final BitSet bits = new BitSet(NR_CHARS);
+        final int nrRanges = random.nextInt(100);
+        int start, length;
+
+        for (int i = 0; i < nrRanges; i++) {
+            start = random.nextInt(i % 2 == 0 ? 256 : NR_CHARS);
+            length = 1 + random.nextInt(i % 3 == 0 ? 5 : 1000);
+            bits.set(start, Math.min(start + length, NR_CHARS));
+        }
+
+        return bits;
+    }
+
+    private static Characters fromBits(final BitSet bits)
+    {
+        Characters ret = Characters.NONE;
+        int end;
+
+        for (int start = bits.nextSetBit(0); start >= 0;
+            start = bits.nextSetBit(end)) {
+            end = bits.nextClearBit(start);
+            ret = ret.union(Characters.range((char) start, (char) (end - 1)));
+        }
+
+        return ret;
+    }
+
+    private static void assertSameSet(final Characters chars,
+        final BitSet bits)
+    {
+        assertThat(chars.size()).isEqualTo(bits.cardinality());
+        for (int c = 0; c < NR_CHARS; c++)
+            if (chars.contains((char) c) != bits.get(c))
+                assertThat(chars.contains((char) c))
+                    .as("membership of char %d", c).isEqualTo(bits.get(c));
+    }
+}
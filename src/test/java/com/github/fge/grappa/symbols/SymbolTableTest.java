@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2015 Francis Galiegue <fgaliegue@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.fge.grappa.symbols;
+
+import com.github.fge.grappa.Grappa;
+import com.github.fge.grappa.buffers.CharSequenceInputBuffer;
+import com.github.fge.grappa.buffers.InputBuffer;
+import com.github.fge.grappa.buffers.TokenInputBuffer;
+import com.github.fge.grappa.parsers.BaseParser;
+import com.github.fge.grappa.rules.Rule;
+import com.github.fge.grappa.run.ParseRunner;
+import com.github.fge.grappa.run.ParsingResult;
+import com.github.fge.grappa.stack.ValueStack;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.github.fge.grappa.util.CustomAssertions.shouldHaveThrown;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public final class SymbolTableTest
+{
+    private static final int IDENTIFIER = 1;
+
+    static class SymbolParser
+        extends BaseParser<Object>
+    {
+        final SymbolTable table = new HashSymbolTable();
+
+        public Rule identifier()
+        {
+            return sequence(oneOrMore(alpha()), push(matchSymbol(table)));
+        }
+
+        public Rule identifiers()
+        {
+            return sequence(identifier(), zeroOrMore(' ', identifier()), EOI);
+        }
+
+        public Rule identifierTokens()
+        {
+            return sequence(oneOrMore(token(IDENTIFIER),
+                push(matchSymbol(table)), push(matchSymbolId(table))), EOI);
+        }
+    }
+
+    @DataProvider
+    public Iterator<Object[]> tables()
+    {
+        final List<Object[]> list = new ArrayList<>();
+
+        list.add(new Object[] { (Supplier<SymbolTable>) HashSymbolTable::new });
+        list.add(new Object[] {
+            (Supplier<SymbolTable>) ConcurrentSymbolTable::new
+        });
+        list.add(new Object[] {
+            (Supplier<SymbolTable>) () -> new ConcurrentSymbolTable(1)
+        });
+
+        return list.iterator();
+    }
+
+    @Test(dataProvider = "tables")
+    public void equalRangesYieldTheSameSymbol(
+        final Supplier<SymbolTable> supplier)
+    {
+        final SymbolTable table = supplier.get();
+        final InputBuffer buffer
+            = new CharSequenceInputBuffer("foo bar foo baz bar");
+
+        final String foo = table.symbol(buffer, 0, 3);
+        final int fooId = table.symbolId(buffer, 0, 3);
+
+        assertThat(foo).isEqualTo("foo");
+        assertThat(table.symbol(buffer, 8, 11)).isSameAs(foo);
+        assertThat(table.symbolId(buffer, 8, 11)).isEqualTo(fooId);
+        assertThat(table.getSymbol(fooId)).isSameAs(foo);
+
+        assertThat(table.symbol(buffer, 4, 7))
+            .isSameAs(table.symbol(buffer, 16, 19));
+        assertThat(table.symbol("baz")).isSameAs(table.symbol(buffer, 12, 15));
+        assertThat(table.symbol(buffer, 3, 3)).isEmpty();
+        assertThat(table.size()).isEqualTo(4);
+    }
+
+    @Test(dataProvider = "tables")
+    public void tablesGrowAndKeepTheirIds(final Supplier<SymbolTable> supplier)
+    {
+        final SymbolTable table = supplier.get();
+        final int[] ids = new int[10000];
+
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = table.symbolId("s" + i);
+
+        assertThat(table.size()).isEqualTo(ids.length);
+
+        for (int i = 0; i < ids.length; i++) {
+            assertThat(table.symbolId("s" + i)).isEqualTo(ids[i]);
+            assertThat(table.getSymbol(ids[i])).isEqualTo("s" + i);
+        }
+    }
+
+    @Test(dataProvider = "tables")
+    public void unknownIdsAreRejected(final Supplier<SymbolTable> supplier)
+    {
+        final SymbolTable table = supplier.get();
+
+        table.symbol("foo");
+
+        try {
+            table.getSymbol(-1);
+            shouldHaveThrown(IndexOutOfBoundsException.class);
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+
+        try {
+            table.getSymbol(1 << 20);
+            shouldHaveThrown(IndexOutOfBoundsException.class);
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
+    @Test
+    public void fullTablesOnlyAcceptKnownSymbols()
+    {
+        final SymbolTable table = new HashSymbolTable(2);
+
+        assertThat(table.symbolId("foo")).isEqualTo(0);
+        assertThat(table.symbolId("bar")).isEqualTo(1);
+        assertThat(table.symbolId("foo")).isEqualTo(0);
+
+        try {
+            table.symbolId("baz");
+            shouldHaveThrown(IllegalStateException.class);
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("symbol table is full (2 symbols)");
+        }
+
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void concurrentLookupsAgree()
+        throws InterruptedException
+    {
+        final SymbolTable table = new ConcurrentSymbolTable(4);
+        final int nrThreads = 4;
+        final int nrSymbols = 2000;
+        final int[][] ids = new int[nrThreads][nrSymbols];
+        final Thread[] threads = new Thread[nrThreads];
+
+        for (int t = 0; t < nrThreads; t++) {
+            final int[] threadIds = ids[t];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < nrSymbols; i++)
+                    threadIds[i] = table.symbolId("s" + i);
+            });
+            threads[t].start();
+        }
+
+        for (final Thread thread: threads)
+            thread.join();
+
+        assertThat(table.size()).isEqualTo(nrSymbols);
+
+        for (int t = 1; t < nrThreads; t++)
+            assertThat(ids[t]).isEqualTo(ids[0]);
+    }
+
+    @Test
+    public void matchedTextCanBeInterned()
+    {
+        final SymbolParser parser = Grappa.createParser(SymbolParser.class);
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.identifiers()).run("abc de abc");
+
+        assertThat(result.isSuccess()).isTrue();
+
+        final ValueStack<Object> stack = result.getValueStack();
+
+        assertThat(stack.size()).isEqualTo(3);
+        assertThat(stack.peek(0)).isEqualTo("abc").isSameAs(stack.peek(2));
+        assertThat(stack.peek(1)).isEqualTo("de");
+    }
+
+    @Test
+    public void matchedTokensAreInternedByTheirSourceText()
+    {
+        final SymbolParser parser = Grappa.createParser(SymbolParser.class);
+        final TokenInputBuffer tokens = new TokenInputBuffer(
+            new CharSequenceInputBuffer("abc de abc"),
+            new int[] { IDENTIFIER, 0, 3, IDENTIFIER, 4, 6, IDENTIFIER, 7, 10 },
+            3);
+        final ParsingResult<Object> result
+            = new ParseRunner<>(parser.identifierTokens()).run(tokens);
+
+        assertThat(result.isSuccess()).isTrue();
+
+        final ValueStack<Object> stack = result.getValueStack();
+
+        assertThat(stack.size()).isEqualTo(6);
+        assertThat(stack.peek(1)).isEqualTo("abc").isSameAs(stack.peek(5));
+        assertThat(stack.peek(3)).isEqualTo("de");
+        assertThat(stack.peek(0)).isEqualTo(stack.peek(4));
+        assertThat(stack.peek(2)).isNotEqualTo(stack.peek(0));
+        assertThat(parser.table.getSymbol(0)).isEqualTo("abc");
+    }
+}
@@ -89,6 +89,8 @@ public class ActionClassGeneratorTest extends TransformationTest {
                 "public final synthetic class com/github/fge/grappa/transform/Action$XXXXXXXXXXXXXXXX extends com/github/fge/grappa/transform/runtime/BaseAction  {\n" +
                 "\n" +
                 "\n" +
+                "  @Lcom/github/fge/grappa/annotations/PureAction;()\n" +
+                "\n" +
                 "  // access flags 0x1001\n" +
                 "  public synthetic I field$0\n" +
                 "\n" +
@@ -137,6 +139,8 @@ public class ActionClassGeneratorTest extends TransformationTest {
                 "public final synthetic class com/github/fge/grappa/transform/Action$XXXXXXXXXXXXXXXX extends com/github/fge/grappa/transform/runtime/BaseAction  {\n" +
                 "\n" +
                 "\n" +
+                "  @Lcom/github/fge/grappa/annotations/PureAction;()\n" +
+                "\n" +
                 "  // access flags 0x1001\n" +
                 "  public synthetic Lcom/github/fge/grappa/transform/TestParser$$grappa; field$0\n" +
                 "\n" +
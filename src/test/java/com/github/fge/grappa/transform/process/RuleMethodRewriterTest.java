@@ -148,15 +148,15 @@ public class RuleMethodRewriterTest extends TransformationTest {
                 "68     DUP_X1\n" +
                 "69     SWAP\n" +
                 "70     BIPUSH 1\n" +
-                "71     ANEWARRAY com/github/fge/grappa/support/Var\n" +
+                "71     ANEWARRAY com/github/fge/grappa/support/FramedVar\n" +
                 "72     DUP\n" +
                 "73     BIPUSH 0\n" +
                 "74     ALOAD 4\n" +
                 "75     DUP\n" +
                 "76     LDC \"RuleWithComplexActionSetup:string\"\n" +
-                "77     INVOKEVIRTUAL com/github/fge/grappa/support/Var.setName (Ljava/lang/String;)V\n" +
+                "77     INVOKEINTERFACE com/github/fge/grappa/support/FramedVar.setName (Ljava/lang/String;)V\n" +
                 "78     AASTORE\n" +
-                "79     INVOKESPECIAL com/github/fge/grappa/matchers/wrap/VarFramingMatcher.<init> (Lcom/github/fge/grappa/rules/Rule;[Lcom/github/fge/grappa/support/Var;)V\n" +
+                "79     INVOKESPECIAL com/github/fge/grappa/matchers/wrap/VarFramingMatcher.<init> (Lcom/github/fge/grappa/rules/Rule;[Lcom/github/fge/grappa/support/FramedVar;)V\n" +
                 "80     ARETURN\n");
     }
 
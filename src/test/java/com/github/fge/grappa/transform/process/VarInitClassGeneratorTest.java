@@ -159,6 +159,8 @@ public class VarInitClassGeneratorTest
             +
             "\n" +
             "\n" +
+            "  @Lcom/github/fge/grappa/annotations/PureAction;()\n" +
+            "\n" +
             "  // access flags 0x1001\n" +
             "  public synthetic Lcom/github/fge/grappa/support/Var; field$0\n" +
             "\n" +
@@ -199,8 +201,9 @@ public class VarInitClassGeneratorTest
             +
             "    DUP\n" +
             "    ALOAD 1\n" +
-            "    INVOKEINTERFACE "
-            + "com/github/fge/grappa/run/context/ContextAware.setContext "
+            "    INVOKEVIRTUAL "
+            + "com/github/fge/grappa/transform/process"
+            + "/VarInitClassGeneratorTest$Parser.setContext "
             + "(Lcom/github/fge/grappa/run/context/Context;)V\n"
             +
             "    INVOKEVIRTUAL "